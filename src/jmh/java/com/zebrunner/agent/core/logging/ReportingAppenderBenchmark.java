@@ -0,0 +1,95 @@
+package com.zebrunner.agent.core.logging;
+
+import ch.qos.logback.classic.LoggerContext;
+import com.zebrunner.agent.core.registrar.BenchmarkSupport;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures cost of a log event passing through each of the reporting appenders into the logs buffer.
+ * The events are created once, so only the appenders and the buffer are measured.
+ * <p>Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportingAppenderBenchmark {
+
+    private static final String MESSAGE = "Clicking on element By.xpath: //div[@id='login']/button";
+
+    private com.zebrunner.agent.core.logging.log4j.ReportingAppender log4jAppender;
+    private org.apache.log4j.spi.LoggingEvent log4jEvent;
+
+    private com.zebrunner.agent.core.logging.log4j2.ReportingAppender log4j2Appender;
+    private LogEvent log4j2Event;
+
+    private com.zebrunner.agent.core.logging.logback.ReportingAppender logbackAppender;
+    private ch.qos.logback.classic.spi.LoggingEvent logbackEvent;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.enableReporting();
+        BenchmarkSupport.startTest("test", 1L);
+
+        log4jAppender = new com.zebrunner.agent.core.logging.log4j.ReportingAppender();
+        log4jEvent = new org.apache.log4j.spi.LoggingEvent(
+                org.apache.log4j.Logger.class.getName(), org.apache.log4j.Logger.getLogger("benchmark"),
+                org.apache.log4j.Level.INFO, MESSAGE, null
+        );
+
+        log4j2Appender = com.zebrunner.agent.core.logging.log4j2.ReportingAppender.create("benchmark", null, null);
+        log4j2Event = Log4jLogEvent.newBuilder()
+                                   .setLoggerName("benchmark")
+                                   .setLevel(org.apache.logging.log4j.Level.INFO)
+                                   .setMessage(new SimpleMessage(MESSAGE))
+                                   .setTimeMillis(System.currentTimeMillis())
+                                   .build();
+
+        LoggerContext loggerContext = new LoggerContext();
+        logbackAppender = new com.zebrunner.agent.core.logging.logback.ReportingAppender();
+        logbackAppender.setContext(loggerContext);
+        logbackAppender.start();
+        logbackEvent = new ch.qos.logback.classic.spi.LoggingEvent(
+                ch.qos.logback.classic.Logger.class.getName(), loggerContext.getLogger("benchmark"),
+                ch.qos.logback.classic.Level.INFO, MESSAGE, null, null
+        );
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkSupport.finishTest();
+    }
+
+    @Benchmark
+    public void log4j() {
+        log4jAppender.doAppend(log4jEvent);
+    }
+
+    @Benchmark
+    public void log4j2() {
+        log4j2Appender.append(log4j2Event);
+    }
+
+    @Benchmark
+    public void logback() {
+        logbackAppender.doAppend(logbackEvent);
+    }
+
+}
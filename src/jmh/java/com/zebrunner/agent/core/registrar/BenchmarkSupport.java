@@ -0,0 +1,54 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.registrar.descriptor.SessionStartDescriptor;
+import com.zebrunner.agent.core.registrar.descriptor.TestDescriptor;
+import com.zebrunner.agent.core.registrar.descriptor.TestStartDescriptor;
+
+import java.time.OffsetDateTime;
+import java.util.Collections;
+
+/**
+ * Prepares agent state for benchmarks living outside of the registrar package.
+ */
+public final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Enables reporting and makes the agent report to {@link NoOpZebrunnerApiClient}. Must be called before
+     * the agent configuration is loaded, i.e. before any other agent class is used by the benchmark.
+     */
+    public static void enableReporting() {
+        System.setProperty("reporting.enabled", "true");
+        System.setProperty("reporting.project-key", "BENCH");
+        System.setProperty("reporting.server.hostname", "http://localhost:1");
+        System.setProperty("reporting.server.access-token", "benchmark");
+        ClientRegistrar.register(new NoOpZebrunnerApiClient());
+    }
+
+    /**
+     * Makes a registered test current for the calling thread.
+     *
+     * @param id          framework id of the test
+     * @param zebrunnerId Zebrunner id of the test
+     */
+    public static void startTest(String id, long zebrunnerId) {
+        TestStartDescriptor startDescriptor = TestStartDescriptor.builder()
+                                                                 .name(id)
+                                                                 .startedAt(OffsetDateTime.now())
+                                                                 .build();
+        RunContext.addCurrentTest(id, TestDescriptor.create(zebrunnerId, startDescriptor));
+    }
+
+    public static void finishTest() {
+        RunContext.removeCurrentTest();
+    }
+
+    public static void startSession(String sessionId) {
+        SessionStartDescriptor startDescriptor = SessionStartDescriptor.initiatedWith(Collections.emptyMap());
+        startDescriptor.successfullyStartedWith(sessionId, Collections.emptyMap());
+        TestSessionRegistrar.getInstance().registerStart(startDescriptor);
+    }
+
+}
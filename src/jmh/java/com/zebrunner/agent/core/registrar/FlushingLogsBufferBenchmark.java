@@ -0,0 +1,85 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.logging.Log;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures cost of buffering a log event produced by a test, with the buffered logs being flushed
+ * to {@link NoOpZebrunnerApiClient} in background.
+ * <p>Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FlushingLogsBufferBenchmark {
+
+    private static final String MESSAGE = "Clicking on element By.xpath: //div[@id='login']/button";
+    private static final AtomicLong TEST_IDS = new AtomicLong();
+
+    private FlushingLogsBuffer<String> logsBuffer;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.enableReporting();
+        logsBuffer = new FlushingLogsBuffer<>(message -> Log.builder()
+                                                            .message(message)
+                                                            .level("INFO")
+                                                            .timestamp(System.currentTimeMillis())
+                                                            .build());
+    }
+
+    /**
+     * Test running on the benchmark thread, so the logs are buffered as test logs.
+     */
+    @State(Scope.Thread)
+    public static class CurrentTest {
+
+        @Setup
+        public void setUp(FlushingLogsBufferBenchmark benchmark) {
+            long testId = TEST_IDS.incrementAndGet();
+            BenchmarkSupport.startTest("test-" + testId, testId);
+        }
+
+        @TearDown
+        public void tearDown() {
+            BenchmarkSupport.finishTest();
+        }
+
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void put1Thread(CurrentTest currentTest) {
+        logsBuffer.put(MESSAGE);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void put8Threads(CurrentTest currentTest) {
+        logsBuffer.put(MESSAGE);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void put64Threads(CurrentTest currentTest) {
+        logsBuffer.put(MESSAGE);
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.annotation.Maintainer;
+import com.zebrunner.agent.core.annotation.Priority;
+import com.zebrunner.agent.core.annotation.TestLabel;
+import com.zebrunner.agent.core.registrar.domain.LabelDTO;
+import com.zebrunner.agent.core.registrar.label.CompositeLabelResolver;
+import com.zebrunner.agent.core.registrar.maintainer.ChainedMaintainerResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures resolution of test labels and maintainer, which is performed on start of every test.
+ * <p>Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetadataResolversBenchmark {
+
+    private final CompositeLabelResolver labelResolver = new CompositeLabelResolver();
+    private final ChainedMaintainerResolver maintainerResolver = new ChainedMaintainerResolver();
+
+    private Method annotatedMethod;
+    private Method plainMethod;
+
+    @Maintainer("owner")
+    @TestLabel(name = "feature", value = "login")
+    public static class SampleTest {
+
+        @Priority(Priority.P1)
+        @Maintainer("author")
+        @TestLabel(name = "feature", value = {"login", "sso"})
+        @TestLabel(name = "layer", value = "ui")
+        public void annotatedTest() {
+        }
+
+        public void plainTest() {
+        }
+
+    }
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        annotatedMethod = SampleTest.class.getMethod("annotatedTest");
+        plainMethod = SampleTest.class.getMethod("plainTest");
+    }
+
+    @Benchmark
+    public List<LabelDTO> resolveLabelsOfAnnotatedMethod() {
+        return labelResolver.resolve(SampleTest.class, annotatedMethod);
+    }
+
+    @Benchmark
+    public List<LabelDTO> resolveLabelsOfPlainMethod() {
+        return labelResolver.resolve(SampleTest.class, plainMethod);
+    }
+
+    @Benchmark
+    public String resolveMaintainerOfAnnotatedMethod() {
+        return maintainerResolver.resolve(SampleTest.class, annotatedMethod);
+    }
+
+    @Benchmark
+    public String resolveMaintainerOfPlainMethod() {
+        return maintainerResolver.resolve(SampleTest.class, plainMethod);
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.logging.Log;
+import com.zebrunner.agent.core.registrar.domain.ArtifactReferenceDTO;
+import com.zebrunner.agent.core.registrar.domain.ExchangeRunContextResponse;
+import com.zebrunner.agent.core.registrar.domain.LabelDTO;
+import com.zebrunner.agent.core.registrar.domain.TestCaseResult;
+import com.zebrunner.agent.core.registrar.domain.TestDTO;
+import com.zebrunner.agent.core.registrar.domain.TestRunDTO;
+import com.zebrunner.agent.core.registrar.domain.TestSessionDTO;
+
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ZebrunnerApiClient} which accepts all the requests without sending them anywhere, so benchmarks measure
+ * the agent itself rather than the network. Created entities are given sequential ids.
+ */
+public final class NoOpZebrunnerApiClient implements ZebrunnerApiClient {
+
+    private final AtomicLong idSequence = new AtomicLong();
+
+    @Override
+    public TestRunDTO registerTestRunStart(TestRunDTO testRun) {
+        testRun.setId(idSequence.incrementAndGet());
+        return testRun;
+    }
+
+    @Override
+    public void patchTestRunBuild(Long testRunId, String build) {
+    }
+
+    @Override
+    public void setTestRunPlatform(Long testRunId, String platformName, String platformVersion) {
+    }
+
+    @Override
+    public void registerTestRunFinish(TestRunDTO testRun) {
+    }
+
+    @Override
+    public TestDTO registerTestStart(Long testRunId, TestDTO test, boolean headless) {
+        test.setId(idSequence.incrementAndGet());
+        return test;
+    }
+
+    @Override
+    public TestDTO registerTestRerunStart(Long testRunId, Long testId, TestDTO test, boolean headless) {
+        test.setId(testId);
+        return test;
+    }
+
+    @Override
+    public TestDTO registerHeadlessTestUpdate(Long testRunId, TestDTO test) {
+        return test;
+    }
+
+    @Override
+    public void revertTestRegistration(Long testRunId, Long testId) {
+    }
+
+    @Override
+    public void registerTestFinish(Long testRunId, TestDTO test) {
+    }
+
+    @Override
+    public void sendLogs(Collection<Log> logs, Long testRunId) {
+    }
+
+    @Override
+    public void upsertTestCaseResults(Long testRunId, Long testId, Collection<TestCaseResult> testCaseResults) {
+    }
+
+    @Override
+    public void uploadScreenshot(byte[] screenshot, Long testRunId, Long testId, Long capturedAt) {
+    }
+
+    @Override
+    public void uploadTestRunArtifact(InputStream artifact, String name, Long testRunId) {
+    }
+
+    @Override
+    public void uploadTestArtifact(InputStream artifact, String name, Long testRunId, Long testId) {
+    }
+
+    @Override
+    public void attachArtifactReferenceToTestRun(Long testRunId, ArtifactReferenceDTO artifactReference) {
+    }
+
+    @Override
+    public void attachArtifactReferenceToTest(Long testRunId, Long testId, ArtifactReferenceDTO artifactReference) {
+    }
+
+    @Override
+    public void attachLabelsToTestRun(Long testRunId, Collection<LabelDTO> labels) {
+    }
+
+    @Override
+    public void attachLabelsToTest(Long testRunId, Long testId, Collection<LabelDTO> labels) {
+    }
+
+    @Override
+    public ExchangeRunContextResponse exchangeRerunCondition(String rerunCondition) {
+        return new ExchangeRunContextResponse();
+    }
+
+    @Override
+    public TestSessionDTO startSession(Long testRunId, TestSessionDTO testSession) {
+        testSession.setId(idSequence.incrementAndGet());
+        return testSession;
+    }
+
+    @Override
+    public void updateSession(Long testRunId, TestSessionDTO testSession) {
+    }
+
+    @Override
+    public boolean isKnownIssueAttachedToTest(Long testRunId, Long testId, String failureStacktrace) {
+        return false;
+    }
+
+}
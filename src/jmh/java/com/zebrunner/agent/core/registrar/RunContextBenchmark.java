@@ -0,0 +1,76 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.registrar.descriptor.TestDescriptor;
+import com.zebrunner.agent.core.registrar.descriptor.TestStartDescriptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures operations of {@link RunContext} performed on every test start, test finish and log event,
+ * while the given number of tests is running on other threads.
+ * <p>Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RunContextBenchmark {
+
+    @Param({"10", "1000"})
+    private int runningTestsCount;
+
+    private TestStartDescriptor startDescriptor;
+    private TestDescriptor test;
+
+    @Setup
+    public void setUp() throws InterruptedException {
+        startDescriptor = TestStartDescriptor.builder()
+                                             .name("test")
+                                             .startedAt(OffsetDateTime.now())
+                                             .build();
+        test = TestDescriptor.create(1L, startDescriptor);
+
+        // tests of the other threads are only visible through the shared registry of tests
+        Thread otherThread = new Thread(() -> {
+            for (int i = 0; i < runningTestsCount; i++) {
+                RunContext.addCurrentTest("running-test-" + i, TestDescriptor.create((long) i, startDescriptor));
+            }
+        });
+        otherThread.start();
+        otherThread.join();
+
+        RunContext.addCurrentTest("test", test);
+    }
+
+    @Benchmark
+    public Optional<TestDescriptor> getCurrentTest() {
+        return RunContext.getCurrentTest();
+    }
+
+    @Benchmark
+    public TestDescriptor getTest() {
+        return RunContext.getTest("running-test-0");
+    }
+
+    @Benchmark
+    public Optional<TestDescriptor> addAndRemoveCurrentTest() {
+        RunContext.addCurrentTest("test", test);
+        return RunContext.removeCurrentTest();
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.zebrunner.agent.core.registrar;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures append throughput of {@link WriteAheadJournal} with a consumer draining the journal in background,
+ * so the segments keep being rotated and deleted as they would be during reporting.
+ * <p>Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriteAheadJournalBenchmark {
+
+    @Param({"128", "4096"})
+    private int payloadSize;
+
+    private Path directory;
+    private WriteAheadJournal journal;
+    private Thread consumer;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("zebrunner-journal-benchmark");
+        journal = WriteAheadJournal.open(directory, 16 * 1024 * 1024);
+        payload = new byte[payloadSize];
+        Arrays.fill(payload, (byte) 'x');
+
+        consumer = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    WriteAheadJournal.Entry entry = journal.next(100, TimeUnit.MILLISECONDS);
+                    if (entry != null) {
+                        journal.acknowledge(entry);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, InterruptedException {
+        consumer.interrupt();
+        consumer.join();
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder())
+                 .forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void appendSingleThread() {
+        journal.append(payload);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void appendEightThreads() {
+        journal.append(payload);
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.zebrunner.agent.core.registrar.domain;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonSerializer;
+import com.zebrunner.agent.core.logging.Log;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the shared mapper with hand-written adapters against Gson with reflective adapters
+ * configured the way the mapper was configured before.
+ * <p>Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ObjectMapperBenchmark {
+
+    @Param({"100", "1000"})
+    private int logsCount;
+
+    private final ObjectMapperImpl objectMapper = ObjectMapperImpl.getInstance();
+    private final Gson reflectiveGson = new GsonBuilder()
+            .registerTypeAdapter(OffsetDateTime.class, (JsonSerializer<OffsetDateTime>) (src, type, context) -> context.serialize(src.toString()))
+            .registerTypeAdapter(OffsetDateTime.class, (JsonDeserializer<OffsetDateTime>) (json, type, context) -> OffsetDateTime.parse(json.getAsString()))
+            .create();
+
+    private final ByteArrayOutputStream logsStream = new ByteArrayOutputStream();
+
+    private List<Log> logs;
+    private TestDTO test;
+    private String testJson;
+
+    @Setup
+    public void setUp() {
+        logs = new ArrayList<>(logsCount);
+        long timestamp = System.currentTimeMillis();
+        for (int i = 0; i < logsCount; i++) {
+            logs.add(new Log(String.valueOf(i % 16), "Log message number " + i + " produced by the test", "INFO", timestamp + i));
+        }
+
+        test = TestDTO.builder()
+                      .id(42L)
+                      .name("com.zebrunner.SampleTest.shouldPass[3]")
+                      .correlationData("{\"className\":\"com.zebrunner.SampleTest\",\"methodName\":\"shouldPass\"}")
+                      .className("com.zebrunner.SampleTest")
+                      .methodName("shouldPass")
+                      .argumentsIndex(3)
+                      .startedAt(OffsetDateTime.now())
+                      .endedAt(OffsetDateTime.now())
+                      .maintainer("anonymous")
+                      .labels(Arrays.asList(new LabelDTO("priority", "P1"), new LabelDTO("feature", "login")))
+                      .testGroups(Arrays.asList("smoke", "regression"))
+                      .result("PASSED")
+                      .build();
+        testJson = reflectiveGson.toJson(test);
+    }
+
+    @Benchmark
+    public String writeLogsWithSharedMapper() {
+        return objectMapper.writeValue(logs);
+    }
+
+    @Benchmark
+    public int writeLogsToStreamWithSharedMapper() {
+        logsStream.reset();
+        objectMapper.writeValue(logs, logsStream);
+        return logsStream.size();
+    }
+
+    @Benchmark
+    public String writeLogsWithReflectiveGson() {
+        return reflectiveGson.toJson(logs);
+    }
+
+    @Benchmark
+    public String writeTestWithSharedMapper() {
+        return objectMapper.writeValue(test);
+    }
+
+    @Benchmark
+    public String writeTestWithReflectiveGson() {
+        return reflectiveGson.toJson(test);
+    }
+
+    @Benchmark
+    public TestDTO readTestWithSharedMapper() {
+        return objectMapper.readValue(testJson, TestDTO.class);
+    }
+
+    @Benchmark
+    public TestDTO readTestWithReflectiveGson() {
+        return reflectiveGson.fromJson(testJson, TestDTO.class);
+    }
+
+}
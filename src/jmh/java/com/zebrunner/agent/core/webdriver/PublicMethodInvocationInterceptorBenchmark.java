@@ -0,0 +1,93 @@
+package com.zebrunner.agent.core.webdriver;
+
+import com.zebrunner.agent.core.registrar.BenchmarkSupport;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures overhead added by {@link PublicMethodInvocationInterceptor} to a WebDriver call. The driver stub answers
+ * right away, so the difference between the instrumented and uninstrumented driver is the cost of the interceptor.
+ * The advice is inlined into a copy of the driver stub the same way as {@link DriverSessionsAgent} inlines it
+ * into {@link RemoteWebDriver}.
+ * <p>The same driver is used by the same test during the whole measurement, which is the fast path of the interceptor:
+ * the gc profiler is expected to report no allocation per operation on top of the uninstrumented driver.
+ * <p>Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PublicMethodInvocationInterceptorBenchmark {
+
+    private static final String SESSION_ID = "4f2c9e5a7b3d4e1f8a6c0b9d2e7f1a3c";
+
+    private RemoteWebDriver uninstrumentedDriver;
+    private RemoteWebDriver instrumentedDriver;
+
+    /**
+     * Driver which does not talk to any server.
+     */
+    public static class DriverStub extends RemoteWebDriver {
+
+        public DriverStub() {
+            super.setSessionId(SESSION_ID);
+        }
+
+        @Override
+        public String getTitle() {
+            return "Login";
+        }
+
+    }
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        BenchmarkSupport.enableReporting();
+        BenchmarkSupport.startTest("test", 1L);
+        BenchmarkSupport.startSession(SESSION_ID);
+
+        uninstrumentedDriver = new DriverStub();
+        instrumentedDriver = new ByteBuddy().redefine(DriverStub.class)
+                                            .name(DriverStub.class.getName() + "$Instrumented")
+                                            .visit(Advice.to(PublicMethodInvocationInterceptor.class)
+                                                         .on(DriverSessionsAgent.isPublicMethodToIntercept()))
+                                            .make()
+                                            .load(DriverStub.class.getClassLoader(), ClassLoadingStrategy.Default.WRAPPER)
+                                            .getLoaded()
+                                            .getDeclaredConstructor()
+                                            .newInstance();
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkSupport.finishTest();
+    }
+
+    @Benchmark
+    public String uninstrumentedDriver() {
+        return uninstrumentedDriver.getTitle();
+    }
+
+    @Benchmark
+    public String instrumentedDriver() {
+        return instrumentedDriver.getTitle();
+    }
+
+}
@@ -7,6 +7,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public class ConfigurationHolder {
 
@@ -51,6 +53,61 @@ public class ConfigurationHolder {
         return configuration.getServer().getAccessToken();
     }
 
+    public static int getServerConnectTimeoutMillis() {
+        Long connectTimeout = configuration.getServer().getConnectTimeout();
+        return connectTimeout != null ? connectTimeout.intValue() : 10000;
+    }
+
+    public static int getServerSocketTimeoutMillis() {
+        Long socketTimeout = configuration.getServer().getSocketTimeout();
+        return socketTimeout != null ? socketTimeout.intValue() : 60000;
+    }
+
+    public static int getServerMaxConnections() {
+        Long maxConnections = configuration.getServer().getMaxConnections();
+        return maxConnections != null ? maxConnections.intValue() : 128;
+    }
+
+    public static int getServerMaxConnectionsPerRoute() {
+        Long maxConnectionsPerRoute = configuration.getServer().getMaxConnectionsPerRoute();
+        return maxConnectionsPerRoute != null ? maxConnectionsPerRoute.intValue() : 64;
+    }
+
+    public static long getServerConnectionTtlMillis() {
+        Long connectionTtl = configuration.getServer().getConnectionTtl();
+        return connectionTtl != null ? connectionTtl : 300000L;
+    }
+
+    public static boolean isServerGzipRequestsEnabled() {
+        Boolean gzipRequests = configuration.getServer().getGzipRequests();
+        return gzipRequests != null && gzipRequests;
+    }
+
+    public static long getServerGzipThresholdBytes() {
+        Long gzipThreshold = configuration.getServer().getGzipThreshold();
+        return gzipThreshold != null && gzipThreshold >= 0 ? gzipThreshold : 1024;
+    }
+
+    public static long getServerRequestDeadlineMillis() {
+        Long requestDeadline = configuration.getServer().getRequestDeadline();
+        return requestDeadline != null && requestDeadline > 0 ? requestDeadline : 60000L;
+    }
+
+    public static long getServerRetryBackoffMillis() {
+        Long retryBackoff = configuration.getServer().getRetryBackoff();
+        return retryBackoff != null && retryBackoff >= 0 ? retryBackoff : 200L;
+    }
+
+    public static int getServerCircuitBreakerFailureThreshold() {
+        Long failureThreshold = configuration.getServer().getCircuitBreakerFailureThreshold();
+        return failureThreshold != null && failureThreshold > 0 ? failureThreshold.intValue() : 5;
+    }
+
+    public static long getServerCircuitBreakerOpenDurationMillis() {
+        Long openDuration = configuration.getServer().getCircuitBreakerOpenDuration();
+        return openDuration != null && openDuration > 0 ? openDuration : 30000L;
+    }
+
     public static String getRunDisplayNameOr(String displayName) {
         String RUN_DISPLAY_NAME = configuration.getRun().getDisplayName();
         return RUN_DISPLAY_NAME != null ? RUN_DISPLAY_NAME : displayName;
@@ -233,4 +290,165 @@ public class ConfigurationHolder {
         return configuration.getTcm().getZephyr().getTestCycleKey();
     }
 
+    public static boolean isAsyncReportingEnabled() {
+        Boolean async = configuration.getClient().getAsync();
+        return async != null && async;
+    }
+
+    public static int getClientIoThreads() {
+        Long ioThreads = configuration.getClient().getIoThreads();
+        return ioThreads != null && ioThreads > 0 ? ioThreads.intValue() : 4;
+    }
+
+    /**
+     * Tells whether test start returns without waiting for the test to be registered on Zebrunner side.
+     * Enabling the deferred registration also enables the I/O executor, so the registration leaves the test thread
+     * even if {@code reporting.client.async} is not set.
+     *
+     * @return true if {@code reporting.client.deferred-test-registration} is {@code true}
+     */
+    public static boolean isDeferredTestRegistrationEnabled() {
+        Boolean deferredTestRegistration = configuration.getClient().getDeferredTestRegistration();
+        return deferredTestRegistration != null && deferredTestRegistration;
+    }
+
+    /**
+     * Tells whether test starts and finishes are collected into batches. Requests of a batch are issued concurrently
+     * on the I/O executor, so enabling the batching also enables the executor even if {@code reporting.client.async}
+     * is not set.
+     *
+     * @return true if {@code reporting.client.lifecycle-batching} is {@code true}
+     */
+    public static boolean isLifecycleBatchingEnabled() {
+        Boolean lifecycleBatching = configuration.getClient().getLifecycleBatching();
+        return lifecycleBatching != null && lifecycleBatching;
+    }
+
+    public static int getClientBatchSize() {
+        Long batchSize = configuration.getClient().getBatchSize();
+        return batchSize != null && batchSize > 0 ? batchSize.intValue() : 100;
+    }
+
+    public static long getClientBatchMaxDelayMillis() {
+        Long batchMaxDelay = configuration.getClient().getBatchMaxDelay();
+        return batchMaxDelay != null && batchMaxDelay > 0 ? batchMaxDelay : 200;
+    }
+
+    public static boolean isClientSpoolEnabled() {
+        Boolean spool = configuration.getClient().getSpool();
+        return spool != null && spool;
+    }
+
+    public static String getClientSpoolDirectory() {
+        String spoolDirectory = configuration.getClient().getSpoolDirectory();
+        return spoolDirectory != null && !spoolDirectory.trim().isEmpty() ? spoolDirectory : ".zebrunner/spool";
+    }
+
+    public static int getClientSpoolSegmentSize() {
+        Long spoolSegmentSize = configuration.getClient().getSpoolSegmentSize();
+        return spoolSegmentSize != null && spoolSegmentSize > 0 ? (int) Math.min(spoolSegmentSize, Integer.MAX_VALUE) : 16777216;
+    }
+
+    /**
+     * Tells whether the agent records reporting events into a local run archive instead of sending them to Zebrunner.
+     * The archive is uploaded to Zebrunner after the run by {@code RunArchiveUploader}.
+     *
+     * @return true if {@code reporting.client.mode} is {@code archive}
+     */
+    public static boolean isClientArchiveModeEnabled() {
+        return "archive".equalsIgnoreCase(configuration.getClient().getMode());
+    }
+
+    public static String getClientArchiveDirectory() {
+        String archiveDirectory = configuration.getClient().getArchiveDirectory();
+        return archiveDirectory != null && !archiveDirectory.trim().isEmpty() ? archiveDirectory : ".zebrunner/archive";
+    }
+
+    public static boolean isClientMetricsJmxEnabled() {
+        Boolean metricsJmx = configuration.getClient().getMetricsJmx();
+        return metricsJmx == null || metricsJmx;
+    }
+
+    /**
+     * Returns port of the local http endpoint exposing agent metrics in Prometheus text format.
+     *
+     * @return port of the endpoint or 0 if the endpoint is disabled
+     */
+    public static int getClientMetricsPort() {
+        Long metricsPort = configuration.getClient().getMetricsPort();
+        return metricsPort != null && metricsPort > 0 && metricsPort <= 65535 ? metricsPort.intValue() : 0;
+    }
+
+    public static boolean isClientCapabilitiesCompactionEnabled() {
+        Boolean capabilitiesCompaction = configuration.getClient().getCapabilitiesCompaction();
+        return capabilitiesCompaction == null || capabilitiesCompaction;
+    }
+
+    public static int getClientCapabilitiesMaxValueLength() {
+        Long maxValueLength = configuration.getClient().getCapabilitiesMaxValueLength();
+        return maxValueLength != null && maxValueLength > 0 ? maxValueLength.intValue() : 2048;
+    }
+
+    /**
+     * Returns capabilities which are not sent to Zebrunner. Nested capabilities are addressed by dot-separated path,
+     * e.g. {@code goog:chromeOptions.extensions}.
+     *
+     * @return keys of capabilities to be stripped
+     */
+    public static Set<String> getClientCapabilitiesStrippedKeys() {
+        String strippedKeys = configuration.getClient().getCapabilitiesStrippedKeys();
+        if (strippedKeys == null) {
+            strippedKeys = "goog:chromeOptions.extensions,ms:edgeOptions.extensions,moz:firefoxOptions.profile,"
+                    + "appium:chromeOptions.extensions";
+        }
+        return Arrays.stream(strippedKeys.split(","))
+                     .map(String::trim)
+                     .filter(key -> !key.isEmpty())
+                     .collect(Collectors.toSet());
+    }
+
+    /**
+     * Tells whether durations of WebDriver commands are recorded per test and attached to tests as a summary.
+     *
+     * @return true if {@code reporting.client.webdriver-profiling} is {@code true}
+     */
+    public static boolean isClientWebDriverProfilingEnabled() {
+        Boolean webDriverProfiling = configuration.getClient().getWebDriverProfiling();
+        return webDriverProfiling != null && webDriverProfiling;
+    }
+
+    public static int getLogsBufferCapacity() {
+        Long bufferCapacity = configuration.getLogs().getBufferCapacity();
+        return bufferCapacity != null && bufferCapacity > 0 ? bufferCapacity.intValue() : 65536;
+    }
+
+    public static long getLogsBufferCapacityBytes() {
+        Long bufferCapacityBytes = configuration.getLogs().getBufferCapacityBytes();
+        return bufferCapacityBytes != null && bufferCapacityBytes > 0 ? bufferCapacityBytes : 67108864;
+    }
+
+    public static String getLogsOverflowPolicy() {
+        return configuration.getLogs().getOverflowPolicy();
+    }
+
+    public static int getLogsOverflowSampleRate() {
+        Long overflowSampleRate = configuration.getLogs().getOverflowSampleRate();
+        return overflowSampleRate != null && overflowSampleRate > 0 ? overflowSampleRate.intValue() : 10;
+    }
+
+    public static int getLogsFlushBatchSize() {
+        Long flushBatchSize = configuration.getLogs().getFlushBatchSize();
+        return flushBatchSize != null && flushBatchSize > 0 ? flushBatchSize.intValue() : 1000;
+    }
+
+    public static long getLogsFlushBatchBytes() {
+        Long flushBatchBytes = configuration.getLogs().getFlushBatchBytes();
+        return flushBatchBytes != null && flushBatchBytes > 0 ? flushBatchBytes : 1048576;
+    }
+
+    public static long getLogsFlushMaxLatencyMillis() {
+        Long flushMaxLatency = configuration.getLogs().getFlushMaxLatency();
+        return flushMaxLatency != null && flushMaxLatency > 0 ? flushMaxLatency : 1000;
+    }
+
 }
@@ -41,6 +41,8 @@ class ConfigurationProvidersChain {
                                                               .milestone(new ReportingConfiguration.MilestoneConfiguration())
                                                               .notification(new ReportingConfiguration.NotificationConfiguration())
                                                               .tcm(new ReportingConfiguration.TcmConfiguration())
+                                                              .client(new ReportingConfiguration.ClientConfiguration())
+                                                              .logs(new ReportingConfiguration.LogsConfiguration())
                                                               .build();
         assembleConfiguration(config);
         if (areMandatoryArgsSet(config)) {
@@ -81,6 +83,8 @@ class ConfigurationProvidersChain {
         normalizeMilestoneConfiguration(config);
         normalizeNotificationConfiguration(config);
         normalizeTcmConfiguration(config);
+        normalizeClientConfiguration(config);
+        normalizeLogsConfiguration(config);
     }
 
     private static void normalizeServerConfiguration(ReportingConfiguration config) {
@@ -177,6 +181,18 @@ class ConfigurationProvidersChain {
         }
     }
 
+    private static void normalizeClientConfiguration(ReportingConfiguration config) {
+        if (config.getClient() == null) {
+            config.setClient(new ReportingConfiguration.ClientConfiguration());
+        }
+    }
+
+    private static void normalizeLogsConfiguration(ReportingConfiguration config) {
+        if (config.getLogs() == null) {
+            config.setLogs(new ReportingConfiguration.LogsConfiguration());
+        }
+    }
+
     private static void normalizeTcmTestCaseStatus(ReportingConfiguration.TcmConfiguration tcmConfiguration) {
         ReportingConfiguration.TcmConfiguration.TestCaseStatus testCaseStatus = tcmConfiguration.getTestCaseStatus();
         if (testCaseStatus == null) {
@@ -296,6 +312,39 @@ class ConfigurationProvidersChain {
         if (server.getAccessToken() == null) {
             server.setAccessToken(providedConfig.getServer().getAccessToken());
         }
+        if (server.getConnectTimeout() == null) {
+            server.setConnectTimeout(providedConfig.getServer().getConnectTimeout());
+        }
+        if (server.getSocketTimeout() == null) {
+            server.setSocketTimeout(providedConfig.getServer().getSocketTimeout());
+        }
+        if (server.getMaxConnections() == null) {
+            server.setMaxConnections(providedConfig.getServer().getMaxConnections());
+        }
+        if (server.getMaxConnectionsPerRoute() == null) {
+            server.setMaxConnectionsPerRoute(providedConfig.getServer().getMaxConnectionsPerRoute());
+        }
+        if (server.getConnectionTtl() == null) {
+            server.setConnectionTtl(providedConfig.getServer().getConnectionTtl());
+        }
+        if (server.getGzipRequests() == null) {
+            server.setGzipRequests(providedConfig.getServer().getGzipRequests());
+        }
+        if (server.getGzipThreshold() == null) {
+            server.setGzipThreshold(providedConfig.getServer().getGzipThreshold());
+        }
+        if (server.getRequestDeadline() == null) {
+            server.setRequestDeadline(providedConfig.getServer().getRequestDeadline());
+        }
+        if (server.getRetryBackoff() == null) {
+            server.setRetryBackoff(providedConfig.getServer().getRetryBackoff());
+        }
+        if (server.getCircuitBreakerFailureThreshold() == null) {
+            server.setCircuitBreakerFailureThreshold(providedConfig.getServer().getCircuitBreakerFailureThreshold());
+        }
+        if (server.getCircuitBreakerOpenDuration() == null) {
+            server.setCircuitBreakerOpenDuration(providedConfig.getServer().getCircuitBreakerOpenDuration());
+        }
 
         ReportingConfiguration.RunConfiguration run = config.getRun();
         if (run.getDisplayName() == null) {
@@ -423,6 +472,82 @@ class ConfigurationProvidersChain {
         if (zephyr.getTestCycleKey() == null) {
             zephyr.setTestCycleKey(providedConfig.getTcm().getZephyr().getTestCycleKey());
         }
+
+        ReportingConfiguration.ClientConfiguration client = config.getClient();
+        if (client.getAsync() == null) {
+            client.setAsync(providedConfig.getClient().getAsync());
+        }
+        if (client.getIoThreads() == null) {
+            client.setIoThreads(providedConfig.getClient().getIoThreads());
+        }
+        if (client.getDeferredTestRegistration() == null) {
+            client.setDeferredTestRegistration(providedConfig.getClient().getDeferredTestRegistration());
+        }
+        if (client.getLifecycleBatching() == null) {
+            client.setLifecycleBatching(providedConfig.getClient().getLifecycleBatching());
+        }
+        if (client.getBatchSize() == null) {
+            client.setBatchSize(providedConfig.getClient().getBatchSize());
+        }
+        if (client.getBatchMaxDelay() == null) {
+            client.setBatchMaxDelay(providedConfig.getClient().getBatchMaxDelay());
+        }
+        if (client.getSpool() == null) {
+            client.setSpool(providedConfig.getClient().getSpool());
+        }
+        if (client.getSpoolDirectory() == null) {
+            client.setSpoolDirectory(providedConfig.getClient().getSpoolDirectory());
+        }
+        if (client.getSpoolSegmentSize() == null) {
+            client.setSpoolSegmentSize(providedConfig.getClient().getSpoolSegmentSize());
+        }
+        if (client.getMode() == null) {
+            client.setMode(providedConfig.getClient().getMode());
+        }
+        if (client.getArchiveDirectory() == null) {
+            client.setArchiveDirectory(providedConfig.getClient().getArchiveDirectory());
+        }
+        if (client.getMetricsJmx() == null) {
+            client.setMetricsJmx(providedConfig.getClient().getMetricsJmx());
+        }
+        if (client.getMetricsPort() == null) {
+            client.setMetricsPort(providedConfig.getClient().getMetricsPort());
+        }
+        if (client.getCapabilitiesCompaction() == null) {
+            client.setCapabilitiesCompaction(providedConfig.getClient().getCapabilitiesCompaction());
+        }
+        if (client.getCapabilitiesMaxValueLength() == null) {
+            client.setCapabilitiesMaxValueLength(providedConfig.getClient().getCapabilitiesMaxValueLength());
+        }
+        if (client.getCapabilitiesStrippedKeys() == null) {
+            client.setCapabilitiesStrippedKeys(providedConfig.getClient().getCapabilitiesStrippedKeys());
+        }
+        if (client.getWebDriverProfiling() == null) {
+            client.setWebDriverProfiling(providedConfig.getClient().getWebDriverProfiling());
+        }
+
+        ReportingConfiguration.LogsConfiguration logs = config.getLogs();
+        if (logs.getBufferCapacity() == null) {
+            logs.setBufferCapacity(providedConfig.getLogs().getBufferCapacity());
+        }
+        if (logs.getBufferCapacityBytes() == null) {
+            logs.setBufferCapacityBytes(providedConfig.getLogs().getBufferCapacityBytes());
+        }
+        if (logs.getOverflowPolicy() == null) {
+            logs.setOverflowPolicy(providedConfig.getLogs().getOverflowPolicy());
+        }
+        if (logs.getOverflowSampleRate() == null) {
+            logs.setOverflowSampleRate(providedConfig.getLogs().getOverflowSampleRate());
+        }
+        if (logs.getFlushBatchSize() == null) {
+            logs.setFlushBatchSize(providedConfig.getLogs().getFlushBatchSize());
+        }
+        if (logs.getFlushBatchBytes() == null) {
+            logs.setFlushBatchBytes(providedConfig.getLogs().getFlushBatchBytes());
+        }
+        if (logs.getFlushMaxLatency() == null) {
+            logs.setFlushMaxLatency(providedConfig.getLogs().getFlushMaxLatency());
+        }
     }
 
     // project-key is not considered as a mandatory property
@@ -439,6 +564,17 @@ class ConfigurationProvidersChain {
         String projectKey = config.getProjectKey();
         String hostname = config.getServer().getHostname();
         String accessToken = config.getServer().getAccessToken();
+        Long connectTimeout = config.getServer().getConnectTimeout();
+        Long socketTimeout = config.getServer().getSocketTimeout();
+        Long maxConnections = config.getServer().getMaxConnections();
+        Long maxConnectionsPerRoute = config.getServer().getMaxConnectionsPerRoute();
+        Long connectionTtl = config.getServer().getConnectionTtl();
+        Boolean gzipRequests = config.getServer().getGzipRequests();
+        Long gzipThreshold = config.getServer().getGzipThreshold();
+        Long requestDeadline = config.getServer().getRequestDeadline();
+        Long retryBackoff = config.getServer().getRetryBackoff();
+        Long circuitBreakerFailureThreshold = config.getServer().getCircuitBreakerFailureThreshold();
+        Long circuitBreakerOpenDuration = config.getServer().getCircuitBreakerOpenDuration();
 
         String displayName = config.getRun().getDisplayName();
         String build = config.getRun().getBuild();
@@ -480,9 +616,39 @@ class ConfigurationProvidersChain {
         String zephyrJiraProjectKey = config.getTcm().getZephyr().getJiraProjectKey();
         String zephyrTestCycleKey = config.getTcm().getZephyr().getTestCycleKey();
 
+        Boolean clientAsync = config.getClient().getAsync();
+        Long clientIoThreads = config.getClient().getIoThreads();
+        Boolean clientDeferredTestRegistration = config.getClient().getDeferredTestRegistration();
+        Boolean clientLifecycleBatching = config.getClient().getLifecycleBatching();
+        Long clientBatchSize = config.getClient().getBatchSize();
+        Long clientBatchMaxDelay = config.getClient().getBatchMaxDelay();
+        Boolean clientSpool = config.getClient().getSpool();
+        String clientSpoolDirectory = config.getClient().getSpoolDirectory();
+        Long clientSpoolSegmentSize = config.getClient().getSpoolSegmentSize();
+        String clientMode = config.getClient().getMode();
+        String clientArchiveDirectory = config.getClient().getArchiveDirectory();
+        Boolean clientMetricsJmx = config.getClient().getMetricsJmx();
+        Long clientMetricsPort = config.getClient().getMetricsPort();
+        Boolean clientCapabilitiesCompaction = config.getClient().getCapabilitiesCompaction();
+        Long clientCapabilitiesMaxValueLength = config.getClient().getCapabilitiesMaxValueLength();
+        String clientCapabilitiesStrippedKeys = config.getClient().getCapabilitiesStrippedKeys();
+        Boolean clientWebDriverProfiling = config.getClient().getWebDriverProfiling();
+        Long logsBufferCapacity = config.getLogs().getBufferCapacity();
+        Long logsBufferCapacityBytes = config.getLogs().getBufferCapacityBytes();
+        String logsOverflowPolicy = config.getLogs().getOverflowPolicy();
+        Long logsOverflowSampleRate = config.getLogs().getOverflowSampleRate();
+        Long logsFlushBatchSize = config.getLogs().getFlushBatchSize();
+        Long logsFlushBatchBytes = config.getLogs().getFlushBatchBytes();
+        Long logsFlushMaxLatency = config.getLogs().getFlushMaxLatency();
+
         return enabled != null
                 && projectKey != null
                 && hostname != null && accessToken != null
+                && connectTimeout != null && socketTimeout != null
+                && maxConnections != null && maxConnectionsPerRoute != null && connectionTtl != null
+                && gzipRequests != null && gzipThreshold != null
+                && requestDeadline != null && retryBackoff != null
+                && circuitBreakerFailureThreshold != null && circuitBreakerOpenDuration != null
                 && displayName != null && build != null && environment != null && context != null
                 && retryKnownIssues != null && substituteRemoteWebDrivers != null && treatSkipsAsFailures != null
                 && testCaseStatusOnPass != null && testCaseStatusOnFail != null && testCaseStatusOnSkip != null
@@ -492,7 +658,17 @@ class ConfigurationProvidersChain {
                 && testRailRunId != null && testRailIncludeAllTestCasesInNewRun != null && testRailRunName != null
                 && testRailMilestoneName != null && testRailAssignee != null
                 && xrayPushResults != null && xrayPushInRealTime != null && xrayExecutionKey != null
-                && zephyrPushResults != null && zephyrPushInRealTime != null && zephyrJiraProjectKey != null && zephyrTestCycleKey != null;
+                && zephyrPushResults != null && zephyrPushInRealTime != null && zephyrJiraProjectKey != null && zephyrTestCycleKey != null
+                && clientAsync != null && clientIoThreads != null && clientDeferredTestRegistration != null
+                && clientLifecycleBatching != null && clientBatchSize != null && clientBatchMaxDelay != null
+                && clientSpool != null && clientSpoolDirectory != null && clientSpoolSegmentSize != null
+                && clientMode != null && clientArchiveDirectory != null
+                && clientMetricsJmx != null && clientMetricsPort != null
+                && clientCapabilitiesCompaction != null && clientCapabilitiesMaxValueLength != null
+                && clientCapabilitiesStrippedKeys != null && clientWebDriverProfiling != null
+                && logsBufferCapacity != null && logsBufferCapacityBytes != null && logsOverflowPolicy != null
+                && logsOverflowSampleRate != null && logsFlushBatchSize != null && logsFlushBatchBytes != null
+                && logsFlushMaxLatency != null;
     }
 
 }
@@ -46,6 +46,12 @@ public class ReportingConfiguration {
     @Configuration
     private TcmConfiguration tcm;
 
+    @Configuration
+    private ClientConfiguration client;
+
+    @Configuration
+    private LogsConfiguration logs;
+
     public boolean isReportingEnabled() {
         return reportingEnabled != null && reportingEnabled;
     }
@@ -87,6 +93,72 @@ public class ReportingConfiguration {
         @SystemProperty({"reporting.server.access-token", "reporting.server.accessToken"})
         private String accessToken;
 
+        @YamlProperty("reporting.server.connect-timeout")
+        @SystemProperty("reporting.server.connect-timeout")
+        @EnvironmentVariable("REPORTING_SERVER_CONNECT_TIMEOUT")
+        @PropertiesFileProperty("reporting.server.connect-timeout")
+        private Long connectTimeout;
+
+        @YamlProperty("reporting.server.socket-timeout")
+        @SystemProperty("reporting.server.socket-timeout")
+        @EnvironmentVariable("REPORTING_SERVER_SOCKET_TIMEOUT")
+        @PropertiesFileProperty("reporting.server.socket-timeout")
+        private Long socketTimeout;
+
+        @YamlProperty("reporting.server.max-connections")
+        @SystemProperty("reporting.server.max-connections")
+        @EnvironmentVariable("REPORTING_SERVER_MAX_CONNECTIONS")
+        @PropertiesFileProperty("reporting.server.max-connections")
+        private Long maxConnections;
+
+        @YamlProperty("reporting.server.max-connections-per-route")
+        @SystemProperty("reporting.server.max-connections-per-route")
+        @EnvironmentVariable("REPORTING_SERVER_MAX_CONNECTIONS_PER_ROUTE")
+        @PropertiesFileProperty("reporting.server.max-connections-per-route")
+        private Long maxConnectionsPerRoute;
+
+        @YamlProperty("reporting.server.connection-ttl")
+        @SystemProperty("reporting.server.connection-ttl")
+        @EnvironmentVariable("REPORTING_SERVER_CONNECTION_TTL")
+        @PropertiesFileProperty("reporting.server.connection-ttl")
+        private Long connectionTtl;
+
+        @YamlProperty("reporting.server.gzip-requests")
+        @SystemProperty("reporting.server.gzip-requests")
+        @EnvironmentVariable("REPORTING_SERVER_GZIP_REQUESTS")
+        @PropertiesFileProperty("reporting.server.gzip-requests")
+        private Boolean gzipRequests;
+
+        @YamlProperty("reporting.server.gzip-threshold")
+        @SystemProperty("reporting.server.gzip-threshold")
+        @EnvironmentVariable("REPORTING_SERVER_GZIP_THRESHOLD")
+        @PropertiesFileProperty("reporting.server.gzip-threshold")
+        private Long gzipThreshold;
+
+        @YamlProperty("reporting.server.request-deadline")
+        @SystemProperty("reporting.server.request-deadline")
+        @EnvironmentVariable("REPORTING_SERVER_REQUEST_DEADLINE")
+        @PropertiesFileProperty("reporting.server.request-deadline")
+        private Long requestDeadline;
+
+        @YamlProperty("reporting.server.retry-backoff")
+        @SystemProperty("reporting.server.retry-backoff")
+        @EnvironmentVariable("REPORTING_SERVER_RETRY_BACKOFF")
+        @PropertiesFileProperty("reporting.server.retry-backoff")
+        private Long retryBackoff;
+
+        @YamlProperty("reporting.server.circuit-breaker-failure-threshold")
+        @SystemProperty("reporting.server.circuit-breaker-failure-threshold")
+        @EnvironmentVariable("REPORTING_SERVER_CIRCUIT_BREAKER_FAILURE_THRESHOLD")
+        @PropertiesFileProperty("reporting.server.circuit-breaker-failure-threshold")
+        private Long circuitBreakerFailureThreshold;
+
+        @YamlProperty("reporting.server.circuit-breaker-open-duration")
+        @SystemProperty("reporting.server.circuit-breaker-open-duration")
+        @EnvironmentVariable("REPORTING_SERVER_CIRCUIT_BREAKER_OPEN_DURATION")
+        @PropertiesFileProperty("reporting.server.circuit-breaker-open-duration")
+        private Long circuitBreakerOpenDuration;
+
     }
 
     @Getter
@@ -136,6 +208,166 @@ public class ReportingConfiguration {
 
     }
 
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ClientConfiguration {
+
+        @YamlProperty("reporting.client.async")
+        @SystemProperty("reporting.client.async")
+        @EnvironmentVariable("REPORTING_CLIENT_ASYNC")
+        @PropertiesFileProperty("reporting.client.async")
+        private Boolean async;
+
+        @YamlProperty("reporting.client.io-threads")
+        @SystemProperty("reporting.client.io-threads")
+        @EnvironmentVariable("REPORTING_CLIENT_IO_THREADS")
+        @PropertiesFileProperty("reporting.client.io-threads")
+        private Long ioThreads;
+
+        @YamlProperty("reporting.client.deferred-test-registration")
+        @SystemProperty("reporting.client.deferred-test-registration")
+        @EnvironmentVariable("REPORTING_CLIENT_DEFERRED_TEST_REGISTRATION")
+        @PropertiesFileProperty("reporting.client.deferred-test-registration")
+        private Boolean deferredTestRegistration;
+
+        @YamlProperty("reporting.client.lifecycle-batching")
+        @SystemProperty("reporting.client.lifecycle-batching")
+        @EnvironmentVariable("REPORTING_CLIENT_LIFECYCLE_BATCHING")
+        @PropertiesFileProperty("reporting.client.lifecycle-batching")
+        private Boolean lifecycleBatching;
+
+        @YamlProperty("reporting.client.batch-size")
+        @SystemProperty("reporting.client.batch-size")
+        @EnvironmentVariable("REPORTING_CLIENT_BATCH_SIZE")
+        @PropertiesFileProperty("reporting.client.batch-size")
+        private Long batchSize;
+
+        @YamlProperty("reporting.client.batch-max-delay")
+        @SystemProperty("reporting.client.batch-max-delay")
+        @EnvironmentVariable("REPORTING_CLIENT_BATCH_MAX_DELAY")
+        @PropertiesFileProperty("reporting.client.batch-max-delay")
+        private Long batchMaxDelay;
+
+        @YamlProperty("reporting.client.spool")
+        @SystemProperty("reporting.client.spool")
+        @EnvironmentVariable("REPORTING_CLIENT_SPOOL")
+        @PropertiesFileProperty("reporting.client.spool")
+        private Boolean spool;
+
+        @YamlProperty("reporting.client.spool-directory")
+        @SystemProperty("reporting.client.spool-directory")
+        @EnvironmentVariable("REPORTING_CLIENT_SPOOL_DIRECTORY")
+        @PropertiesFileProperty("reporting.client.spool-directory")
+        private String spoolDirectory;
+
+        @YamlProperty("reporting.client.spool-segment-size")
+        @SystemProperty("reporting.client.spool-segment-size")
+        @EnvironmentVariable("REPORTING_CLIENT_SPOOL_SEGMENT_SIZE")
+        @PropertiesFileProperty("reporting.client.spool-segment-size")
+        private Long spoolSegmentSize;
+
+        @YamlProperty("reporting.client.mode")
+        @SystemProperty("reporting.client.mode")
+        @EnvironmentVariable("REPORTING_CLIENT_MODE")
+        @PropertiesFileProperty("reporting.client.mode")
+        private String mode;
+
+        @YamlProperty("reporting.client.archive-directory")
+        @SystemProperty("reporting.client.archive-directory")
+        @EnvironmentVariable("REPORTING_CLIENT_ARCHIVE_DIRECTORY")
+        @PropertiesFileProperty("reporting.client.archive-directory")
+        private String archiveDirectory;
+
+        @YamlProperty("reporting.client.metrics-jmx")
+        @SystemProperty("reporting.client.metrics-jmx")
+        @EnvironmentVariable("REPORTING_CLIENT_METRICS_JMX")
+        @PropertiesFileProperty("reporting.client.metrics-jmx")
+        private Boolean metricsJmx;
+
+        @YamlProperty("reporting.client.metrics-port")
+        @SystemProperty("reporting.client.metrics-port")
+        @EnvironmentVariable("REPORTING_CLIENT_METRICS_PORT")
+        @PropertiesFileProperty("reporting.client.metrics-port")
+        private Long metricsPort;
+
+        @YamlProperty("reporting.client.capabilities-compaction")
+        @SystemProperty("reporting.client.capabilities-compaction")
+        @EnvironmentVariable("REPORTING_CLIENT_CAPABILITIES_COMPACTION")
+        @PropertiesFileProperty("reporting.client.capabilities-compaction")
+        private Boolean capabilitiesCompaction;
+
+        @YamlProperty("reporting.client.capabilities-max-value-length")
+        @SystemProperty("reporting.client.capabilities-max-value-length")
+        @EnvironmentVariable("REPORTING_CLIENT_CAPABILITIES_MAX_VALUE_LENGTH")
+        @PropertiesFileProperty("reporting.client.capabilities-max-value-length")
+        private Long capabilitiesMaxValueLength;
+
+        @YamlProperty("reporting.client.capabilities-stripped-keys")
+        @SystemProperty("reporting.client.capabilities-stripped-keys")
+        @EnvironmentVariable("REPORTING_CLIENT_CAPABILITIES_STRIPPED_KEYS")
+        @PropertiesFileProperty("reporting.client.capabilities-stripped-keys")
+        private String capabilitiesStrippedKeys;
+
+        @YamlProperty("reporting.client.webdriver-profiling")
+        @SystemProperty("reporting.client.webdriver-profiling")
+        @EnvironmentVariable("REPORTING_CLIENT_WEBDRIVER_PROFILING")
+        @PropertiesFileProperty("reporting.client.webdriver-profiling")
+        private Boolean webDriverProfiling;
+
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LogsConfiguration {
+
+        @YamlProperty("reporting.logs.buffer-capacity")
+        @SystemProperty("reporting.logs.buffer-capacity")
+        @EnvironmentVariable("REPORTING_LOGS_BUFFER_CAPACITY")
+        @PropertiesFileProperty("reporting.logs.buffer-capacity")
+        private Long bufferCapacity;
+
+        @YamlProperty("reporting.logs.buffer-capacity-bytes")
+        @SystemProperty("reporting.logs.buffer-capacity-bytes")
+        @EnvironmentVariable("REPORTING_LOGS_BUFFER_CAPACITY_BYTES")
+        @PropertiesFileProperty("reporting.logs.buffer-capacity-bytes")
+        private Long bufferCapacityBytes;
+
+        @YamlProperty("reporting.logs.overflow-policy")
+        @SystemProperty("reporting.logs.overflow-policy")
+        @EnvironmentVariable("REPORTING_LOGS_OVERFLOW_POLICY")
+        @PropertiesFileProperty("reporting.logs.overflow-policy")
+        private String overflowPolicy;
+
+        @YamlProperty("reporting.logs.overflow-sample-rate")
+        @SystemProperty("reporting.logs.overflow-sample-rate")
+        @EnvironmentVariable("REPORTING_LOGS_OVERFLOW_SAMPLE_RATE")
+        @PropertiesFileProperty("reporting.logs.overflow-sample-rate")
+        private Long overflowSampleRate;
+
+        @YamlProperty("reporting.logs.flush-batch-size")
+        @SystemProperty("reporting.logs.flush-batch-size")
+        @EnvironmentVariable("REPORTING_LOGS_FLUSH_BATCH_SIZE")
+        @PropertiesFileProperty("reporting.logs.flush-batch-size")
+        private Long flushBatchSize;
+
+        @YamlProperty("reporting.logs.flush-batch-bytes")
+        @SystemProperty("reporting.logs.flush-batch-bytes")
+        @EnvironmentVariable("REPORTING_LOGS_FLUSH_BATCH_BYTES")
+        @PropertiesFileProperty("reporting.logs.flush-batch-bytes")
+        private Long flushBatchBytes;
+
+        @YamlProperty("reporting.logs.flush-max-latency")
+        @SystemProperty("reporting.logs.flush-max-latency")
+        @EnvironmentVariable("REPORTING_LOGS_FLUSH_MAX_LATENCY")
+        @PropertiesFileProperty("reporting.logs.flush-max-latency")
+        private Long flushMaxLatency;
+
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
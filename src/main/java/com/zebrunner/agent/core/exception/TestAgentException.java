@@ -6,4 +6,8 @@ public class TestAgentException extends RuntimeException {
         super(message);
     }
 
+    public TestAgentException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
 }
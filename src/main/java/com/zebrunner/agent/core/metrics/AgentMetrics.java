@@ -0,0 +1,191 @@
+package com.zebrunner.agent.core.metrics;
+
+import com.zebrunner.agent.core.config.ConfigurationHolder;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Self-metrics of the agent. The metrics are exposed over JMX (unless {@code reporting.client.metrics-jmx} is
+ * {@code false}) and, if {@code reporting.client.metrics-port} is set, on a local Prometheus endpoint.
+ * A summary of the metrics is logged at shutdown.
+ */
+@Slf4j
+public final class AgentMetrics {
+
+    private static final String PREFIX = "zebrunner_agent_";
+
+    private static final MetricsRegistry REGISTRY = MetricsRegistry.getInstance();
+
+    public static final Counter LOGS_BUFFERED = REGISTRY.counter(
+            PREFIX + "logs_buffered_total", "Log entries accepted by the logs buffer."
+    );
+    public static final Counter LOGS_SENT = REGISTRY.counter(
+            PREFIX + "logs_sent_total", "Log entries sent to Zebrunner."
+    );
+    public static final Histogram LOGS_FLUSH_DURATION = REGISTRY.histogram(
+            PREFIX + "logs_flush_duration_seconds", "Duration of sending a batch of logs to Zebrunner."
+    );
+    public static final Counter API_RETRIES = REGISTRY.counter(
+            PREFIX + "api_retries_total", "Retried calls to Zebrunner API."
+    );
+    public static final Counter API_SENT_BYTES = REGISTRY.counter(
+            PREFIX + "api_sent_bytes_total", "Bytes of request bodies sent to Zebrunner API before compression."
+    );
+    public static final Counter ARTIFACT_UPLOAD_ATTEMPTS = REGISTRY.counter(
+            PREFIX + "artifact_upload_attempts_total",
+            "Attempts to upload artifacts and artifact references to Zebrunner, including failed and dropped ones."
+    );
+    public static final Counter SESSIONS_STARTED = REGISTRY.counter(
+            PREFIX + "sessions_started_total", "Registered starts of test sessions."
+    );
+    public static final Counter SESSIONS_CLOSED = REGISTRY.counter(
+            PREFIX + "sessions_closed_total", "Registered closes of test sessions."
+    );
+    public static final Counter SESSION_LINKS = REGISTRY.counter(
+            PREFIX + "session_links_total", "Links of tests to test sessions."
+    );
+    public static final Counter SESSION_DUPLICATE_CLOSES = REGISTRY.counter(
+            PREFIX + "session_duplicate_closes_total", "Attempts to close an already closed WebDriver session."
+    );
+    public static final Histogram SESSION_START_DURATION = REGISTRY.histogram(
+            PREFIX + "session_start_duration_seconds", "Duration of starting a WebDriver session."
+    );
+    public static final Counter WEBDRIVER_COMMANDS = REGISTRY.counter(
+            PREFIX + "webdriver_commands_total", "WebDriver commands intercepted by the agent."
+    );
+    public static final Histogram WEBDRIVER_INTERCEPTOR_DURATION = REGISTRY.histogram(
+            PREFIX + "webdriver_interceptor_duration_seconds", "Time spent by the agent in a WebDriver command interceptor."
+    );
+
+    static {
+        if (ConfigurationHolder.isReportingEnabled()) {
+            if (ConfigurationHolder.isClientMetricsJmxEnabled()) {
+                registerMBean();
+            }
+            int port = ConfigurationHolder.getClientMetricsPort();
+            if (port > 0) {
+                MetricsHttpEndpoint.start(REGISTRY, port);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(AgentMetrics::logSummary));
+        }
+    }
+
+    private AgentMetrics() {
+    }
+
+    /**
+     * Returns histogram of durations of calls to the given Zebrunner API endpoint.
+     *
+     * @param endpoint normalized path of the endpoint, e.g. {@code /v1/test-runs/{id}/tests}
+     * @param method   HTTP method
+     * @return histogram of the endpoint
+     */
+    public static Histogram apiRequestDuration(String endpoint, String method) {
+        return REGISTRY.histogram(
+                PREFIX + "api_request_duration_seconds", "Duration of calls to Zebrunner API.",
+                "endpoint", endpoint, "method", method
+        );
+    }
+
+    /**
+     * Returns counter of responses of the given Zebrunner API endpoint with the given status class.
+     *
+     * @param endpoint    normalized path of the endpoint, e.g. {@code /v1/test-runs/{id}/tests}
+     * @param method      HTTP method
+     * @param statusClass status class, e.g. {@code 2xx}, or {@code error} if no response was received
+     * @return counter of the responses
+     */
+    public static Counter apiResponses(String endpoint, String method, String statusClass) {
+        return REGISTRY.counter(
+                PREFIX + "api_responses_total", "Responses of Zebrunner API.",
+                "endpoint", endpoint, "method", method, "status", statusClass
+        );
+    }
+
+    /**
+     * Returns histogram of startup durations of WebDriver sessions with the given capabilities, including time
+     * spent in a grid queue.
+     *
+     * @param browser  browser name, e.g. {@code chrome}
+     * @param platform platform name, e.g. {@code linux}
+     * @param device   device name for mobile sessions
+     * @return histogram of the session startups
+     */
+    public static Histogram sessionStartupDuration(String browser, String platform, String device) {
+        return REGISTRY.histogram(
+                PREFIX + "session_startup_duration_seconds", "Duration from WebDriver session request to its start or failure.",
+                "browser", browser, "platform", platform, "device", device
+        );
+    }
+
+    /**
+     * Returns counter of startups of WebDriver sessions with the given capabilities and outcome.
+     *
+     * @param browser  browser name, e.g. {@code chrome}
+     * @param platform platform name, e.g. {@code linux}
+     * @param device   device name for mobile sessions
+     * @param result   {@code started} or {@code failed}
+     * @return counter of the session startups
+     */
+    public static Counter sessionStartups(String browser, String platform, String device, String result) {
+        return REGISTRY.counter(
+                PREFIX + "session_startups_total", "WebDriver session startups by capabilities and outcome.",
+                "browser", browser, "platform", platform, "device", device, "result", result
+        );
+    }
+
+    public static MetricsRegistry getRegistry() {
+        return REGISTRY;
+    }
+
+    private static void registerMBean() {
+        try {
+            ObjectName objectName = new ObjectName(MetricsMBean.OBJECT_NAME);
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsMBean(REGISTRY), objectName);
+            }
+        } catch (JMException | RuntimeException e) {
+            log.debug("Could not register Zebrunner agent metrics MBean: {}", e.getMessage());
+        }
+    }
+
+    private static void logSummary() {
+        StringBuilder summary = new StringBuilder("Zebrunner agent metrics:");
+        for (Metric metric : REGISTRY.getMetrics()) {
+            String name = metric.getLabels().isEmpty()
+                    ? metric.getName()
+                    : metric.getName() + "{" + metric.getLabels() + "}";
+            if (metric instanceof Histogram) {
+                Histogram histogram = (Histogram) metric;
+                long count = histogram.getCount();
+                if (count > 0) {
+                    summary.append(String.format(
+                            Locale.ROOT, "%n  %s count=%d mean=%.1fms p50=%s p99=%s",
+                            name, count, TimeUnit.SECONDS.toMillis(1) * histogram.getSumSeconds() / count,
+                            formatQuantile(histogram.getQuantileSeconds(0.5)),
+                            formatQuantile(histogram.getQuantileSeconds(0.99))
+                    ));
+                }
+            } else {
+                metric.collect((sampleName, labels, value) -> {
+                    if (value != 0) {
+                        summary.append(String.format(Locale.ROOT, "%n  %s %d", name, (long) value));
+                    }
+                });
+            }
+        }
+        log.info(summary.toString());
+    }
+
+    private static String formatQuantile(double seconds) {
+        return Double.isInfinite(seconds)
+                ? "+Inf"
+                : String.format(Locale.ROOT, "<=%.0fms", seconds * TimeUnit.SECONDS.toMillis(1));
+    }
+
+}
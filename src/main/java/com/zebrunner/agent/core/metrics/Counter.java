@@ -0,0 +1,39 @@
+package com.zebrunner.agent.core.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonically growing counter. Updates are striped, so the counter can be incremented by many threads at once
+ * without contention.
+ */
+public final class Counter extends Metric {
+
+    private final LongAdder value = new LongAdder();
+
+    Counter(String name, String help, String labels) {
+        super(name, help, labels);
+    }
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+
+    @Override
+    Type getType() {
+        return Type.COUNTER;
+    }
+
+    @Override
+    void collect(SampleConsumer consumer) {
+        consumer.accept(this.getName(), this.getLabels(), value.sum());
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.zebrunner.agent.core.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Counter or gauge whose value is read from the state of the agent at the time the metric is collected.
+ */
+final class FunctionMetric extends Metric {
+
+    private final Type type;
+    private final LongSupplier value;
+
+    FunctionMetric(String name, String help, String labels, Type type, LongSupplier value) {
+        super(name, help, labels);
+        this.type = type;
+        this.value = value;
+    }
+
+    @Override
+    Type getType() {
+        return type;
+    }
+
+    @Override
+    void collect(SampleConsumer consumer) {
+        consumer.accept(this.getName(), this.getLabels(), value.getAsLong());
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.zebrunner.agent.core.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram with fixed buckets from 1 millisecond to 5 minutes. Recording a latency only increments
+ * a striped counter of its bucket, so it costs about the same as incrementing a {@link Counter}.
+ * <p>The buckets above 30 seconds are there for WebDriver sessions, which may wait long in a grid queue.
+ * <p>Following Prometheus conventions, the latencies are exposed in seconds.
+ */
+public final class Histogram extends Metric {
+
+    private static final long[] BUCKET_UPPER_BOUNDS_NANOS = {
+            TimeUnit.MICROSECONDS.toNanos(1000),
+            TimeUnit.MICROSECONDS.toNanos(2500),
+            TimeUnit.MILLISECONDS.toNanos(5),
+            TimeUnit.MILLISECONDS.toNanos(10),
+            TimeUnit.MILLISECONDS.toNanos(25),
+            TimeUnit.MILLISECONDS.toNanos(50),
+            TimeUnit.MILLISECONDS.toNanos(100),
+            TimeUnit.MILLISECONDS.toNanos(250),
+            TimeUnit.MILLISECONDS.toNanos(500),
+            TimeUnit.SECONDS.toNanos(1),
+            TimeUnit.MILLISECONDS.toNanos(2500),
+            TimeUnit.SECONDS.toNanos(5),
+            TimeUnit.SECONDS.toNanos(10),
+            TimeUnit.SECONDS.toNanos(30),
+            TimeUnit.MINUTES.toNanos(1),
+            TimeUnit.MINUTES.toNanos(2),
+            TimeUnit.MINUTES.toNanos(5)
+    };
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    // the last bucket holds the latencies exceeding the greatest upper bound
+    private final LongAdder[] buckets = new LongAdder[BUCKET_UPPER_BOUNDS_NANOS.length + 1];
+    private final LongAdder sumNanos = new LongAdder();
+
+    Histogram(String name, String help, String labels) {
+        super(name, help, labels);
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long latencyNanos) {
+        int bucket = 0;
+        while (bucket < BUCKET_UPPER_BOUNDS_NANOS.length && latencyNanos > BUCKET_UPPER_BOUNDS_NANOS[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        sumNanos.add(latencyNanos);
+    }
+
+    /**
+     * Records time elapsed since the given moment.
+     *
+     * @param startNanos moment obtained from {@link System#nanoTime()}
+     */
+    public void recordSince(long startNanos) {
+        this.record(System.nanoTime() - startNanos);
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    public double getSumSeconds() {
+        return sumNanos.sum() / NANOS_PER_SECOND;
+    }
+
+    /**
+     * Estimates the given quantile of the recorded latencies as the upper bound of the bucket containing it.
+     *
+     * @param quantile quantile from 0 to 1
+     * @return estimated quantile in seconds, {@link Double#POSITIVE_INFINITY} if it exceeds the greatest bucket
+     * or 0 if nothing has been recorded
+     */
+    public double getQuantileSeconds(double quantile) {
+        long[] counts = new long[buckets.length];
+        long count = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+            count += counts[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(quantile * count);
+        long cumulativeCount = 0;
+        for (int i = 0; i < BUCKET_UPPER_BOUNDS_NANOS.length; i++) {
+            cumulativeCount += counts[i];
+            if (cumulativeCount >= rank) {
+                return BUCKET_UPPER_BOUNDS_NANOS[i] / NANOS_PER_SECOND;
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    Type getType() {
+        return Type.HISTOGRAM;
+    }
+
+    @Override
+    void collect(SampleConsumer consumer) {
+        String labelsPrefix = this.getLabels().isEmpty() ? "" : this.getLabels() + ",";
+        long cumulativeCount = 0;
+        for (int i = 0; i < BUCKET_UPPER_BOUNDS_NANOS.length; i++) {
+            cumulativeCount += buckets[i].sum();
+            String upperBound = Double.toString(BUCKET_UPPER_BOUNDS_NANOS[i] / NANOS_PER_SECOND);
+            consumer.accept(this.getName() + "_bucket", labelsPrefix + "le=\"" + upperBound + "\"", cumulativeCount);
+        }
+        cumulativeCount += buckets[BUCKET_UPPER_BOUNDS_NANOS.length].sum();
+        consumer.accept(this.getName() + "_bucket", labelsPrefix + "le=\"+Inf\"", cumulativeCount);
+        consumer.accept(this.getName() + "_sum", this.getLabels(), sumNanos.sum() / NANOS_PER_SECOND);
+        consumer.accept(this.getName() + "_count", this.getLabels(), cumulativeCount);
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.zebrunner.agent.core.metrics;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Metric of the agent identified by its name and labels.
+ */
+@Getter
+@RequiredArgsConstructor
+abstract class Metric {
+
+    enum Type {
+
+        COUNTER,
+        GAUGE,
+        HISTOGRAM
+
+    }
+
+    @FunctionalInterface
+    interface SampleConsumer {
+
+        /**
+         * Accepts a sample of the metric.
+         *
+         * @param name   name of the sample, e.g. name of the metric with {@code _count} suffix
+         * @param labels labels of the sample rendered in Prometheus text format without braces
+         * @param value  value of the sample
+         */
+        void accept(String name, String labels, double value);
+
+    }
+
+    private final String name;
+    private final String help;
+    private final String labels;
+
+    abstract Type getType();
+
+    abstract void collect(SampleConsumer consumer);
+
+}
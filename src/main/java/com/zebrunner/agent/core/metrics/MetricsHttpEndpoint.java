@@ -0,0 +1,67 @@
+package com.zebrunner.agent.core.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the agent metrics in Prometheus text format on {@code http://localhost:<port>/metrics}.
+ * The endpoint is bound to the loopback interface only and is handled by a single daemon thread.
+ */
+@Slf4j
+final class MetricsHttpEndpoint {
+
+    private static final String PATH = "/metrics";
+
+    private MetricsHttpEndpoint() {
+    }
+
+    static void start(MetricsRegistry registry, int port) {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            server.createContext(PATH, exchange -> handle(registry, exchange));
+            server.setExecutor(Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "zebrunner-metrics-endpoint");
+                thread.setDaemon(true);
+                return thread;
+            }));
+            server.start();
+
+            log.debug("Zebrunner agent metrics are served on http://localhost:{}{}", port, PATH);
+        } catch (IOException e) {
+            log.warn("Could not start Zebrunner agent metrics endpoint on port {}: {}", port, e.getMessage());
+        }
+    }
+
+    private static void handle(MetricsRegistry registry, HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            Writer writer = new OutputStreamWriter(body, StandardCharsets.UTF_8);
+            PrometheusTextFormat.write(registry, writer);
+
+            exchange.getResponseHeaders().set("Content-Type", PrometheusTextFormat.CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.size());
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                body.writeTo(responseBody);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.zebrunner.agent.core.metrics;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanConstructorInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanNotificationInfo;
+import javax.management.MBeanOperationInfo;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exposes the agent metrics over JMX as read-only attributes named the same way as Prometheus samples,
+ * e.g. {@code zebrunner_agent_logs_buffered_total}. Histogram buckets are left out, while the count
+ * and the sum of histograms are exposed.
+ */
+final class MetricsMBean implements DynamicMBean {
+
+    static final String OBJECT_NAME = "com.zebrunner.agent:type=Metrics";
+
+    private final MetricsRegistry registry;
+
+    MetricsMBean(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    private Map<String, Double> collectSamples() {
+        Map<String, Double> samples = new LinkedHashMap<>();
+        for (Metric metric : registry.getMetrics()) {
+            metric.collect((name, labels, value) -> {
+                if (!name.endsWith("_bucket")) {
+                    samples.put(labels.isEmpty() ? name : name + "{" + labels + "}", value);
+                }
+            });
+        }
+        return samples;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Double value = this.collectSamples().get(attribute);
+        if (value == null) {
+            throw new AttributeNotFoundException("Unknown agent metric " + attribute);
+        }
+        return value;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) {
+        throw new UnsupportedOperationException("Agent metrics are read-only.");
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        Map<String, Double> samples = this.collectSamples();
+        AttributeList attributeList = new AttributeList();
+        for (String attribute : attributes) {
+            Double value = samples.get(attribute);
+            if (value != null) {
+                attributeList.add(new Attribute(attribute, value));
+            }
+        }
+        return attributeList;
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+        throw new UnsupportedOperationException("Agent metrics have no operations.");
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (String sample : this.collectSamples().keySet()) {
+            attributes.add(new MBeanAttributeInfo(sample, Double.class.getName(), sample, true, false, false));
+        }
+        return new MBeanInfo(
+                this.getClass().getName(), "Metrics of Zebrunner agent",
+                attributes.toArray(new MBeanAttributeInfo[0]), new MBeanConstructorInfo[0],
+                new MBeanOperationInfo[0], new MBeanNotificationInfo[0]
+        );
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.zebrunner.agent.core.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Registry of the agent metrics. A metric is identified by its name and labels, so asking for a metric which
+ * already exists returns the existing one. Labels are given as alternating names and values,
+ * e.g. {@code counter("requests_total", "Requests.", "endpoint", "/v1/test-runs", "status", "2xx")}.
+ */
+public final class MetricsRegistry {
+
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+
+    private final ConcurrentMap<String, Metric> metrics = new ConcurrentHashMap<>();
+
+    public static MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) this.register(name, labels, renderedLabels -> new Counter(name, help, renderedLabels));
+    }
+
+    public Histogram histogram(String name, String help, String... labels) {
+        return (Histogram) this.register(name, labels, renderedLabels -> new Histogram(name, help, renderedLabels));
+    }
+
+    /**
+     * Registers counter whose value is maintained by the agent component itself.
+     *
+     * @param name   name of the counter
+     * @param help   description of the counter
+     * @param value  supplier of the current value of the counter
+     * @param labels alternating label names and values
+     */
+    public void counter(String name, String help, LongSupplier value, String... labels) {
+        this.register(name, labels, renderedLabels -> new FunctionMetric(name, help, renderedLabels, Metric.Type.COUNTER, value));
+    }
+
+    public void gauge(String name, String help, LongSupplier value, String... labels) {
+        this.register(name, labels, renderedLabels -> new FunctionMetric(name, help, renderedLabels, Metric.Type.GAUGE, value));
+    }
+
+    private Metric register(String name, String[] labels, Function<String, Metric> metricFactory) {
+        String renderedLabels = renderLabels(labels);
+        String key = renderedLabels.isEmpty() ? name : name + "{" + renderedLabels + "}";
+        Metric metric = metrics.get(key);
+        return metric != null ? metric : metrics.computeIfAbsent(key, $ -> metricFactory.apply(renderedLabels));
+    }
+
+    /**
+     * Returns the registered metrics sorted by name, so metrics with the same name follow each other.
+     *
+     * @return registered metrics
+     */
+    List<Metric> getMetrics() {
+        List<Metric> sortedMetrics = new ArrayList<>(metrics.values());
+        sortedMetrics.sort(Comparator.comparing(Metric::getName).thenComparing(Metric::getLabels));
+        return sortedMetrics;
+    }
+
+    private static String renderLabels(String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be given as pairs of names and values.");
+        }
+
+        StringBuilder renderedLabels = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (renderedLabels.length() > 0) {
+                renderedLabels.append(',');
+            }
+            renderedLabels.append(labels[i]).append("=\"");
+            String value = labels[i + 1] != null ? labels[i + 1] : "";
+            for (int j = 0; j < value.length(); j++) {
+                char c = value.charAt(j);
+                if (c == '\\' || c == '"') {
+                    renderedLabels.append('\\').append(c);
+                } else if (c == '\n') {
+                    renderedLabels.append("\\n");
+                } else {
+                    renderedLabels.append(c);
+                }
+            }
+            renderedLabels.append('"');
+        }
+        return renderedLabels.toString();
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.zebrunner.agent.core.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Writes metrics in Prometheus text exposition format, version 0.0.4.
+ */
+final class PrometheusTextFormat {
+
+    static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private PrometheusTextFormat() {
+    }
+
+    static void write(MetricsRegistry registry, Writer writer) throws IOException {
+        StringBuilder text = new StringBuilder();
+        String previousName = null;
+        for (Metric metric : registry.getMetrics()) {
+            if (!metric.getName().equals(previousName)) {
+                text.append("# HELP ").append(metric.getName()).append(' ').append(metric.getHelp()).append('\n');
+                text.append("# TYPE ").append(metric.getName()).append(' ')
+                    .append(metric.getType().name().toLowerCase(Locale.ROOT)).append('\n');
+                previousName = metric.getName();
+            }
+            metric.collect((name, labels, value) -> {
+                text.append(name);
+                if (!labels.isEmpty()) {
+                    text.append('{').append(labels).append('}');
+                }
+                text.append(' ').append(formatValue(value)).append('\n');
+            });
+        }
+        writer.write(text.toString());
+        writer.flush();
+    }
+
+    private static String formatValue(double value) {
+        if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+}
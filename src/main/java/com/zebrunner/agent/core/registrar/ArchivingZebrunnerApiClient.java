@@ -0,0 +1,347 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.config.ConfigurationHolder;
+import com.zebrunner.agent.core.logging.Log;
+import com.zebrunner.agent.core.registrar.SpooledOperation.Type;
+import com.zebrunner.agent.core.registrar.domain.ArtifactReferenceDTO;
+import com.zebrunner.agent.core.registrar.domain.ExchangeRunContextResponse;
+import com.zebrunner.agent.core.registrar.domain.LabelDTO;
+import com.zebrunner.agent.core.registrar.domain.ObjectMapperImpl;
+import com.zebrunner.agent.core.registrar.domain.TestCaseResult;
+import com.zebrunner.agent.core.registrar.domain.TestDTO;
+import com.zebrunner.agent.core.registrar.domain.TestRunDTO;
+import com.zebrunner.agent.core.registrar.domain.TestSessionDTO;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ZebrunnerApiClient} which does not communicate with Zebrunner during the test run. Instead, all the operations
+ * are recorded into a run archive, which is uploaded to Zebrunner by {@link RunArchiveUploader} after the run.
+ * <p>The archive is a directory containing the {@value #OPERATIONS_FILE} file with one json operation per line
+ * and the {@value #ATTACHMENTS_DIRECTORY} directory with screenshots and artifacts. Since the test run, tests
+ * and sessions are not registered in Zebrunner, the client assigns them local ids, which are replaced
+ * with the actual ids during the upload.
+ * <p>Rerun conditions are still resolved by Zebrunner, while known issues are never reported as attached.
+ */
+@Slf4j
+final class ArchivingZebrunnerApiClient implements ZebrunnerApiClient {
+
+    static final String OPERATIONS_FILE = "operations.ndjson";
+    static final String ATTACHMENTS_DIRECTORY = "attachments";
+
+    private static final int LINE_SEPARATOR = '\n';
+
+    private static ArchivingZebrunnerApiClient INSTANCE;
+
+    private final Path runArchive;
+    private final OutputStream operations;
+    private final ObjectMapperImpl objectMapper = ObjectMapperImpl.getInstance();
+    private final AtomicLong localIds = new AtomicLong();
+    private final AtomicLong attachmentNumbers = new AtomicLong();
+
+    private ArchivingZebrunnerApiClient(Path runArchive) throws IOException {
+        this.runArchive = runArchive;
+        this.operations = new BufferedOutputStream(Files.newOutputStream(runArchive.resolve(OPERATIONS_FILE)));
+        Files.createDirectories(runArchive.resolve(ATTACHMENTS_DIRECTORY));
+
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close));
+    }
+
+    static synchronized ArchivingZebrunnerApiClient getInstance() {
+        if (INSTANCE == null) {
+            Path archiveDirectory = Paths.get(ConfigurationHolder.getClientArchiveDirectory());
+            try {
+                Files.createDirectories(archiveDirectory);
+                Path runArchive = Files.createTempDirectory(archiveDirectory, "run-");
+                INSTANCE = new ArchivingZebrunnerApiClient(runArchive);
+                log.info("Reporting operations will be recorded into {}. "
+                         + "Use {} to upload them to Zebrunner after the run.", runArchive, RunArchiveUploader.class.getName());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not create run archive in " + archiveDirectory, e);
+            }
+        }
+        return INSTANCE;
+    }
+
+    private void record(SpooledOperation operation) {
+        // the operation is serialized into memory first, so the buffered archive is not flushed on every operation
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        objectMapper.writeValue(operation, json);
+        json.write(LINE_SEPARATOR);
+        synchronized (operations) {
+            try {
+                json.writeTo(operations);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not record reporting operation into run archive.", e);
+            }
+        }
+    }
+
+    private String storeAttachment(InputStream content, String name) {
+        String fileName = attachmentNumbers.incrementAndGet() + (name != null ? "-" + name.replaceAll("[^\\w.-]", "_") : "");
+        try {
+            Files.copy(content, runArchive.resolve(ATTACHMENTS_DIRECTORY).resolve(fileName), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store attachment " + name + " in run archive.", e);
+        }
+        return fileName;
+    }
+
+    private String storeAttachment(byte[] content) {
+        String fileName = String.valueOf(attachmentNumbers.incrementAndGet());
+        try {
+            Files.write(runArchive.resolve(ATTACHMENTS_DIRECTORY).resolve(fileName), content);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store attachment in run archive.", e);
+        }
+        return fileName;
+    }
+
+    private void flush() {
+        synchronized (operations) {
+            try {
+                operations.flush();
+            } catch (IOException e) {
+                log.error("Could not flush reporting operations into run archive {}.", runArchive, e);
+            }
+        }
+    }
+
+    private void close() {
+        synchronized (operations) {
+            try {
+                operations.close();
+            } catch (IOException e) {
+                log.error("Could not close run archive {}.", runArchive, e);
+            }
+        }
+    }
+
+    @Override
+    public TestRunDTO registerTestRunStart(TestRunDTO testRun) {
+        testRun.setId(localIds.incrementAndGet());
+        this.record(SpooledOperation.builder()
+                                    .type(Type.REGISTER_TEST_RUN_START)
+                                    .testRun(testRun)
+                                    .build());
+        return testRun;
+    }
+
+    @Override
+    public void patchTestRunBuild(Long testRunId, String build) {
+        this.record(SpooledOperation.builder()
+                                    .type(Type.PATCH_TEST_RUN_BUILD)
+                                    .testRunId(testRunId)
+                                    .testRunBuild(build)
+                                    .build());
+    }
+
+    @Override
+    public void setTestRunPlatform(Long testRunId, String platformName, String platformVersion) {
+        this.record(SpooledOperation.builder()
+                                    .type(Type.SET_TEST_RUN_PLATFORM)
+                                    .testRunId(testRunId)
+                                    .platformName(platformName)
+                                    .platformVersion(platformVersion)
+                                    .build());
+    }
+
+    @Override
+    public void registerTestRunFinish(TestRunDTO testRun) {
+        this.record(SpooledOperation.builder()
+                                    .type(Type.REGISTER_TEST_RUN_FINISH)
+                                    .testRun(testRun)
+                                    .build());
+        this.flush();
+    }
+
+    @Override
+    public TestDTO registerTestStart(Long testRunId, TestDTO test, boolean headless) {
+        test.setId(localIds.incrementAndGet());
+        this.record(SpooledOperation.builder()
+                                    .type(Type.REGISTER_TEST_START)
+                                    .testRunId(testRunId)
+                                    .test(test)
+                                    .headless(headless)
+                                    .build());
+        return test;
+    }
+
+    /**
+     * Records start of the test rerun. The test is given a local id, while id of the rerun test
+     * is the actual id of the test in Zebrunner.
+     */
+    @Override
+    public TestDTO registerTestRerunStart(Long testRunId, Long testId, TestDTO test, boolean headless) {
+        test.setId(localIds.incrementAndGet());
+        this.record(SpooledOperation.builder()
+                                    .type(Type.REGISTER_TEST_RERUN_START)
+                                    .testRunId(testRunId)
+                                    .testId(testId)
+                                    .test(test)
+                                    .headless(headless)
+                                    .build());
+        return test;
+    }
+
+    @Override
+    public TestDTO registerHeadlessTestUpdate(Long testRunId, TestDTO test) {
+        this.record(SpooledOperation.builder()
+                                    .type(Type.REGISTER_HEADLESS_TEST_UPDATE)
+                                    .testRunId(testRunId)
+                                    .test(test)
+                                    .build());
+        return test;
+    }
+
+    @Override
+    public void revertTestRegistration(Long testRunId, Long testId) {
+        this.record(SpooledOperation.builder()
+                                    .type(Type.REVERT_TEST_REGISTRATION)
+                                    .testRunId(testRunId)
+                                    .testId(testId)
+                                    .build());
+    }
+
+    @Override
+    public void registerTestFinish(Long testRunId, TestDTO test) {
+        this.record(SpooledOperation.builder()
+                                    .type(Type.REGISTER_TEST_FINISH)
+                                    .testRunId(testRunId)
+                                    .test(test)
+                                    .build());
+    }
+
+    @Override
+    public void sendLogs(Collection<Log> logs, Long testRunId) {
+        this.record(SpooledOperation.builder()
+                                    .type(Type.SEND_LOGS)
+                                    .testRunId(testRunId)
+                                    .logs(new ArrayList<>(logs))
+                                    .build());
+    }
+
+    @Override
+    public void upsertTestCaseResults(Long testRunId, Long testId, Collection<TestCaseResult> testCaseResults) {
+        this.record(SpooledOperation.builder()
+                                    .type(Type.UPSERT_TEST_CASE_RESULTS)
+                                    .testRunId(testRunId)
+                                    .testId(testId)
+                                    .testCaseResults(new ArrayList<>(testCaseResults))
+                                    .build());
+    }
+
+    @Override
+    public void uploadScreenshot(byte[] screenshot, Long testRunId, Long testId, Long capturedAt) {
+        this.record(SpooledOperation.builder()
+                                    .type(Type.UPLOAD_SCREENSHOT)
+                                    .testRunId(testRunId)
+                                    .testId(testId)
+                                    .capturedAt(capturedAt)
+                                    .attachmentFile(this.storeAttachment(screenshot))
+                                    .build());
+    }
+
+    @Override
+    public void uploadTestRunArtifact(InputStream artifact, String name, Long testRunId) {
+        this.record(SpooledOperation.builder()
+                                    .type(Type.UPLOAD_TEST_RUN_ARTIFACT)
+                                    .testRunId(testRunId)
+                                    .artifactName(name)
+                                    .attachmentFile(this.storeAttachment(artifact, name))
+                                    .build());
+    }
+
+    @Override
+    public void uploadTestArtifact(InputStream artifact, String name, Long testRunId, Long testId) {
+        this.record(SpooledOperation.builder()
+                                    .type(Type.UPLOAD_TEST_ARTIFACT)
+                                    .testRunId(testRunId)
+                                    .testId(testId)
+                                    .artifactName(name)
+                                    .attachmentFile(this.storeAttachment(artifact, name))
+                                    .build());
+    }
+
+    @Override
+    public void attachArtifactReferenceToTestRun(Long testRunId, ArtifactReferenceDTO artifactReference) {
+        this.record(SpooledOperation.builder()
+                                    .type(Type.ATTACH_ARTIFACT_REFERENCE_TO_TEST_RUN)
+                                    .testRunId(testRunId)
+                                    .artifactReference(artifactReference)
+                                    .build());
+    }
+
+    @Override
+    public void attachArtifactReferenceToTest(Long testRunId, Long testId, ArtifactReferenceDTO artifactReference) {
+        this.record(SpooledOperation.builder()
+                                    .type(Type.ATTACH_ARTIFACT_REFERENCE_TO_TEST)
+                                    .testRunId(testRunId)
+                                    .testId(testId)
+                                    .artifactReference(artifactReference)
+                                    .build());
+    }
+
+    @Override
+    public void attachLabelsToTestRun(Long testRunId, Collection<LabelDTO> labels) {
+        this.record(SpooledOperation.builder()
+                                    .type(Type.ATTACH_LABELS_TO_TEST_RUN)
+                                    .testRunId(testRunId)
+                                    .labels(new ArrayList<>(labels))
+                                    .build());
+    }
+
+    @Override
+    public void attachLabelsToTest(Long testRunId, Long testId, Collection<LabelDTO> labels) {
+        this.record(SpooledOperation.builder()
+                                    .type(Type.ATTACH_LABELS_TO_TEST)
+                                    .testRunId(testRunId)
+                                    .testId(testId)
+                                    .labels(new ArrayList<>(labels))
+                                    .build());
+    }
+
+    @Override
+    public ExchangeRunContextResponse exchangeRerunCondition(String rerunCondition) {
+        return UnirestZebrunnerApiClient.getInstance().exchangeRerunCondition(rerunCondition);
+    }
+
+    @Override
+    public TestSessionDTO startSession(Long testRunId, TestSessionDTO testSession) {
+        testSession.setId(localIds.incrementAndGet());
+        this.record(SpooledOperation.builder()
+                                    .type(Type.START_SESSION)
+                                    .testRunId(testRunId)
+                                    .testSession(testSession)
+                                    .build());
+        return testSession;
+    }
+
+    @Override
+    public void updateSession(Long testRunId, TestSessionDTO testSession) {
+        this.record(SpooledOperation.builder()
+                                    .type(Type.UPDATE_SESSION)
+                                    .testRunId(testRunId)
+                                    .testSession(testSession)
+                                    .build());
+    }
+
+    @Override
+    public boolean isKnownIssueAttachedToTest(Long testRunId, Long testId, String failureStacktrace) {
+        return false;
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.zebrunner.agent.core.registrar;
 
 import com.zebrunner.agent.core.exception.ArtifactUploadException;
+import com.zebrunner.agent.core.metrics.AgentMetrics;
 import com.zebrunner.agent.core.registrar.descriptor.TestDescriptor;
 import com.zebrunner.agent.core.registrar.domain.ArtifactReferenceDTO;
 import lombok.AccessLevel;
@@ -16,19 +17,23 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Optional;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public final class Artifact {
 
-    private static final ExecutorService UPLOAD_EXECUTOR = Executors.newFixedThreadPool(8);
+    private static final ThreadPoolExecutor UPLOAD_EXECUTOR = (ThreadPoolExecutor) Executors.newFixedThreadPool(8);
     private static final ZebrunnerApiClient API_CLIENT = ClientRegistrar.getClient();
 
     static {
         Runtime.getRuntime().addShutdownHook(new Thread(Artifact::shutdown));
+        AgentMetrics.getRegistry().gauge(
+                "zebrunner_agent_artifacts_upload_queue_size", "Artifacts waiting to be uploaded to Zebrunner.",
+                () -> UPLOAD_EXECUTOR.getQueue().size()
+        );
     }
 
     private static void shutdown() {
@@ -48,7 +53,10 @@ public final class Artifact {
             log.error("Failed to attach artifact '{}' to test run because it has not been started yet.", name);
         }
 
-        UPLOAD_EXECUTOR.execute(() -> API_CLIENT.uploadTestRunArtifact(artifact, name, testRunId));
+        UPLOAD_EXECUTOR.execute(() -> {
+            API_CLIENT.uploadTestRunArtifact(artifact, name, testRunId);
+            AgentMetrics.ARTIFACT_UPLOAD_ATTEMPTS.increment();
+        });
     }
 
     public static void attachToTestRun(String name, byte[] artifact) {
@@ -79,6 +87,7 @@ public final class Artifact {
         }
 
         API_CLIENT.attachArtifactReferenceToTestRun(runId, artifactReference);
+        AgentMetrics.ARTIFACT_UPLOAD_ATTEMPTS.increment();
     }
 
     public static void attachToTest(String name, InputStream artifact) {
@@ -87,10 +96,14 @@ public final class Artifact {
             log.error("Failed to attach artifact '{}' to test because test run has not been started yet.", name);
         }
 
-        Optional<Long> maybeTestId = RunContext.getCurrentTest().map(TestDescriptor::getZebrunnerId);
-        if (maybeTestId.isPresent()) {
-            Long testId = maybeTestId.get();
-            UPLOAD_EXECUTOR.execute(() -> API_CLIENT.uploadTestArtifact(artifact, name, runId, testId));
+        Optional<TestDescriptor> maybeTest = RunContext.getCurrentTest();
+        if (maybeTest.isPresent()) {
+            maybeTest.get().whenRegistered(testId ->
+                    UPLOAD_EXECUTOR.execute(() -> {
+                        API_CLIENT.uploadTestArtifact(artifact, name, runId, testId);
+                        AgentMetrics.ARTIFACT_UPLOAD_ATTEMPTS.increment();
+                    })
+            );
         } else {
             log.error("Failed to attach artifact '{}' to test because it has not been started yet.", name);
         }
@@ -123,10 +136,14 @@ public final class Artifact {
             log.error("Failed to attach artifact reference '{}' to test because test run has not been started yet.", name);
         }
 
-        Optional<Long> maybeTestId = RunContext.getCurrentTest().map(TestDescriptor::getZebrunnerId);
-        if (maybeTestId.isPresent()) {
-            Long testId = maybeTestId.get();
-            UPLOAD_EXECUTOR.execute(() -> API_CLIENT.attachArtifactReferenceToTest(runId, testId, artifactReference));
+        Optional<TestDescriptor> maybeTest = RunContext.getCurrentTest();
+        if (maybeTest.isPresent()) {
+            maybeTest.get().whenRegistered(testId ->
+                    UPLOAD_EXECUTOR.execute(() -> {
+                        API_CLIENT.attachArtifactReferenceToTest(runId, testId, artifactReference);
+                        AgentMetrics.ARTIFACT_UPLOAD_ATTEMPTS.increment();
+                    })
+            );
         } else {
             log.error("Failed to attach artifact reference '{}' to test because it has not been started yet.", name);
         }
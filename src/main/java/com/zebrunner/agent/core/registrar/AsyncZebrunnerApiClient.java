@@ -0,0 +1,55 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.logging.Log;
+import com.zebrunner.agent.core.registrar.domain.ArtifactReferenceDTO;
+import com.zebrunner.agent.core.registrar.domain.LabelDTO;
+import com.zebrunner.agent.core.registrar.domain.TestCaseResult;
+import com.zebrunner.agent.core.registrar.domain.TestDTO;
+import com.zebrunner.agent.core.registrar.domain.TestSessionDTO;
+
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link ZebrunnerApiClient}. Every call returns immediately and the request itself
+ * is executed on a dedicated I/O executor. Calls issued one after another are not ordered relatively to each other,
+ * so callers that need ordering (e.g. all calls related to a single test) should chain them.
+ */
+public interface AsyncZebrunnerApiClient {
+
+    CompletableFuture<TestDTO> registerTestStart(Long testRunId, TestDTO test, boolean headless);
+
+    CompletableFuture<TestDTO> registerTestRerunStart(Long testRunId, Long testId, TestDTO test, boolean headless);
+
+    CompletableFuture<TestDTO> registerHeadlessTestUpdate(Long testRunId, TestDTO test);
+
+    CompletableFuture<Void> revertTestRegistration(Long testRunId, Long testId);
+
+    CompletableFuture<Void> registerTestFinish(Long testRunId, TestDTO test);
+
+    CompletableFuture<Void> sendLogs(Collection<Log> logs, Long testRunId);
+
+    CompletableFuture<Void> upsertTestCaseResults(Long testRunId, Long testId, Collection<TestCaseResult> testCaseResults);
+
+    CompletableFuture<Void> uploadScreenshot(byte[] screenshot, Long testRunId, Long testId, Long capturedAt);
+
+    CompletableFuture<Void> uploadTestRunArtifact(InputStream artifact, String name, Long testRunId);
+
+    CompletableFuture<Void> uploadTestArtifact(InputStream artifact, String name, Long testRunId, Long testId);
+
+    CompletableFuture<Void> attachArtifactReferenceToTestRun(Long testRunId, ArtifactReferenceDTO artifactReference);
+
+    CompletableFuture<Void> attachArtifactReferenceToTest(Long testRunId, Long testId, ArtifactReferenceDTO artifactReference);
+
+    CompletableFuture<Void> attachLabelsToTestRun(Long testRunId, Collection<LabelDTO> labels);
+
+    CompletableFuture<Void> attachLabelsToTest(Long testRunId, Long testId, Collection<LabelDTO> labels);
+
+    CompletableFuture<TestSessionDTO> startSession(Long testRunId, TestSessionDTO testSession);
+
+    CompletableFuture<Void> updateSession(Long testRunId, TestSessionDTO testSession);
+
+    CompletableFuture<Boolean> isKnownIssueAttachedToTest(Long testRunId, Long testId, String failureStacktrace);
+
+}
@@ -0,0 +1,118 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.config.ConfigurationHolder;
+import lombok.RequiredArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shrinks capabilities of test sessions before they are kept in memory and sent to Zebrunner.
+ * <p>Capabilities may carry base64-encoded apps, browser extensions and profiles, which are megabytes in size
+ * and of no use in reports. So the capabilities configured as bulky are replaced with a marker, and string values
+ * longer than the configured limit are truncated to a short preview followed by their length and SHA-256 hash,
+ * which still tells whether two sessions used the same app.
+ * <p>Sessions of a run are usually started with the same capabilities, so identical compacted capabilities are
+ * shared between sessions instead of being held in memory once per session.
+ */
+@RequiredArgsConstructor
+final class CapabilitiesCompactor {
+
+    private static final int PREVIEW_LENGTH = 64;
+    private static final String STRIPPED_VALUE = "<stripped>";
+    // sessions usually share a handful of capability sets, the limit only protects from unique per-session values
+    private static final int MAX_SHARED_CAPABILITIES = 256;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final boolean enabled;
+    private final int maxValueLength;
+    private final Set<String> strippedKeys;
+    private final ConcurrentMap<Map<String, Object>, Map<String, Object>> sharedCapabilities = new ConcurrentHashMap<>();
+
+    static CapabilitiesCompactor fromConfiguration() {
+        return new CapabilitiesCompactor(
+                ConfigurationHolder.isClientCapabilitiesCompactionEnabled(),
+                ConfigurationHolder.getClientCapabilitiesMaxValueLength(),
+                ConfigurationHolder.getClientCapabilitiesStrippedKeys()
+        );
+    }
+
+    /**
+     * Returns compacted copy of the given capabilities. The returned map is immutable and may be shared
+     * with other sessions.
+     *
+     * @param capabilities capabilities to be compacted, may be null
+     * @return compacted capabilities or the given capabilities as is if the compaction is disabled
+     */
+    Map<String, Object> compact(Map<String, Object> capabilities) {
+        if (!enabled || capabilities == null) {
+            return capabilities;
+        }
+
+        Map<String, Object> compacted = this.compactMap(capabilities, "");
+        Map<String, Object> shared = sharedCapabilities.get(compacted);
+        if (shared != null) {
+            return shared;
+        }
+        if (sharedCapabilities.size() < MAX_SHARED_CAPABILITIES) {
+            shared = sharedCapabilities.putIfAbsent(compacted, compacted);
+        }
+        return shared != null ? shared : compacted;
+    }
+
+    private Map<String, Object> compactMap(Map<?, ?> map, String path) {
+        Map<String, Object> compacted = new LinkedHashMap<>(map.size() * 4 / 3 + 1);
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            String key = String.valueOf(entry.getKey());
+            String keyPath = path.isEmpty() ? key : path + "." + key;
+            compacted.put(key, strippedKeys.contains(keyPath) ? STRIPPED_VALUE : this.compactValue(entry.getValue(), keyPath));
+        }
+        return Collections.unmodifiableMap(compacted);
+    }
+
+    private Object compactValue(Object value, String path) {
+        if (value instanceof Map) {
+            return this.compactMap((Map<?, ?>) value, path);
+        } else if (value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            List<Object> compacted = new ArrayList<>(collection.size());
+            for (Object element : collection) {
+                compacted.add(this.compactValue(element, path));
+            }
+            return Collections.unmodifiableList(compacted);
+        } else if (value instanceof String && ((String) value).length() > maxValueLength) {
+            return this.truncate((String) value);
+        }
+        return value;
+    }
+
+    private String truncate(String value) {
+        return value.substring(0, Math.min(PREVIEW_LENGTH, maxValueLength)) + "...<" + value.length() + " chars, sha256:" + sha256(value) + ">";
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            char[] hex = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                hex[2 * i] = HEX_DIGITS[(digest[i] >> 4) & 0xF];
+                hex[2 * i + 1] = HEX_DIGITS[digest[i] & 0xF];
+            }
+            return new String(hex);
+        } catch (NoSuchAlgorithmException e) {
+            // every java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,131 @@
+package com.zebrunner.agent.core.registrar;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Circuit breaker guarding calls to Zebrunner API. The breaker opens after the configured number of consecutive
+ * failures and rejects calls until the open duration elapses. After that a single probe call is let through:
+ * its success closes the breaker, while its failure opens the breaker again.
+ * <p>Outcomes of calls are reported by the caller, so calls which are let through regardless of the state
+ * of the breaker can close it as well.
+ */
+@Slf4j
+final class CircuitBreaker {
+
+    enum State {
+
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openDurationNanos;
+
+    // state and the moment it was entered are swapped together, so no thread sees the new state with the old moment
+    private final AtomicReference<StateSnapshot> state = new AtomicReference<>(new StateSnapshot(State.CLOSED, System.nanoTime()));
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    private final Map<State, LongAdder> stateToTransitionsCount = new EnumMap<>(State.class);
+    private final LongAdder rejectedCallsCount = new LongAdder();
+
+    CircuitBreaker(String name, int failureThreshold, long openDurationMillis) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMillis);
+        for (State state : State.values()) {
+            stateToTransitionsCount.put(state, new LongAdder());
+        }
+    }
+
+    /**
+     * Checks whether a call can be made. If the breaker is open and the open duration has elapsed,
+     * the breaker switches to half-open state and the calling thread is allowed to make a probe call.
+     *
+     * @return true if the call can be made, false if it must be rejected
+     */
+    boolean tryAcquirePermission() {
+        StateSnapshot current = state.get();
+        if (current.state == State.CLOSED) {
+            return true;
+        }
+        // a half-open breaker whose probe never reported its outcome lets another probe through
+        if (System.nanoTime() - current.sinceNanos >= openDurationNanos && this.transition(current, State.HALF_OPEN)) {
+            return true;
+        }
+
+        rejectedCallsCount.increment();
+        return false;
+    }
+
+    void onSuccess() {
+        consecutiveFailures.set(0);
+        StateSnapshot current = state.get();
+        if (current.state != State.CLOSED) {
+            this.transition(current, State.CLOSED);
+        }
+    }
+
+    void onFailure() {
+        int failures = consecutiveFailures.incrementAndGet();
+        StateSnapshot current = state.get();
+        if (current.state == State.HALF_OPEN || (current.state == State.CLOSED && failures >= failureThreshold)) {
+            this.transition(current, State.OPEN);
+        }
+    }
+
+    private boolean transition(StateSnapshot from, State to) {
+        if (!state.compareAndSet(from, new StateSnapshot(to, System.nanoTime()))) {
+            return false;
+        }
+
+        stateToTransitionsCount.get(to).increment();
+        if (to == State.OPEN) {
+            log.warn("{} is unavailable after {} consecutive failures. Non-critical requests will be dropped for {} ms.",
+                    name, consecutiveFailures.get(), TimeUnit.NANOSECONDS.toMillis(openDurationNanos));
+        } else if (to == State.CLOSED) {
+            consecutiveFailures.set(0);
+            log.info("{} is available again.", name);
+        } else if (from.state != State.HALF_OPEN) {
+            log.debug("Probing availability of {}.", name);
+        }
+        return true;
+    }
+
+    State getState() {
+        return state.get().state;
+    }
+
+    /**
+     * Returns number of times the breaker has switched to the given state.
+     *
+     * @param state target state of transitions
+     * @return number of transitions
+     */
+    long getTransitionsCount(State state) {
+        return stateToTransitionsCount.get(state).sum();
+    }
+
+    long getRejectedCallsCount() {
+        return rejectedCallsCount.sum();
+    }
+
+    @RequiredArgsConstructor
+    private static final class StateSnapshot {
+
+        private final State state;
+        private final long sinceNanos;
+
+    }
+
+}
@@ -1,18 +1,37 @@
 package com.zebrunner.agent.core.registrar;
 
+import com.zebrunner.agent.core.config.ConfigurationHolder;
+
 public class ClientRegistrar {
 
     private static volatile ZebrunnerApiClient client;
+    private static volatile AsyncZebrunnerApiClient asyncClient;
 
     public static synchronized ZebrunnerApiClient getClient() {
         if (client == null) {
-            return UnirestZebrunnerApiClient.getInstance();
+            if (ConfigurationHolder.isReportingEnabled() && ConfigurationHolder.isClientArchiveModeEnabled()) {
+                return ArchivingZebrunnerApiClient.getInstance();
+            }
+            return ConfigurationHolder.isReportingEnabled() && ConfigurationHolder.isClientSpoolEnabled()
+                    ? SpoolingZebrunnerApiClient.getInstance()
+                    : UnirestZebrunnerApiClient.getInstance();
         }
         return client;
     }
 
+    public static synchronized AsyncZebrunnerApiClient getAsyncClient() {
+        if (asyncClient == null) {
+            asyncClient = ExecutorAsyncZebrunnerApiClient.create(getClient());
+        }
+        return asyncClient;
+    }
+
     public static synchronized void register(ZebrunnerApiClient newClient) {
         client = newClient;
     }
 
+    public static synchronized void register(AsyncZebrunnerApiClient newAsyncClient) {
+        asyncClient = newAsyncClient;
+    }
+
 }
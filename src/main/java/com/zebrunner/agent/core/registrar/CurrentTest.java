@@ -9,23 +9,26 @@ import java.util.Optional;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class CurrentTest {
 
-    private static final ZebrunnerApiClient API_CLIENT = ClientRegistrar.getClient();
+    private static final AsyncZebrunnerApiClient API_CLIENT = ClientRegistrar.getAsyncClient();
+    private static final RequestSequencer REQUEST_SEQUENCER = RequestSequencer.getInstance();
 
     /**
-     * This method returns Zebrunner Test id.
+     * This method returns Zebrunner Test id. If registration of the test on Zebrunner side is still in progress,
+     * the method waits for it to complete.
      * @return if test has not been reported yet - empty {@link Optional}, otherwise - {@link Optional} containing Zebrunner Test id.
      */
     public static Optional<Long> getId() {
         return RunContext.getCurrentTest()
-                         .map(TestDescriptor::getZebrunnerId);
+                         .map(TestDescriptor::awaitZebrunnerId);
     }
 
     public static void revertRegistration() {
         Long runId = RunContext.getZebrunnerRunId();
 
         RunContext.removeCurrentTest()
-                  .map(TestDescriptor::getZebrunnerId)
-                  .ifPresent(currentTestId -> API_CLIENT.revertTestRegistration(runId, currentTestId));
+                  .ifPresent(currentTest -> REQUEST_SEQUENCER.submitForTest(
+                          currentTest, testId -> API_CLIENT.revertTestRegistration(runId, testId)
+                  ));
     }
 
 }
@@ -0,0 +1,158 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.config.ConfigurationHolder;
+import com.zebrunner.agent.core.logging.Log;
+import com.zebrunner.agent.core.registrar.domain.ArtifactReferenceDTO;
+import com.zebrunner.agent.core.registrar.domain.LabelDTO;
+import com.zebrunner.agent.core.registrar.domain.TestCaseResult;
+import com.zebrunner.agent.core.registrar.domain.TestDTO;
+import com.zebrunner.agent.core.registrar.domain.TestSessionDTO;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link AsyncZebrunnerApiClient} that delegates to a blocking {@link ZebrunnerApiClient} on a dedicated executor.
+ * <p>If neither asynchronous reporting, nor deferred test registration, nor lifecycle batching is enabled, requests
+ * are executed right on the calling thread, so the returned futures are already completed when control is given back
+ * to the caller. The deferred registration and the batching are of no use without an executor: the test thread
+ * would still wait for the registration, and batched requests would be sent one by one on the batcher thread.
+ * So both of them enable the executor on their own.
+ * <p>Session requests never run on the calling thread: they are issued while a WebDriver session is created or quit,
+ * so they get an executor of their own if the I/O executor is disabled. Thus the session lifecycle does not depend
+ * on the asynchronous reporting being enabled.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+class ExecutorAsyncZebrunnerApiClient implements AsyncZebrunnerApiClient {
+
+    private final ZebrunnerApiClient client;
+    private final Executor executor;
+    private final Executor sessionExecutor;
+
+    static ExecutorAsyncZebrunnerApiClient create(ZebrunnerApiClient client) {
+        if (isIoExecutorEnabled()) {
+            Executor ioExecutor = createIoExecutor("zebrunner-io-", ConfigurationHolder.getClientIoThreads());
+            return new ExecutorAsyncZebrunnerApiClient(client, ioExecutor, ioExecutor);
+        } else {
+            Executor sessionExecutor = createIoExecutor("zebrunner-session-io-", ConfigurationHolder.getClientIoThreads());
+            return new ExecutorAsyncZebrunnerApiClient(client, Runnable::run, sessionExecutor);
+        }
+    }
+
+    /**
+     * Tells whether requests are executed on the I/O executor rather than on the calling thread.
+     *
+     * @return true if the requests leave the calling thread
+     */
+    static boolean isIoExecutorEnabled() {
+        return ConfigurationHolder.isAsyncReportingEnabled()
+                || ConfigurationHolder.isDeferredTestRegistrationEnabled()
+                || ConfigurationHolder.isLifecycleBatchingEnabled();
+    }
+
+    private static Executor createIoExecutor(String threadNamePrefix, int threads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, threadNamePrefix + threadNumber.incrementAndGet());
+            // pending requests are awaited by the request sequencer shutdown hook
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private CompletableFuture<Void> runAsync(Runnable request) {
+        return CompletableFuture.runAsync(request, executor);
+    }
+
+    @Override
+    public CompletableFuture<TestDTO> registerTestStart(Long testRunId, TestDTO test, boolean headless) {
+        return CompletableFuture.supplyAsync(() -> client.registerTestStart(testRunId, test, headless), executor);
+    }
+
+    @Override
+    public CompletableFuture<TestDTO> registerTestRerunStart(Long testRunId, Long testId, TestDTO test, boolean headless) {
+        return CompletableFuture.supplyAsync(() -> client.registerTestRerunStart(testRunId, testId, test, headless), executor);
+    }
+
+    @Override
+    public CompletableFuture<TestDTO> registerHeadlessTestUpdate(Long testRunId, TestDTO test) {
+        return CompletableFuture.supplyAsync(() -> client.registerHeadlessTestUpdate(testRunId, test), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> revertTestRegistration(Long testRunId, Long testId) {
+        return this.runAsync(() -> client.revertTestRegistration(testRunId, testId));
+    }
+
+    @Override
+    public CompletableFuture<Void> registerTestFinish(Long testRunId, TestDTO test) {
+        return this.runAsync(() -> client.registerTestFinish(testRunId, test));
+    }
+
+    @Override
+    public CompletableFuture<Void> sendLogs(Collection<Log> logs, Long testRunId) {
+        return this.runAsync(() -> client.sendLogs(logs, testRunId));
+    }
+
+    @Override
+    public CompletableFuture<Void> upsertTestCaseResults(Long testRunId, Long testId, Collection<TestCaseResult> testCaseResults) {
+        return this.runAsync(() -> client.upsertTestCaseResults(testRunId, testId, testCaseResults));
+    }
+
+    @Override
+    public CompletableFuture<Void> uploadScreenshot(byte[] screenshot, Long testRunId, Long testId, Long capturedAt) {
+        return this.runAsync(() -> client.uploadScreenshot(screenshot, testRunId, testId, capturedAt));
+    }
+
+    @Override
+    public CompletableFuture<Void> uploadTestRunArtifact(InputStream artifact, String name, Long testRunId) {
+        return this.runAsync(() -> client.uploadTestRunArtifact(artifact, name, testRunId));
+    }
+
+    @Override
+    public CompletableFuture<Void> uploadTestArtifact(InputStream artifact, String name, Long testRunId, Long testId) {
+        return this.runAsync(() -> client.uploadTestArtifact(artifact, name, testRunId, testId));
+    }
+
+    @Override
+    public CompletableFuture<Void> attachArtifactReferenceToTestRun(Long testRunId, ArtifactReferenceDTO artifactReference) {
+        return this.runAsync(() -> client.attachArtifactReferenceToTestRun(testRunId, artifactReference));
+    }
+
+    @Override
+    public CompletableFuture<Void> attachArtifactReferenceToTest(Long testRunId, Long testId, ArtifactReferenceDTO artifactReference) {
+        return this.runAsync(() -> client.attachArtifactReferenceToTest(testRunId, testId, artifactReference));
+    }
+
+    @Override
+    public CompletableFuture<Void> attachLabelsToTestRun(Long testRunId, Collection<LabelDTO> labels) {
+        return this.runAsync(() -> client.attachLabelsToTestRun(testRunId, labels));
+    }
+
+    @Override
+    public CompletableFuture<Void> attachLabelsToTest(Long testRunId, Long testId, Collection<LabelDTO> labels) {
+        return this.runAsync(() -> client.attachLabelsToTest(testRunId, testId, labels));
+    }
+
+    @Override
+    public CompletableFuture<TestSessionDTO> startSession(Long testRunId, TestSessionDTO testSession) {
+        return CompletableFuture.supplyAsync(() -> client.startSession(testRunId, testSession), sessionExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Void> updateSession(Long testRunId, TestSessionDTO testSession) {
+        return CompletableFuture.runAsync(() -> client.updateSession(testRunId, testSession), sessionExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isKnownIssueAttachedToTest(Long testRunId, Long testId, String failureStacktrace) {
+        return CompletableFuture.supplyAsync(() -> client.isKnownIssueAttachedToTest(testRunId, testId, failureStacktrace), executor);
+    }
+
+}
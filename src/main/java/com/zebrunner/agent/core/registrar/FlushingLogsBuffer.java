@@ -1,36 +1,88 @@
 package com.zebrunner.agent.core.registrar;
 
+import com.zebrunner.agent.core.config.ConfigurationHolder;
 import com.zebrunner.agent.core.logging.Log;
+import com.zebrunner.agent.core.metrics.AgentMetrics;
+import com.zebrunner.agent.core.metrics.MetricsRegistry;
 import com.zebrunner.agent.core.registrar.descriptor.TestDescriptor;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
 /**
  * Effectively acts as an in-memory buffer for logs generated in scope of test run that is meant to reduce
  * number of outgoing requests issued to Zebrunner
- * <p>The {@code scheduleFlush} method schedules logs transfer with configurable delay.
+ * <p>The {@code scheduleFlush} method schedules logs transfer with a delay adapting to the observed latency of
+ * the logs requests, but never exceeding the configured maximum latency. The logs are also flushed right away
+ * when the buffered logs reach the configured batch size (in events or in bytes) and on test finish.
+ * Flushed logs are sent in chunks not exceeding the batch size, so a single request cannot grow too large.
+ * <p>Logs are kept in a {@link StripedRingBuffer} bounded by number of events and by their size, so the buffer
+ * does not grow without limit if Zebrunner is slow to accept the logs. What happens to the logs which do not fit into
+ * the buffer is defined by the configured overflow policy.
+ * <p>Logs of tests which registration on Zebrunner side is still in progress are held back until the test id
+ * is known and are sent with one of the subsequent flushes.
  *
  * @param <E> the type of the input to the log event converter function
  */
 @Slf4j
 final class FlushingLogsBuffer<E> implements LogsBuffer<E> {
 
+    // approximate size of log fields other than message and level when serialized to json
+    private static final int LOG_OVERHEAD_BYTES = 64;
+    private static final long MIN_FLUSH_DELAY_MILLIS = 100;
+    // weight of the latest request latency in the moving average of logs requests latency
+    private static final double LATENCY_SMOOTHING_FACTOR = 0.2;
+
     private static final ScheduledExecutorService FLUSH_EXECUTOR = Executors.newScheduledThreadPool(4);
     private static final ZebrunnerApiClient API_CLIENT = ClientRegistrar.getClient();
     private static final AtomicBoolean EXECUTOR_ENABLED = new AtomicBoolean();
+    private static final AtomicBoolean FLUSH_REQUESTED = new AtomicBoolean();
+    private static final AtomicReference<CompletableFuture<Void>> NEXT_FLUSH = new AtomicReference<>(new CompletableFuture<>());
+
+    private static final int FLUSH_BATCH_SIZE = ConfigurationHolder.getLogsFlushBatchSize();
+    private static final long FLUSH_BATCH_BYTES = ConfigurationHolder.getLogsFlushBatchBytes();
+    private static final long FLUSH_MAX_LATENCY_MILLIS = ConfigurationHolder.getLogsFlushMaxLatencyMillis();
 
-    private static volatile Queue<Log> QUEUE = new ConcurrentLinkedQueue<>();
+    private static final StripedRingBuffer<BufferedLog> BUFFER = StripedRingBuffer.<BufferedLog>builder()
+            .capacity(ConfigurationHolder.getLogsBufferCapacity())
+            .capacityBytes(ConfigurationHolder.getLogsBufferCapacityBytes())
+            .drainThreshold(FLUSH_BATCH_SIZE)
+            .drainThresholdBytes(FLUSH_BATCH_BYTES)
+            .overflowPolicy(StripedRingBuffer.OverflowPolicy.parse(
+                    ConfigurationHolder.getLogsOverflowPolicy(), StripedRingBuffer.OverflowPolicy.DROP_OLDEST
+            ))
+            .sampleRate(ConfigurationHolder.getLogsOverflowSampleRate())
+            .sizeEstimator(bufferedLog -> bufferedLog.size)
+            .drainListener(FlushingLogsBuffer::scheduleImmediateFlush)
+            .build();
+    private static final Queue<BufferedLog> UNREGISTERED_TESTS_QUEUE = new ConcurrentLinkedQueue<>();
     private static final ThreadLocal<Queue<Log>> CONFIGURATION_LOGS_QUEUE = new ThreadLocal<>();
+    private static long reportedDroppedLogs;
+    private static volatile double averageSendLatencyMillis;
     private final Function<E, Log> converter;
 
+    static {
+        MetricsRegistry registry = AgentMetrics.getRegistry();
+        registry.gauge("zebrunner_agent_logs_buffer_size", "Log entries waiting in the logs buffer.", BUFFER::size);
+        registry.gauge("zebrunner_agent_logs_unregistered_tests_size", "Log entries waiting for registration of their tests.", () -> UNREGISTERED_TESTS_QUEUE.size());
+        registry.counter("zebrunner_agent_logs_dropped_total", "Log entries dropped due to overflow of the logs buffer.", BUFFER::getDroppedCount);
+    }
+
     /**
      * Allocates a new {@code LogsBuffer} object bound to certain logging framework event type.
      * <p>Theoretically (but unlikely) more than one logging framework may be used in a single test project.
@@ -52,9 +104,9 @@ final class FlushingLogsBuffer<E> implements LogsBuffer<E> {
     public void put(E event) {
         Optional<TestDescriptor> currentTest = RunContext.getCurrentTest();
         Log log = converter.apply(event);
+        AgentMetrics.LOGS_BUFFERED.increment();
         if (currentTest.isPresent()) {
-            log.setTestId(String.valueOf(currentTest.get().getZebrunnerId()));
-            QUEUE.add(log);
+            enqueue(currentTest.get(), log);
         } else {
             if(CONFIGURATION_LOGS_QUEUE.get() == null) {
                 CONFIGURATION_LOGS_QUEUE.set(new ConcurrentLinkedQueue<>());
@@ -75,9 +127,7 @@ final class FlushingLogsBuffer<E> implements LogsBuffer<E> {
                     Queue<Log> queue = CONFIGURATION_LOGS_QUEUE.get();
                     if (queue != null) {
                         while (!queue.isEmpty()) {
-                            Log log = queue.poll();
-                            log.setTestId(String.valueOf(currentTest.getZebrunnerId()));
-                            QUEUE.add(log);
+                            enqueue(currentTest, queue.poll());
                         }
                         CONFIGURATION_LOGS_QUEUE.remove();
                     }
@@ -89,16 +139,158 @@ final class FlushingLogsBuffer<E> implements LogsBuffer<E> {
         CONFIGURATION_LOGS_QUEUE.remove();
     }
 
+    @Override
+    public CompletableFuture<Void> requestFlush() {
+        // the logs buffered so far are guaranteed to be drained by the flush which has not started yet
+        CompletableFuture<Void> nextFlush = NEXT_FLUSH.get();
+        if (!scheduleImmediateFlush()) {
+            nextFlush.complete(null);
+        }
+        return nextFlush;
+    }
+
+    private static void enqueue(TestDescriptor test, Log log) {
+        BUFFER.offer(new BufferedLog(test, log, estimateSize(log)));
+    }
+
+    private static int estimateSize(Log log) {
+        int messageLength = log.getMessage() != null ? log.getMessage().length() : 0;
+        int levelLength = log.getLevel() != null ? log.getLevel().length() : 0;
+        return messageLength + levelLength + LOG_OVERHEAD_BYTES;
+    }
+
     private static void scheduleFlush() {
-        FLUSH_EXECUTOR.scheduleWithFixedDelay(FlushingLogsBuffer::flush, 1, 1, TimeUnit.SECONDS);
+        try {
+            FLUSH_EXECUTOR.schedule(() -> scheduledFlush(), nextFlushDelayMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // the buffer is being shut down, the remaining logs are flushed by the shutdown hook
+        }
+    }
+
+    private static void scheduledFlush() {
+        try {
+            flush();
+        } finally {
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * The flush delay follows the average latency of logs requests: the faster Zebrunner accepts the logs,
+     * the more often they are sent. The delay never exceeds the configured maximum latency.
+     */
+    private static long nextFlushDelayMillis() {
+        long delay = (long) (2 * averageSendLatencyMillis);
+        return Math.min(Math.max(delay, MIN_FLUSH_DELAY_MILLIS), Math.max(FLUSH_MAX_LATENCY_MILLIS, MIN_FLUSH_DELAY_MILLIS));
+    }
+
+    /**
+     * Requests flush out of schedule, e.g. when the buffer reaches batch size or overflows.
+     *
+     * @return false if the flush cannot be performed since the buffer is shut down
+     */
+    private static boolean scheduleImmediateFlush() {
+        if (FLUSH_EXECUTOR.isShutdown()) {
+            return false;
+        }
+        if (!FLUSH_REQUESTED.get() && FLUSH_REQUESTED.compareAndSet(false, true)) {
+            try {
+                FLUSH_EXECUTOR.execute(FlushingLogsBuffer::flush);
+            } catch (RejectedExecutionException e) {
+                return false;
+            }
+        }
+        return true;
     }
 
     private static void flush() {
-        if (!QUEUE.isEmpty()) {
-            Long runId = RunContext.getZebrunnerRunId();
-            Queue<Log> logsBatch = QUEUE;
-            QUEUE = new ConcurrentLinkedQueue<>();
-            API_CLIENT.sendLogs(logsBatch, runId);
+        // the flag is reset first, so a flush requested while this one is starting is not missed
+        FLUSH_REQUESTED.set(false);
+        // logs buffered before the future is replaced are drained once the flush lock is acquired
+        CompletableFuture<Void> currentFlush = NEXT_FLUSH.getAndSet(new CompletableFuture<>());
+        try {
+            flushBuffered();
+        } finally {
+            // completed once the flush lock is released, so actions awaiting the flush do not hold next flushes back
+            currentFlush.complete(null);
+        }
+    }
+
+    private static synchronized void flushBuffered() {
+        try {
+            List<Log> logsBatch = new ArrayList<>();
+            enqueueLogsOfRegisteredTests(logsBatch);
+            BUFFER.drain(bufferedLog -> addToBatch(bufferedLog, logsBatch));
+            reportDroppedLogs();
+
+            if (!logsBatch.isEmpty()) {
+                sendInChunks(logsBatch, RunContext.getZebrunnerRunId());
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not send logs to Zebrunner: {}", e.getMessage(), e);
+        }
+    }
+
+    private static void sendInChunks(List<Log> logs, Long runId) {
+        int chunkStart = 0;
+        long chunkBytes = 0;
+        for (int i = 0; i < logs.size(); i++) {
+            chunkBytes += estimateSize(logs.get(i));
+            boolean chunkIsFull = i + 1 - chunkStart >= FLUSH_BATCH_SIZE || chunkBytes >= FLUSH_BATCH_BYTES;
+            if (chunkIsFull || i == logs.size() - 1) {
+                send(logs.subList(chunkStart, i + 1), runId);
+                chunkStart = i + 1;
+                chunkBytes = 0;
+            }
+        }
+    }
+
+    private static void send(List<Log> logs, Long runId) {
+        long startedAt = System.nanoTime();
+        try {
+            API_CLIENT.sendLogs(logs, runId);
+            AgentMetrics.LOGS_SENT.add(logs.size());
+        } finally {
+            AgentMetrics.LOGS_FLUSH_DURATION.recordSince(startedAt);
+            double latencyMillis = (System.nanoTime() - startedAt) / 1_000_000.0;
+            averageSendLatencyMillis = averageSendLatencyMillis == 0
+                    ? latencyMillis
+                    : LATENCY_SMOOTHING_FACTOR * latencyMillis + (1 - LATENCY_SMOOTHING_FACTOR) * averageSendLatencyMillis;
+        }
+    }
+
+    private static void enqueueLogsOfRegisteredTests(List<Log> logsBatch) {
+        List<BufferedLog> stillUnregistered = new ArrayList<>();
+        BufferedLog bufferedLog;
+        while ((bufferedLog = UNREGISTERED_TESTS_QUEUE.poll()) != null) {
+            if (!bufferedLog.test.getRegistration().isDone()) {
+                stillUnregistered.add(bufferedLog);
+            } else {
+                addToBatch(bufferedLog, logsBatch);
+            }
+        }
+        UNREGISTERED_TESTS_QUEUE.addAll(stillUnregistered);
+    }
+
+    private static void addToBatch(BufferedLog bufferedLog, List<Log> logsBatch) {
+        TestDescriptor test = bufferedLog.test;
+        if (!test.getRegistration().isDone()) {
+            UNREGISTERED_TESTS_QUEUE.add(bufferedLog);
+        } else if (test.isRegistered()) {
+            bufferedLog.log.setTestId(String.valueOf(test.getZebrunnerId()));
+            logsBatch.add(bufferedLog.log);
+        }
+        // logs of tests which could not be registered have nothing to be attached to, so they are dropped
+    }
+
+    private static void reportDroppedLogs() {
+        long droppedLogs = BUFFER.getDroppedCount();
+        if (droppedLogs > reportedDroppedLogs) {
+            log.warn(
+                    "{} log events have been dropped due to overflow of the logs buffer ({} in total).",
+                    droppedLogs - reportedDroppedLogs, droppedLogs
+            );
+            reportedDroppedLogs = droppedLogs;
         }
     }
 
@@ -113,6 +305,33 @@ final class FlushingLogsBuffer<E> implements LogsBuffer<E> {
         }
 
         flush();
+        awaitPendingTestRegistrations();
+        flush();
+    }
+
+    private static void awaitPendingTestRegistrations() {
+        CompletableFuture<?>[] pendingRegistrations = UNREGISTERED_TESTS_QUEUE.stream()
+                                                                              .map(bufferedLog -> bufferedLog.test.getRegistration())
+                                                                              .distinct()
+                                                                              .toArray(CompletableFuture<?>[]::new);
+        try {
+            CompletableFuture.allOf(pendingRegistrations).get(10, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            // logs of tests which could not be registered are dropped on flush
+        } catch (TimeoutException e) {
+            log.warn("Not all tests have been registered before sending of the remaining logs.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static final class BufferedLog {
+
+        private final TestDescriptor test;
+        private final Log log;
+        private final int size;
+
     }
 
 }
@@ -0,0 +1,86 @@
+package com.zebrunner.agent.core.registrar;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * In-memory output stream which starts to compress the written data with gzip once the amount of written data
+ * reaches the given threshold. Data below the threshold is kept as is, so small request bodies are not compressed,
+ * while the uncompressed representation of large bodies is never held in memory as a whole.
+ */
+final class GzipThresholdOutputStream extends OutputStream {
+
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    private final long threshold;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+    private GZIPOutputStream gzip;
+    private long written;
+
+    /**
+     * @param threshold number of written bytes at which compression starts, negative value disables compression
+     */
+    GzipThresholdOutputStream(long threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        this.compressIfThresholdReached(1);
+        this.target().write(b);
+        written++;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        this.compressIfThresholdReached(length);
+        this.target().write(bytes, offset, length);
+        written += length;
+    }
+
+    private void compressIfThresholdReached(int length) throws IOException {
+        if (gzip == null && threshold >= 0 && written + length >= threshold) {
+            byte[] uncompressed = buffer.toByteArray();
+            buffer.reset();
+            gzip = new GZIPOutputStream(buffer, INITIAL_BUFFER_SIZE);
+            gzip.write(uncompressed);
+        }
+    }
+
+    private OutputStream target() {
+        return gzip != null ? gzip : buffer;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (gzip != null) {
+            gzip.finish();
+        }
+    }
+
+    /**
+     * @return true if the written data has been compressed
+     */
+    boolean isCompressed() {
+        return gzip != null;
+    }
+
+    /**
+     * @return number of bytes written to the stream before compression
+     */
+    long getWrittenCount() {
+        return written;
+    }
+
+    /**
+     * Returns written data, compressed if the threshold has been reached. Must be called after the stream is closed.
+     *
+     * @return written data
+     */
+    byte[] toByteArray() {
+        return buffer.toByteArray();
+    }
+
+}
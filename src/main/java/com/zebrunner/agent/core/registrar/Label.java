@@ -1,6 +1,5 @@
 package com.zebrunner.agent.core.registrar;
 
-import com.zebrunner.agent.core.registrar.descriptor.TestDescriptor;
 import com.zebrunner.agent.core.registrar.domain.LabelDTO;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
@@ -15,13 +14,14 @@ public class Label {
 
     public static final String LOCALE = "com.zebrunner.app/sut.locale";
 
-    private static final ZebrunnerApiClient API_CLIENT = ClientRegistrar.getClient();
+    private static final AsyncZebrunnerApiClient API_CLIENT = ClientRegistrar.getAsyncClient();
+    private static final RequestSequencer REQUEST_SEQUENCER = RequestSequencer.getInstance();
 
     public static void attachToTestRun(String name, String... values) {
         Set<LabelDTO> labels = validateAndConvert(name, values);
         Long runId = RunContext.getZebrunnerRunId();
 
-        API_CLIENT.attachLabelsToTestRun(runId, labels);
+        REQUEST_SEQUENCER.submit(RequestSequencer.TEST_RUN, () -> API_CLIENT.attachLabelsToTestRun(runId, labels));
     }
 
     public static void attachToTest(String name, String... values) {
@@ -29,8 +29,9 @@ public class Label {
         Long runId = RunContext.getZebrunnerRunId();
 
         RunContext.getCurrentTest()
-                  .map(TestDescriptor::getZebrunnerId)
-                  .ifPresent(testId -> API_CLIENT.attachLabelsToTest(runId, testId, labels));
+                  .ifPresent(test -> REQUEST_SEQUENCER.submitForTest(
+                          test, testId -> API_CLIENT.attachLabelsToTest(runId, testId, labels)
+                  ));
     }
 
     private static Set<LabelDTO> validateAndConvert(String name, String[] values) {
@@ -0,0 +1,154 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.config.ConfigurationHolder;
+import com.zebrunner.agent.core.registrar.descriptor.TestDescriptor;
+import com.zebrunner.agent.core.registrar.domain.TestDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects test start events coming from all test threads and sends them in batches bounded by size and time.
+ * <p>A test finishing while its start is still waiting in the batch is not registered twice: the result of the test
+ * is merged into the pending start, so the test is created together with its result by a single request.
+ * <p>Zebrunner does not provide a bulk endpoint for test registration, so requests of a batch are issued
+ * concurrently via {@link AsyncZebrunnerApiClient}.
+ */
+@Slf4j
+final class LifecycleBatcher {
+
+    private static final class InstanceHolder {
+
+        private static final LifecycleBatcher INSTANCE = new LifecycleBatcher();
+
+    }
+
+    static LifecycleBatcher getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    private final AsyncZebrunnerApiClient apiClient = ClientRegistrar.getAsyncClient();
+    private final int batchSize = ConfigurationHolder.getClientBatchSize();
+    private final long batchMaxDelayMillis = ConfigurationHolder.getClientBatchMaxDelayMillis();
+    private final ScheduledExecutorService flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "zebrunner-lifecycle-batcher");
+        // the batch is flushed on test run finish, pending requests are awaited by the request sequencer
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Object lock = new Object();
+    private Map<TestDescriptor, PendingStart> pendingStarts = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    private LifecycleBatcher() {
+    }
+
+    /**
+     * Adds test start to the current batch.
+     *
+     * @param test        descriptor of the test being started
+     * @param testRunId   id of the test run
+     * @param rerunTestId Zebrunner id of the test being rerun or null if it is a new test
+     * @param testStart   test to be registered
+     * @return future completed with the registered test once the batch is sent
+     */
+    CompletableFuture<TestDTO> registerStart(TestDescriptor test, Long testRunId, Long rerunTestId, TestDTO testStart) {
+        PendingStart pendingStart = new PendingStart(testRunId, rerunTestId, testStart);
+        boolean batchIsFull;
+        synchronized (lock) {
+            pendingStarts.put(test, pendingStart);
+            batchIsFull = pendingStarts.size() >= batchSize;
+            if (!batchIsFull && scheduledFlush == null) {
+                scheduledFlush = flushExecutor.schedule(this::flush, batchMaxDelayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (batchIsFull) {
+            flushExecutor.execute(this::flush);
+        }
+        return pendingStart.result;
+    }
+
+    /**
+     * Merges result of the test into its start if the start has not been sent yet.
+     *
+     * @param test   descriptor of the finished test
+     * @param result result of the test
+     * @return true if the result has been merged and the test finish must not be registered separately
+     */
+    boolean mergeFinish(TestDescriptor test, TestDTO result) {
+        synchronized (lock) {
+            PendingStart pendingStart = pendingStarts.get(test);
+            if (pendingStart == null) {
+                return false;
+            }
+
+            pendingStart.testStart.setResult(result.getResult());
+            pendingStart.testStart.setReason(result.getReason());
+            pendingStart.testStart.setEndedAt(result.getEndedAt());
+            return true;
+        }
+    }
+
+    /**
+     * Sends all pending test starts right away.
+     */
+    void flush() {
+        List<PendingStart> batch;
+        synchronized (lock) {
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+            if (pendingStarts.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(pendingStarts.values());
+            pendingStarts = new LinkedHashMap<>();
+        }
+
+        log.debug("Sending batch of {} test registrations.", batch.size());
+        batch.forEach(this::send);
+    }
+
+    private void send(PendingStart pendingStart) {
+        CompletableFuture<TestDTO> request;
+        try {
+            request = pendingStart.rerunTestId != null
+                    ? apiClient.registerTestRerunStart(pendingStart.testRunId, pendingStart.rerunTestId, pendingStart.testStart, false)
+                    : apiClient.registerTestStart(pendingStart.testRunId, pendingStart.testStart, false);
+        } catch (RuntimeException e) {
+            pendingStart.result.completeExceptionally(e);
+            return;
+        }
+
+        request.whenComplete((registeredTest, failure) -> {
+            if (failure != null) {
+                pendingStart.result.completeExceptionally(failure);
+            } else {
+                pendingStart.result.complete(registeredTest);
+            }
+        });
+    }
+
+    @RequiredArgsConstructor
+    private static final class PendingStart {
+
+        private final Long testRunId;
+        private final Long rerunTestId;
+        private final TestDTO testStart;
+        private final CompletableFuture<TestDTO> result = new CompletableFuture<>();
+
+    }
+
+}
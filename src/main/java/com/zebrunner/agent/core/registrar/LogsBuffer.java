@@ -3,6 +3,7 @@ package com.zebrunner.agent.core.registrar;
 import com.zebrunner.agent.core.logging.Log;
 import com.zebrunner.agent.core.config.ConfigurationHolder;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 public interface LogsBuffer<E> {
@@ -26,4 +27,12 @@ public interface LogsBuffer<E> {
      * so this method should be called after AfterClass calls.
      */
     void clearQueuedConfigurationLogs();
+
+    /**
+     * Requests sending of all the buffered logs without waiting for the next scheduled flush.
+     *
+     * @return future completed once the logs buffered before the request have been sent
+     */
+    CompletableFuture<Void> requestFlush();
+
 }
@@ -2,6 +2,8 @@ package com.zebrunner.agent.core.registrar;
 
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.concurrent.CompletableFuture;
+
 @Slf4j
 final class NoOpLogsBuffer<E> implements LogsBuffer<E> {
 
@@ -20,4 +22,9 @@ final class NoOpLogsBuffer<E> implements LogsBuffer<E> {
         log.trace("Clear queued configuration logs");
     }
 
+    @Override
+    public CompletableFuture<Void> requestFlush() {
+        return CompletableFuture.completedFuture(null);
+    }
+
 }
@@ -2,6 +2,7 @@ package com.zebrunner.agent.core.registrar;
 
 import com.zebrunner.agent.core.registrar.descriptor.SessionCloseDescriptor;
 import com.zebrunner.agent.core.registrar.descriptor.SessionStartDescriptor;
+import com.zebrunner.agent.core.registrar.descriptor.TestDescriptor;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 
@@ -26,6 +27,10 @@ class NoOpTestSessionRegistrar implements TestSessionRegistrar {
     public void linkAllCurrentToTest(Long zebrunnerTestId) {
     }
 
+    @Override
+    public void linkAllCurrentToTest(TestDescriptor test) {
+    }
+
     @Override
     public void linkToCurrentTest(String sessionId) {
     }
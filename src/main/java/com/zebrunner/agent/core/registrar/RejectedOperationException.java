@@ -0,0 +1,13 @@
+package com.zebrunner.agent.core.registrar;
+
+/**
+ * Thrown on guaranteed delivery of an operation if Zebrunner rejected the request with a client error,
+ * so the operation cannot be delivered however many times it is retried.
+ */
+class RejectedOperationException extends RuntimeException {
+
+    RejectedOperationException(String message) {
+        super(message);
+    }
+
+}
@@ -21,11 +21,15 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 @Slf4j
 class ReportingRegistrar implements TestRunRegistrar {
 
     private static final String TEST_RUN_WARNING_MSG_FORMAT = "[TEST RUN '{}' WARNING]: {}";
+    private static final long PENDING_REQUESTS_TIMEOUT_SECONDS = 60;
 
     private static volatile ReportingRegistrar instance;
 
@@ -40,6 +44,11 @@ class ReportingRegistrar implements TestRunRegistrar {
     }
 
     private final ZebrunnerApiClient apiClient = ClientRegistrar.getClient();
+    private final AsyncZebrunnerApiClient asyncApiClient = ClientRegistrar.getAsyncClient();
+    private final RequestSequencer requestSequencer = RequestSequencer.getInstance();
+    private final LifecycleBatcher lifecycleBatcher = LifecycleBatcher.getInstance();
+    private final WebDriverCommandProfiler webDriverCommandProfiler = WebDriverCommandProfiler.getInstance();
+    private final SessionStartupTelemetry sessionStartupTelemetry = SessionStartupTelemetry.getInstance();
     private final CompositeLabelResolver labelResolver = new CompositeLabelResolver();
     private final ChainedMaintainerResolver maintainerResolver = new ChainedMaintainerResolver();
     private final CiContextResolver ciContextResolver = CompositeCiContextResolver.getInstance();
@@ -146,6 +155,11 @@ class ReportingRegistrar implements TestRunRegistrar {
                                        .id(RunContext.getZebrunnerRunId())
                                        .endedAt(finishDescriptor.getEndedAt())
                                        .build();
+        sessionStartupTelemetry.attachSummary();
+        lifecycleBatcher.flush();
+        if (!requestSequencer.awaitCompletion(PENDING_REQUESTS_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            log.warn("Not all reporting requests have been completed before registration of the test run finish.");
+        }
         apiClient.registerTestRunFinish(testRun);
 
         TestRunDescriptor run = RunContext.getRun();
@@ -196,25 +210,66 @@ class ReportingRegistrar implements TestRunRegistrar {
                               .build();
 
         Long headlessTestId = RunContext.getCurrentTest()
-                                        .map(TestDescriptor::getZebrunnerId)
+                                        .map(TestDescriptor::awaitZebrunnerId)
                                         .orElse(null);
+        // batching is only possible when test start is not awaited
+        if (ConfigurationHolder.isDeferredTestRegistrationEnabled() || ConfigurationHolder.isLifecycleBatchingEnabled()) {
+            this.registerTestStartDeferred(id, ts, test, headlessTestId);
+        } else {
+            if (headlessTestId != null) {
+                test.setId(headlessTestId);
+                test = apiClient.registerHeadlessTestUpdate(RunContext.getZebrunnerRunId(), test);
+            } else if (ts.getZebrunnerId() != null) {
+                test = apiClient.registerTestRerunStart(RunContext.getZebrunnerRunId(), ts.getZebrunnerId(), test, false);
+            } else {
+                test = apiClient.registerTestStart(RunContext.getZebrunnerRunId(), test, false);
+            }
+
+            // if reporting is enabled and test was actually registered
+            if (test != null) {
+                TestDescriptor testDescriptor = TestDescriptor.create(test.getId(), ts);
+                RunContext.addCurrentTest(id, testDescriptor);
+                testSessionRegistrar.linkAllCurrentToTest(test.getId());
+                registrationListenerRegistry.forEach(listener -> listener.onAfterTestStart(ts));
+            }
+        }
+        LOGS_BUFFERS.forEach(LogsBuffer::flushQueuedConfigurationLogs);
+    }
+
+    /**
+     * Registers test start in background, so the test does not wait for the response from Zebrunner. The test gets
+     * a provisional descriptor right away. All the requests requiring Zebrunner id of the test are queued against
+     * the descriptor and are issued once the registration completes.
+     */
+    private void registerTestStartDeferred(String id, TestStartDescriptor ts, TestDTO test, Long headlessTestId) {
+        Long testRunId = RunContext.getZebrunnerRunId();
+        CompletableFuture<Long> registration = new CompletableFuture<>();
+        TestDescriptor testDescriptor = TestDescriptor.create(registration, ts);
+
+        Supplier<CompletableFuture<TestDTO>> registrationRequest;
         if (headlessTestId != null) {
             test.setId(headlessTestId);
-            test = apiClient.registerHeadlessTestUpdate(RunContext.getZebrunnerRunId(), test);
+            registrationRequest = () -> asyncApiClient.registerHeadlessTestUpdate(testRunId, test);
+        } else if (ConfigurationHolder.isLifecycleBatchingEnabled()) {
+            registrationRequest = () -> lifecycleBatcher.registerStart(testDescriptor, testRunId, ts.getZebrunnerId(), test);
         } else if (ts.getZebrunnerId() != null) {
-            test = apiClient.registerTestRerunStart(RunContext.getZebrunnerRunId(), ts.getZebrunnerId(), test, false);
+            registrationRequest = () -> asyncApiClient.registerTestRerunStart(testRunId, ts.getZebrunnerId(), test, false);
         } else {
-            test = apiClient.registerTestStart(RunContext.getZebrunnerRunId(), test, false);
+            registrationRequest = () -> asyncApiClient.registerTestStart(testRunId, test, false);
         }
 
-        // if reporting is enabled and test was actually registered
-        if (test != null) {
-            TestDescriptor testDescriptor = TestDescriptor.create(test.getId(), ts);
-            RunContext.addCurrentTest(id, testDescriptor);
-            testSessionRegistrar.linkAllCurrentToTest(test.getId());
-            registrationListenerRegistry.forEach(listener -> listener.onAfterTestStart(ts));
-        }
-        LOGS_BUFFERS.forEach(LogsBuffer::flushQueuedConfigurationLogs);
+        requestSequencer.submit(testDescriptor, registrationRequest)
+                        .whenComplete((registeredTest, failure) -> {
+                            if (failure != null) {
+                                registration.completeExceptionally(failure);
+                            } else {
+                                registration.complete(registeredTest != null ? registeredTest.getId() : null);
+                            }
+                        });
+
+        RunContext.addCurrentTest(id, testDescriptor);
+        testSessionRegistrar.linkAllCurrentToTest(testDescriptor);
+        registrationListenerRegistry.forEach(listener -> listener.onAfterTestStart(ts));
     }
 
     @Override
@@ -234,19 +289,47 @@ class ReportingRegistrar implements TestRunRegistrar {
             registrationListenerRegistry.forEach(listener -> listener.onBeforeTestFinish(tf));
 
             TestDTO result = TestDTO.builder()
-                                    .id(test.getZebrunnerId())
                                     .result(tf.getStatus().name())
                                     .reason(tf.getStatusReason())
                                     .endedAt(tf.getEndedAt())
                                     .build();
 
-            apiClient.registerTestFinish(RunContext.getZebrunnerRunId(), result);
+            // if the test start has not been sent yet, the test is registered along with its result
+            if (!lifecycleBatcher.mergeFinish(test, result)) {
+                Long testRunId = RunContext.getZebrunnerRunId();
+                if (ExecutorAsyncZebrunnerApiClient.isIoExecutorEnabled()) {
+                    // logs of the test are flushed once its id is known, so they reach Zebrunner before the test finish.
+                    // the flush thread only hands the finish over to the io executor
+                    requestSequencer.submitForTest(test, testId -> this.flushLogs().thenCompose($ -> {
+                        result.setId(testId);
+                        return asyncApiClient.registerTestFinish(testRunId, result);
+                    }));
+                } else {
+                    // requests are executed on the calling thread, so the finish is sent from the test thread
+                    // rather than from the flush thread which would serialize finishes of all the tests
+                    this.flushLogs().join();
+                    requestSequencer.submitForTest(test, testId -> {
+                        result.setId(testId);
+                        return asyncApiClient.registerTestFinish(testRunId, result);
+                    });
+                }
+            } else {
+                this.flushLogs();
+            }
 
             registrationListenerRegistry.forEach(listener -> listener.onAfterTestFinish(tf));
             RunContext.completeTest(id, tf);
+            webDriverCommandProfiler.attachSummary(test);
         }
     }
 
+    private CompletableFuture<Void> flushLogs() {
+        CompletableFuture<?>[] flushes = LOGS_BUFFERS.stream()
+                                                     .map(LogsBuffer::requestFlush)
+                                                     .toArray(CompletableFuture<?>[]::new);
+        return CompletableFuture.allOf(flushes);
+    }
+
     @Override
     public void registerAfterTestStart() {
         RunContext.startAfterMethod();
@@ -260,7 +343,7 @@ class ReportingRegistrar implements TestRunRegistrar {
     @Override
     public boolean isKnownIssueAttachedToTest(String failureStacktrace) {
         Long runId = RunContext.getZebrunnerRunId();
-        Optional<Long> maybeTestId = RunContext.getCurrentTest().map(TestDescriptor::getZebrunnerId);
+        Optional<Long> maybeTestId = RunContext.getCurrentTest().map(TestDescriptor::awaitZebrunnerId);
         if (maybeTestId.isPresent()) {
             Long testId = maybeTestId.get();
             return apiClient.isKnownIssueAttachedToTest(runId, testId, failureStacktrace);
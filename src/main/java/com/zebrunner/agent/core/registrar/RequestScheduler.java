@@ -0,0 +1,226 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.exception.ServerException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Limits the number of concurrent requests to Zebrunner API and decides which of the waiting requests goes next.
+ * <p>Waiting requests are admitted in the order of their {@link Priority}, though a request which has been waiting
+ * for too long is admitted ahead of all the others, so it cannot starve. Besides that, every priority class may only
+ * occupy its share of the limit, so slow bulk requests never take all the slots and lifecycle requests always find
+ * a free one.
+ * <p>The limit itself adapts to the server using additive increase and multiplicative decrease (AIMD). The limit
+ * is decreased by a factor if the server signals overload, i.e. responds with 5xx or 429 status or times out,
+ * and, for the classes with payloads of similar size, if the request is considerably slower than the baseline latency
+ * of its class. Logs and artifacts vary in size too much for their latency to tell anything about the server load,
+ * so they do not take part in the latency comparison. Otherwise the limit grows by one per limit worth of requests
+ * while the slots are in use.
+ */
+@Slf4j
+final class RequestScheduler {
+
+    @RequiredArgsConstructor
+    enum Priority {
+
+        LIFECYCLE(1.0, true),
+        SESSIONS(1.0, true),
+        METADATA(0.75, true),
+        LOGS(0.5, false),
+        ARTIFACTS(0.25, false);
+
+        /**
+         * Share of the concurrency limit which can be occupied by requests of this and lower priorities.
+         */
+        private final double limitShare;
+        /**
+         * Whether latency of the requests is compared with the baseline of the class to detect overload.
+         */
+        private final boolean latencyTracked;
+
+    }
+
+    private static final double DECREASE_FACTOR = 0.9;
+    private static final double LATENCY_TOLERANCE = 2.0;
+    // the baseline follows the minimal latency, but slowly drifts up, so it adapts to persistently slower server
+    private static final int BASELINE_DRIFT_DIVISOR = 100;
+    private static final int MIN_LIMIT = 4;
+    private static final long STARVATION_THRESHOLD_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int maxLimit;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition[] admissions = new Condition[Priority.values().length];
+    private final int[] waiting = new int[Priority.values().length];
+    private final long[] baselineLatencyNanos = new long[Priority.values().length];
+    // set while the current thread executes an admitted request, tells whether the server signalled overload
+    private final ThreadLocal<Boolean> overloadSignalled = new ThreadLocal<>();
+    private double limit;
+    private int inFlight;
+    private int starving;
+
+    RequestScheduler(int initialLimit, int maxLimit) {
+        this.maxLimit = Math.max(MIN_LIMIT, maxLimit);
+        this.limit = Math.max(MIN_LIMIT, Math.min(initialLimit, this.maxLimit));
+        for (int i = 0; i < admissions.length; i++) {
+            admissions[i] = lock.newCondition();
+        }
+    }
+
+    /**
+     * Executes the request once it is admitted, measuring its latency to adjust the limit.
+     *
+     * @param priority      priority of the request
+     * @param timeoutMillis maximum time to wait for admission
+     * @param request       request to be executed
+     * @param <T>           type of the request result
+     * @return result of the request
+     * @throws ServerException if the request was not admitted within the timeout
+     */
+    <T> T execute(Priority priority, long timeoutMillis, Supplier<T> request) {
+        if (!this.acquire(priority, timeoutMillis)) {
+            throw new ServerException(String.format(
+                    "Request of %s priority could not be sent to Zebrunner API within %d ms.", priority, timeoutMillis
+            ));
+        }
+
+        long startNanos = System.nanoTime();
+        overloadSignalled.set(Boolean.FALSE);
+        try {
+            return request.get();
+        } finally {
+            boolean overloaded = overloadSignalled.get();
+            overloadSignalled.remove();
+            this.release(priority, System.nanoTime() - startNanos, overloaded);
+        }
+    }
+
+    /**
+     * Notifies the scheduler that the server is overloaded by the request executed on the current thread, i.e.
+     * the server responded with 5xx or 429 status or the request timed out. Other failures, such as 4xx responses,
+     * say nothing about the server load, so they do not affect the limit.
+     */
+    void signalOverload() {
+        if (overloadSignalled.get() != null) {
+            overloadSignalled.set(Boolean.TRUE);
+        }
+    }
+
+    private boolean acquire(Priority priority, long timeoutMillis) {
+        int index = priority.ordinal();
+        long startNanos = System.nanoTime();
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        lock.lock();
+        try {
+            if (starving == 0 && this.canAdmit(priority)) {
+                inFlight++;
+                return true;
+            }
+
+            waiting[index]++;
+            boolean isStarving = false;
+            try {
+                while (isStarving ? inFlight >= (int) limit : starving > 0 || !this.canAdmit(priority)) {
+                    long waitedNanos = System.nanoTime() - startNanos;
+                    if (waitedNanos >= timeoutNanos) {
+                        return false;
+                    }
+                    if (!isStarving && waitedNanos >= STARVATION_THRESHOLD_NANOS) {
+                        isStarving = true;
+                        starving++;
+                        continue;
+                    }
+
+                    long awaitNanos = timeoutNanos - waitedNanos;
+                    if (!isStarving) {
+                        awaitNanos = Math.min(awaitNanos, STARVATION_THRESHOLD_NANOS - waitedNanos);
+                    }
+                    admissions[index].awaitNanos(awaitNanos);
+                }
+                inFlight++;
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                waiting[index]--;
+                if (isStarving) {
+                    starving--;
+                }
+                // requests of lower priorities may have been waiting for the current one
+                this.signalWaiting();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean canAdmit(Priority priority) {
+        for (int i = 0; i < priority.ordinal(); i++) {
+            if (waiting[i] > 0) {
+                return false;
+            }
+        }
+        return inFlight < Math.max(1, (int) (limit * priority.limitShare));
+    }
+
+    private void release(Priority priority, long latencyNanos, boolean overloaded) {
+        lock.lock();
+        try {
+            inFlight--;
+            this.adjustLimit(priority, latencyNanos, overloaded);
+            this.signalWaiting();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void adjustLimit(Priority priority, long latencyNanos, boolean overloaded) {
+        boolean slow = false;
+        if (priority.latencyTracked && !overloaded) {
+            int index = priority.ordinal();
+            long baseline = baselineLatencyNanos[index];
+            if (baseline == 0 || latencyNanos < baseline) {
+                baselineLatencyNanos[index] = latencyNanos;
+            } else {
+                baselineLatencyNanos[index] = baseline + (latencyNanos - baseline) / BASELINE_DRIFT_DIVISOR;
+            }
+            slow = baseline > 0 && latencyNanos > baseline * LATENCY_TOLERANCE;
+        }
+
+        double previousLimit = limit;
+        if (overloaded || slow) {
+            limit = Math.max(MIN_LIMIT, limit * DECREASE_FACTOR);
+        } else if (inFlight + 1 >= (int) limit / 2) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+
+        if ((int) previousLimit != (int) limit) {
+            log.debug("Concurrency limit of requests to Zebrunner API changed from {} to {}.", (int) previousLimit, (int) limit);
+        }
+    }
+
+    private void signalWaiting() {
+        // requests of lower priorities are signalled as well, since some of them may be starving
+        for (int i = 0; i < waiting.length; i++) {
+            if (waiting[i] > 0) {
+                admissions[i].signalAll();
+            }
+        }
+    }
+
+    int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+}
@@ -0,0 +1,135 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.registrar.descriptor.TestDescriptor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Keeps asynchronous reporting requests ordered per key. A request submitted with some key is issued only after
+ * all requests previously submitted with the same key have completed, while requests submitted with different keys
+ * proceed independently. Tests are keyed by their {@link com.zebrunner.agent.core.registrar.descriptor.TestDescriptor},
+ * test sessions - by their session id and test run level requests - by {@link #TEST_RUN}.
+ * <p>Requests which need Zebrunner id of a test should be submitted via {@link #submitForTest(TestDescriptor, Function)},
+ * so they do not block the submitting thread while the test registration is still in progress.
+ * <p>Failures of the requests are logged, so callers are free to ignore the returned futures.
+ */
+@Slf4j
+final class RequestSequencer {
+
+    static final Object TEST_RUN = new Object();
+
+    private static final CompletableFuture<Void> COMPLETED = CompletableFuture.completedFuture(null);
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 60;
+
+    private static final class InstanceHolder {
+
+        private static final RequestSequencer INSTANCE = new RequestSequencer();
+
+    }
+
+    static RequestSequencer getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    private final Map<Object, CompletableFuture<?>> keyToLastRequest = new ConcurrentHashMap<>();
+
+    private RequestSequencer() {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown));
+    }
+
+    <T> CompletableFuture<T> submit(Object key, Supplier<CompletableFuture<T>> request) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        // put is atomic, so every request gets exactly one predecessor and the chain per key stays linear
+        CompletableFuture<?> previous = keyToLastRequest.put(key, result);
+
+        (previous != null ? previous : COMPLETED).whenComplete(($, previousFailure) -> this.invoke(request, result));
+        result.whenComplete(($, failure) -> {
+            keyToLastRequest.remove(key, result);
+            if (failure != null) {
+                Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                        ? failure.getCause()
+                        : failure;
+                log.error("Could not complete reporting request: {}", cause.getMessage(), cause);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Submits a request which needs Zebrunner id of the given test. The request is issued once the test is registered
+     * and all requests previously submitted for the test have completed. If the test could not be registered,
+     * the request is skipped and the returned future is completed with null.
+     *
+     * @param test    descriptor of the test
+     * @param request function issuing the request for Zebrunner id of the test
+     * @param <T>     type of the request result
+     * @return future completed with result of the request
+     */
+    <T> CompletableFuture<T> submitForTest(TestDescriptor test, Function<Long, CompletableFuture<T>> request) {
+        return this.submit(test, () -> test.getRegistration()
+                                           .handle((testId, registrationFailure) -> registrationFailure == null ? testId : null)
+                                           .thenCompose(testId -> testId != null
+                                                   ? request.apply(testId)
+                                                   : CompletableFuture.<T>completedFuture(null)));
+    }
+
+    private <T> void invoke(Supplier<CompletableFuture<T>> request, CompletableFuture<T> result) {
+        try {
+            request.get().whenComplete((value, failure) -> {
+                if (failure != null) {
+                    result.completeExceptionally(failure);
+                } else {
+                    result.complete(value);
+                }
+            });
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Waits until all submitted requests, including the ones submitted while waiting, are completed.
+     *
+     * @param timeout maximum time to wait
+     * @param unit    time unit of the timeout argument
+     * @return true if all requests have completed, false if timeout elapsed
+     */
+    boolean awaitCompletion(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!keyToLastRequest.isEmpty()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+
+            CompletableFuture<?>[] pendingRequests = keyToLastRequest.values().toArray(new CompletableFuture<?>[0]);
+            try {
+                CompletableFuture.allOf(pendingRequests).get(remaining, TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                // failures have already been logged by the request completion handler
+            } catch (TimeoutException e) {
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void shutdown() {
+        if (!this.awaitCompletion(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            log.warn("Not all reporting requests have been completed within {} seconds.", SHUTDOWN_TIMEOUT_SECONDS);
+        }
+    }
+
+}
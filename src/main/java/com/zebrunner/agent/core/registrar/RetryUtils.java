@@ -1,14 +1,47 @@
 package com.zebrunner.agent.core.registrar;
 
+import com.zebrunner.agent.core.metrics.AgentMetrics;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 @Slf4j
 class RetryUtils {
 
+    private static final long MAX_BACKOFF_MILLIS = 10_000;
+
     static <T> T tryInvoke(Supplier<T> action, Function<RuntimeException, Boolean> recoverableExceptionChecker, int maxTries) {
+        return tryInvoke(action, recoverableExceptionChecker, maxTries, 0, 0);
+    }
+
+    static void tryInvoke(Runnable action, Function<RuntimeException, Boolean> recoverableExceptionChecker, int maxTries) {
+        tryInvoke(action, recoverableExceptionChecker, maxTries, 0, 0);
+    }
+
+    /**
+     * Invokes the action retrying it on recoverable exceptions. Before every retry, the calling thread waits
+     * for a random time between zero and exponentially growing backoff (full jitter), so clients do not retry
+     * in lockstep. No retry is made if it would start after the deadline.
+     *
+     * @param action                      action to be invoked
+     * @param recoverableExceptionChecker function telling whether the action may be retried after the exception
+     * @param maxTries                    maximum number of invocations
+     * @param backoffMillis               backoff before the first retry, doubled for every next retry
+     * @param deadlineMillis              time budget of all invocations counted from the first one, 0 for no limit
+     * @param <T>                         type of the action result
+     * @return result of the action
+     */
+    static <T> T tryInvoke(Supplier<T> action,
+                           Function<RuntimeException, Boolean> recoverableExceptionChecker,
+                           int maxTries,
+                           long backoffMillis,
+                           long deadlineMillis) {
+        long startNanos = System.nanoTime();
+        long deadlineNanos = TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
         int tries = 0;
         while (true) {
             try {
@@ -19,26 +52,41 @@ class RetryUtils {
                     log.debug("All tries have been exhausted. Final exception is {}: {}", e.getClass(), e.getMessage());
                     throw e;
                 }
-                log.debug("Trying to recover from exception {}: {}", e.getClass(), e.getMessage());
-            }
-        }
-    }
 
-    static void tryInvoke(Runnable action, Function<RuntimeException, Boolean> recoverableExceptionChecker, int maxTries) {
-        int tries = 0;
-        while (true) {
-            try {
-                action.run();
-                return;
-            } catch (RuntimeException e) {
-                Boolean isRecoverableException = recoverableExceptionChecker.apply(e);
-                if (!isRecoverableException || ++tries == maxTries) {
-                    log.debug("All tries have been exhausted. Final exception is {}: {}", e.getClass(), e.getMessage());
+                long backoffNanos = jitteredBackoffNanos(backoffMillis, tries);
+                if (deadlineMillis > 0 && System.nanoTime() - startNanos + backoffNanos >= deadlineNanos) {
+                    log.debug("Deadline of the call has been reached. Final exception is {}: {}", e.getClass(), e.getMessage());
                     throw e;
                 }
                 log.debug("Trying to recover from exception {}: {}", e.getClass(), e.getMessage());
+                AgentMetrics.API_RETRIES.increment();
+                if (backoffNanos > 0) {
+                    LockSupport.parkNanos(backoffNanos);
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw e;
+                    }
+                }
             }
         }
     }
 
+    static void tryInvoke(Runnable action,
+                          Function<RuntimeException, Boolean> recoverableExceptionChecker,
+                          int maxTries,
+                          long backoffMillis,
+                          long deadlineMillis) {
+        tryInvoke(() -> {
+            action.run();
+            return null;
+        }, recoverableExceptionChecker, maxTries, backoffMillis, deadlineMillis);
+    }
+
+    private static long jitteredBackoffNanos(long backoffMillis, int tries) {
+        if (backoffMillis <= 0) {
+            return 0;
+        }
+        long ceilingMillis = Math.min(MAX_BACKOFF_MILLIS, Math.min(backoffMillis, MAX_BACKOFF_MILLIS) << Math.min(tries - 1, 20));
+        return TimeUnit.MILLISECONDS.toNanos(ThreadLocalRandom.current().nextLong(ceilingMillis + 1));
+    }
+
 }
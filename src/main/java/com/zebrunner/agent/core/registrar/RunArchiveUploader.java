@@ -0,0 +1,331 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.config.ConfigurationHolder;
+import com.zebrunner.agent.core.logging.Log;
+import com.zebrunner.agent.core.registrar.domain.ObjectMapperImpl;
+import com.zebrunner.agent.core.registrar.domain.TestDTO;
+import com.zebrunner.agent.core.registrar.domain.TestRunDTO;
+import com.zebrunner.agent.core.registrar.domain.TestSessionDTO;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Uploads run archive recorded by {@link ArchivingZebrunnerApiClient} to Zebrunner.
+ * <p>The test run is registered first. The rest of the operations are uploaded in parallel, though operations
+ * related to the same test or session are uploaded in the order they were recorded, and an operation related
+ * to a test or session is uploaded only after the test or session is registered. The test run is finished
+ * once all the other operations are uploaded.
+ * <p>Usage: {@code java -cp <classpath> com.zebrunner.agent.core.registrar.RunArchiveUploader <run archive directory>}
+ */
+@Slf4j
+public final class RunArchiveUploader {
+
+    private final Path runArchive;
+    private final UnirestZebrunnerApiClient client;
+    private final ExecutorService executor;
+    private final ObjectMapperImpl objectMapper = ObjectMapperImpl.getInstance();
+
+    // local ids assigned during the test run mapped to the actual ids
+    private final Map<Long, Long> testIds = new ConcurrentHashMap<>();
+    private final Map<Long, Long> sessionIds = new ConcurrentHashMap<>();
+    private Long testRunId;
+
+    // last operations uploaded for every test and session, so the next operations are chained to them
+    private final Map<String, CompletableFuture<Void>> lastOperations = new HashMap<>();
+    private final List<CompletableFuture<Void>> pendingOperations = new ArrayList<>();
+    private final AtomicInteger failedOperations = new AtomicInteger();
+
+    private RunArchiveUploader(Path runArchive, UnirestZebrunnerApiClient client, ExecutorService executor) {
+        this.runArchive = runArchive;
+        this.client = client;
+        this.executor = executor;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: RunArchiveUploader <run archive directory>");
+            System.exit(2);
+        }
+
+        boolean uploaded = upload(Paths.get(args[0]));
+        System.exit(uploaded ? 0 : 1);
+    }
+
+    /**
+     * Uploads the run archive to Zebrunner.
+     *
+     * @param runArchive directory of the run archive
+     * @return true if all the operations were uploaded
+     * @throws IOException if the run archive cannot be read
+     */
+    public static boolean upload(Path runArchive) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(ConfigurationHolder.getClientIoThreads());
+        try {
+            return new RunArchiveUploader(runArchive, UnirestZebrunnerApiClient.getInstance(), executor).upload();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private boolean upload() throws IOException {
+        long startMillis = System.currentTimeMillis();
+        int operationsCount = 0;
+
+        Path operationsFile = runArchive.resolve(ArchivingZebrunnerApiClient.OPERATIONS_FILE);
+        try (BufferedReader reader = Files.newBufferedReader(operationsFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                SpooledOperation operation = objectMapper.readValue(
+                        new ByteArrayInputStream(line.getBytes(StandardCharsets.UTF_8)), SpooledOperation.class
+                );
+                operationsCount++;
+
+                if (operation.getType() == SpooledOperation.Type.REGISTER_TEST_RUN_START) {
+                    this.registerTestRunStart(operation.getTestRun());
+                } else if (operation.getType() == SpooledOperation.Type.REGISTER_TEST_RUN_FINISH) {
+                    this.awaitAll();
+                    this.upload(operation);
+                } else if (testRunId != null) {
+                    this.schedule(operation);
+                }
+            }
+        }
+        this.awaitAll();
+
+        log.info("Uploaded {} of {} reporting operations from {} in {} ms.",
+                operationsCount - failedOperations.get(), operationsCount, runArchive, System.currentTimeMillis() - startMillis);
+        return testRunId != null && failedOperations.get() == 0;
+    }
+
+    private void registerTestRunStart(TestRunDTO testRun) {
+        testRun.setId(null);
+        try {
+            testRunId = client.registerTestRunStart(testRun).getId();
+        } catch (RuntimeException e) {
+            failedOperations.incrementAndGet();
+            log.error("Could not register start of the test run. Operations of the test run will not be uploaded.", e);
+        }
+    }
+
+    private void schedule(SpooledOperation operation) {
+        Set<String> keys = this.getDependencyKeys(operation);
+        CompletableFuture<?>[] dependencies = keys.stream()
+                                                  .map(lastOperations::get)
+                                                  .filter(future -> future != null)
+                                                  .toArray(CompletableFuture[]::new);
+
+        CompletableFuture<Void> future = CompletableFuture.allOf(dependencies)
+                                                          .thenRunAsync(() -> this.upload(operation), executor);
+        for (String key : keys) {
+            lastOperations.put(key, future);
+        }
+        pendingOperations.add(future);
+    }
+
+    private void awaitAll() {
+        CompletableFuture.allOf(pendingOperations.toArray(new CompletableFuture<?>[0])).join();
+        pendingOperations.clear();
+        lastOperations.clear();
+    }
+
+    private Set<String> getDependencyKeys(SpooledOperation operation) {
+        Set<String> keys = new LinkedHashSet<>();
+        if (operation.getTest() != null) {
+            keys.add("test:" + operation.getTest().getId());
+        } else if (operation.getTestId() != null) {
+            keys.add("test:" + operation.getTestId());
+        }
+        if (operation.getTestSession() != null) {
+            keys.add("session:" + operation.getTestSession().getId());
+            operation.getTestSession().getTestIds().forEach(testId -> keys.add("test:" + testId));
+        }
+        if (operation.getLogs() != null) {
+            operation.getLogs().stream()
+                     .map(Log::getTestId)
+                     .filter(testId -> testId != null)
+                     .forEach(testId -> keys.add("test:" + testId));
+        }
+        return keys;
+    }
+
+    /**
+     * Uploads the operation replacing local ids with the actual ones. The operation is sent with guaranteed delivery,
+     * so failures of the requests which are otherwise only logged, e.g. of logs or screenshots, are counted as well.
+     * Failures are logged, so they do not prevent upload of the other operations.
+     */
+    private void upload(SpooledOperation operation) {
+        try {
+            client.deliver(() -> {
+                try {
+                    this.send(operation);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            failedOperations.incrementAndGet();
+            log.error("Could not upload reporting operation {}.", operation.getType(), e);
+        }
+    }
+
+    private void send(SpooledOperation operation) throws IOException {
+        TestDTO test = operation.getTest();
+        switch (operation.getType()) {
+            case PATCH_TEST_RUN_BUILD:
+                client.patchTestRunBuild(testRunId, operation.getTestRunBuild());
+                break;
+            case SET_TEST_RUN_PLATFORM:
+                client.setTestRunPlatform(testRunId, operation.getPlatformName(), operation.getPlatformVersion());
+                break;
+            case REGISTER_TEST_RUN_FINISH:
+                operation.getTestRun().setId(testRunId);
+                client.registerTestRunFinish(operation.getTestRun());
+                break;
+            case REGISTER_TEST_START: {
+                Long localId = test.getId();
+                test.setId(null);
+                testIds.put(localId, client.registerTestStart(testRunId, test, operation.getHeadless()).getId());
+                break;
+            }
+            case REGISTER_TEST_RERUN_START: {
+                Long localId = test.getId();
+                test.setId(null);
+                testIds.put(localId, client.registerTestRerunStart(testRunId, operation.getTestId(), test, operation.getHeadless()).getId());
+                break;
+            }
+            case REGISTER_HEADLESS_TEST_UPDATE:
+                test.setId(this.toTestId(test.getId()));
+                client.registerHeadlessTestUpdate(testRunId, test);
+                break;
+            case REVERT_TEST_REGISTRATION:
+                client.revertTestRegistration(testRunId, this.toTestId(operation.getTestId()));
+                break;
+            case REGISTER_TEST_FINISH:
+                test.setId(this.toTestId(test.getId()));
+                client.registerTestFinish(testRunId, test);
+                break;
+            case SEND_LOGS:
+                client.sendLogs(this.toLogs(operation.getLogs()), testRunId);
+                break;
+            case UPSERT_TEST_CASE_RESULTS:
+                client.upsertTestCaseResults(testRunId, this.toTestId(operation.getTestId()), operation.getTestCaseResults());
+                break;
+            case UPLOAD_SCREENSHOT:
+                client.uploadScreenshot(
+                        this.readAttachment(operation), testRunId, this.toTestId(operation.getTestId()), operation.getCapturedAt()
+                );
+                break;
+            case UPLOAD_TEST_RUN_ARTIFACT:
+                try (InputStream artifact = this.openAttachment(operation)) {
+                    client.uploadTestRunArtifact(artifact, operation.getArtifactName(), testRunId);
+                }
+                break;
+            case UPLOAD_TEST_ARTIFACT:
+                try (InputStream artifact = this.openAttachment(operation)) {
+                    client.uploadTestArtifact(artifact, operation.getArtifactName(), testRunId, this.toTestId(operation.getTestId()));
+                }
+                break;
+            case ATTACH_ARTIFACT_REFERENCE_TO_TEST_RUN:
+                client.attachArtifactReferenceToTestRun(testRunId, operation.getArtifactReference());
+                break;
+            case ATTACH_ARTIFACT_REFERENCE_TO_TEST:
+                client.attachArtifactReferenceToTest(testRunId, this.toTestId(operation.getTestId()), operation.getArtifactReference());
+                break;
+            case ATTACH_LABELS_TO_TEST_RUN:
+                client.attachLabelsToTestRun(testRunId, operation.getLabels());
+                break;
+            case ATTACH_LABELS_TO_TEST:
+                client.attachLabelsToTest(testRunId, this.toTestId(operation.getTestId()), operation.getLabels());
+                break;
+            case START_SESSION: {
+                TestSessionDTO testSession = operation.getTestSession();
+                Long localId = testSession.getId();
+                testSession.setId(null);
+                testSession.setTestIds(this.toTestIds(testSession.getTestIds()));
+                sessionIds.put(localId, client.startSession(testRunId, testSession).getId());
+                break;
+            }
+            case UPDATE_SESSION: {
+                TestSessionDTO testSession = operation.getTestSession();
+                testSession.setId(this.toId(sessionIds, testSession.getId(), "session"));
+                testSession.setTestIds(this.toTestIds(testSession.getTestIds()));
+                client.updateSession(testRunId, testSession);
+                break;
+            }
+            default:
+                log.warn("Unknown reporting operation {}.", operation.getType());
+        }
+    }
+
+    private Long toTestId(Long localId) {
+        return this.toId(testIds, localId, "test");
+    }
+
+    private Long toId(Map<Long, Long> ids, Long localId, String entity) {
+        Long id = ids.get(localId);
+        if (id == null) {
+            throw new IllegalStateException("The " + entity + " with local id " + localId + " was not registered in Zebrunner.");
+        }
+        return id;
+    }
+
+    private Set<Long> toTestIds(Set<Long> localIds) {
+        return localIds.stream()
+                       .map(testIds::get)
+                       .filter(id -> id != null)
+                       .collect(Collectors.toSet());
+    }
+
+    private Collection<Log> toLogs(List<Log> logs) {
+        List<Log> uploadedLogs = new ArrayList<>(logs.size());
+        for (Log log : logs) {
+            if (log.getTestId() != null) {
+                Long testId = testIds.get(Long.valueOf(log.getTestId()));
+                if (testId == null) {
+                    continue;
+                }
+                log.setTestId(testId.toString());
+            }
+            uploadedLogs.add(log);
+        }
+        return uploadedLogs;
+    }
+
+    private byte[] readAttachment(SpooledOperation operation) throws IOException {
+        return Files.readAllBytes(this.getAttachmentPath(operation));
+    }
+
+    private InputStream openAttachment(SpooledOperation operation) throws IOException {
+        return Files.newInputStream(this.getAttachmentPath(operation));
+    }
+
+    private Path getAttachmentPath(SpooledOperation operation) {
+        return runArchive.resolve(ArchivingZebrunnerApiClient.ATTACHMENTS_DIRECTORY).resolve(operation.getAttachmentFile());
+    }
+
+}
@@ -50,6 +50,15 @@ class RunContext {
         return Optional.ofNullable(CURRENT_THREAD_LOCAL_TEST.get());
     }
 
+    /**
+     * Returns test of the current thread without wrapping it into {@link Optional}, for use on hot paths.
+     *
+     * @return current test or null if there is no test in progress on the current thread
+     */
+    static TestDescriptor peekCurrentTest() {
+        return CURRENT_THREAD_LOCAL_TEST.get();
+    }
+
     static Optional<TestDescriptor> removeCurrentTest() {
         Optional<TestDescriptor> maybeCurrentTest = getCurrentTest();
         maybeCurrentTest.ifPresent(currentTest -> {
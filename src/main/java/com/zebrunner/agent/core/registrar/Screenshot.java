@@ -1,12 +1,12 @@
 package com.zebrunner.agent.core.registrar;
 
-import com.zebrunner.agent.core.registrar.descriptor.TestDescriptor;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public final class Screenshot {
 
-    private static final ZebrunnerApiClient API_CLIENT = ClientRegistrar.getClient();
+    private static final AsyncZebrunnerApiClient API_CLIENT = ClientRegistrar.getAsyncClient();
+    private static final RequestSequencer REQUEST_SEQUENCER = RequestSequencer.getInstance();
 
     /**
      * Sends screenshot captured in scope of current test execution to Zebrunner. Captured at timestamp accuracy
@@ -21,8 +21,9 @@ public final class Screenshot {
         Long runId = RunContext.getZebrunnerRunId();
 
         RunContext.getCurrentTest()
-                  .map(TestDescriptor::getZebrunnerId)
-                  .ifPresent(testId -> API_CLIENT.uploadScreenshot(screenshot, runId, testId, capturedAt));
+                  .ifPresent(test -> REQUEST_SEQUENCER.submitForTest(
+                          test, testId -> API_CLIENT.uploadScreenshot(screenshot, runId, testId, capturedAt)
+                  ));
     }
 
 }
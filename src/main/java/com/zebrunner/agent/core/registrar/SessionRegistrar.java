@@ -1,5 +1,6 @@
 package com.zebrunner.agent.core.registrar;
 
+import com.zebrunner.agent.core.metrics.AgentMetrics;
 import com.zebrunner.agent.core.registrar.descriptor.SessionCloseDescriptor;
 import com.zebrunner.agent.core.registrar.descriptor.SessionStartDescriptor;
 import com.zebrunner.agent.core.registrar.descriptor.TestDescriptor;
@@ -8,7 +9,9 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
@@ -20,37 +23,86 @@ class SessionRegistrar implements TestSessionRegistrar {
         return INSTANCE;
     }
 
-    private final ZebrunnerApiClient apiClient = ClientRegistrar.getClient();
+    private final AsyncZebrunnerApiClient asyncApiClient = ClientRegistrar.getAsyncClient();
+    private final RequestSequencer requestSequencer = RequestSequencer.getInstance();
+    private final CapabilitiesCompactor capabilitiesCompactor = CapabilitiesCompactor.fromConfiguration();
+    private final SessionStartupTelemetry sessionStartupTelemetry = SessionStartupTelemetry.getInstance();
 
     private final Map<String, TestSessionDTO> sessionIdToSession = new ConcurrentHashMap<>();
+    // sessions having links which are not sent yet. guarded by the lock of the corresponding session
+    private final Set<String> sessionIdsWithPendingLinks = ConcurrentHashMap.newKeySet();
     private final ThreadLocal<Set<String>> threadSessionIds = InheritableThreadLocal.withInitial(HashSet::new);
+    private final ThreadLocal<LastLink> threadLastLink = ThreadLocal.withInitial(LastLink::new);
 
+    private SessionRegistrar() {
+        AgentMetrics.getRegistry().gauge(
+                "zebrunner_agent_sessions_active", "Test sessions started and not closed yet.", () -> sessionIdToSession.size()
+        );
+    }
+
+    /**
+     * Registers the session start without blocking the driver creation. The start request is queued under
+     * the session id, so links and close of the session, which are queued under the same key, are sent
+     * only after the session is registered and its Zebrunner id is known. Session requests are sent
+     * in background regardless of the asynchronous reporting, so no request is sent under the session lock.
+     *
+     * @param startDescriptor descriptor of the session start
+     */
     @Override
     public void registerStart(SessionStartDescriptor startDescriptor) {
         log.debug("Registering test session start. {}", startDescriptor);
+        sessionStartupTelemetry.record(startDescriptor);
+
         TestSessionDTO testSession = TestSessionDTO.builder()
                                                    .sessionId(startDescriptor.getSessionId())
                                                    .initiatedAt(startDescriptor.getInitiatedAt())
                                                    .startedAt(startDescriptor.getStartedAt())
                                                    .status(startDescriptor.getStatus())
-                                                   .capabilities(startDescriptor.getCapabilities())
+                                                   .capabilities(capabilitiesCompactor.compact(startDescriptor.getCapabilities()))
                                                    .failureReason(startDescriptor.getFailureReason())
-                                                   .desiredCapabilities(startDescriptor.getDesiredCapabilities())
+                                                   .desiredCapabilities(capabilitiesCompactor.compact(startDescriptor.getDesiredCapabilities()))
                                                    .build();
 
-        RunContext.getCurrentTest()
-                  .map(TestDescriptor::getZebrunnerId)
-                  .ifPresent(testSession.getTestIds()::add);
+        Optional<TestDescriptor> currentTest = RunContext.getCurrentTest();
+        currentTest.filter(TestDescriptor::isRegistered)
+                   .map(TestDescriptor::getZebrunnerId)
+                   .ifPresent(testSession.getTestIds()::add);
+
+        Long testRunId = RunContext.getZebrunnerRunId();
+        String sessionId = testSession.getSessionId();
+        if (sessionId == null || testSession.getStatus() == TestSessionDTO.Status.FAILED) {
+            // failed session is reported as is, nothing else is sent for it later
+            TestSessionDTO failedSession = testSession;
+            requestSequencer.submit(startDescriptor, () -> asyncApiClient.startSession(testRunId, failedSession));
+        } else {
+            // the session is tracked right away, so it can be linked to tests while its registration is in progress.
+            // links and close lock the session before queueing their requests, so they are queued after the start
+            TestSessionDTO startedSession = testSession;
+            synchronized (startedSession) {
+                sessionIdToSession.put(sessionId, startedSession);
+                requestSequencer.submit(sessionId, () -> asyncApiClient.startSession(testRunId, snapshot(startedSession))
+                                                                       .thenAccept(registeredSession -> this.onStartRegistered(startedSession, registeredSession)));
+            }
+            threadSessionIds.get().add(sessionId);
+
+            // registration of the current test may still be in progress, so the link is established once it completes
+            currentTest.filter(test -> !test.isRegistered())
+                       .ifPresent(test -> test.whenRegistered(testId -> link(sessionId, testId)));
+        }
 
-        testSession = apiClient.startSession(RunContext.getZebrunnerRunId(), testSession);
+        log.debug("Registration of test session start queued. {}", startDescriptor);
+    }
 
+    private void onStartRegistered(TestSessionDTO testSession, TestSessionDTO registeredSession) {
         // if reporting is enabled and test session was actually registered
-        if (testSession != null && testSession.getStatus() != TestSessionDTO.Status.FAILED) {
-            sessionIdToSession.put(testSession.getSessionId(), testSession);
-            threadSessionIds.get().add(testSession.getSessionId());
+        if (registeredSession != null && registeredSession.getStatus() != TestSessionDTO.Status.FAILED) {
+            synchronized (testSession) {
+                testSession.setId(registeredSession.getId());
+            }
+            AgentMetrics.SESSIONS_STARTED.increment();
+        } else {
+            sessionIdToSession.remove(testSession.getSessionId(), testSession);
         }
-
-        log.debug("Registration of test session start completed. {}", startDescriptor);
     }
 
     @Override
@@ -58,15 +110,19 @@ class SessionRegistrar implements TestSessionRegistrar {
         log.debug("Registering test session close. {}", closeDescriptor);
         TestSessionDTO testSession = sessionIdToSession.get(closeDescriptor.getSessionId());
         if (testSession != null) {
-            testSession.setEndedAt(closeDescriptor.getEndedAt());
-
-            apiClient.updateSession(RunContext.getZebrunnerRunId(), testSession);
+            synchronized (testSession) {
+                testSession.setEndedAt(closeDescriptor.getEndedAt());
+                // the close update carries all the test ids, so links which are not sent yet are not needed anymore
+                sessionIdsWithPendingLinks.remove(closeDescriptor.getSessionId());
+                this.submitUpdate(testSession);
+            }
 
             sessionIdToSession.remove(closeDescriptor.getSessionId());
+            AgentMetrics.SESSIONS_CLOSED.increment();
             threadSessionIds.get().remove(closeDescriptor.getSessionId());
         }
 
-        log.debug("Registration of test session close completed. {}", closeDescriptor);
+        log.debug("Registration of test session close queued. {}", closeDescriptor);
     }
 
     @Override
@@ -74,23 +130,123 @@ class SessionRegistrar implements TestSessionRegistrar {
         threadSessionIds.get().forEach(sessionId -> link(sessionId, zebrunnerTestId));
     }
 
+    @Override
+    public void linkAllCurrentToTest(TestDescriptor test) {
+        // session ids are thread-bound, so they must be captured before the test registration completes on another thread
+        Set<String> sessionIds = new HashSet<>(threadSessionIds.get());
+        test.whenRegistered(testId -> sessionIds.forEach(sessionId -> link(sessionId, testId)));
+    }
+
+    /**
+     * Links the session to the current test. The method is invoked on every WebDriver command, while the session
+     * and the test rarely change between commands of a thread. So the last linked pair is remembered per thread
+     * and the repeated link is skipped with no allocation. Linking is idempotent, so a miss (e.g. the same session id
+     * given as a different string instance) only costs the regular path.
+     *
+     * @param sessionId id of the session
+     */
     @Override
     public void linkToCurrentTest(String sessionId) {
-        RunContext.getCurrentTest()
-                  .map(TestDescriptor::getZebrunnerId)
-                  .ifPresent(currentTestId -> link(sessionId, currentTestId));
+        TestDescriptor currentTest = RunContext.peekCurrentTest();
+        if (currentTest == null) {
+            return;
+        }
+
+        LastLink lastLink = threadLastLink.get();
+        if (lastLink.test == currentTest && lastLink.sessionId == sessionId) {
+            return;
+        }
+        lastLink.test = currentTest;
+        lastLink.sessionId = sessionId;
+
+        currentTest.whenRegistered(testId -> link(sessionId, testId));
     }
 
+    /**
+     * Links the test to the session. Links are not sent one by one: a single update is queued for the session
+     * until it is sent. Links made while the update is waiting for the previous requests of the session are merged
+     * into it, so a burst of links turns into one request.
+     *
+     * @param sessionId   id of the session
+     * @param zebrunnerId Zebrunner id of the test
+     */
     private void link(String sessionId, Long zebrunnerId) {
         TestSessionDTO testSession = sessionIdToSession.get(sessionId);
         if (testSession != null) {
-            Set<Long> testIds = testSession.getTestIds();
+            Long testRunId = RunContext.getZebrunnerRunId();
+            synchronized (testSession) {
+                if (!testSession.getTestIds().add(zebrunnerId)) {
+                    return;
+                }
+                if (sessionIdsWithPendingLinks.add(sessionId)) {
+                    requestSequencer.submit(sessionId, () -> this.sendPendingLinks(testRunId, testSession));
+                }
+            }
+
+            log.debug("Linking test '{}' to session '{}'", zebrunnerId, sessionId);
+            AgentMetrics.SESSION_LINKS.increment();
+        }
+    }
 
-            if (testIds.add(zebrunnerId)) {
-                log.debug("Linking test '{}' to session '{}'", zebrunnerId, sessionId);
-                apiClient.updateSession(RunContext.getZebrunnerRunId(), testSession);
+    /**
+     * Sends the links of the session. The session update replaces the session as a whole, so the update carries
+     * all the test ids linked to the session so far along with the rest of the session, whose capabilities
+     * are already compacted on the session start.
+     */
+    private CompletableFuture<Void> sendPendingLinks(Long testRunId, TestSessionDTO testSession) {
+        TestSessionDTO snapshot;
+        synchronized (testSession) {
+            // the links are sent by the close update already
+            if (!sessionIdsWithPendingLinks.remove(testSession.getSessionId())) {
+                return CompletableFuture.completedFuture(null);
             }
+            snapshot = snapshot(testSession);
         }
+        // the session could not be registered, so there is nothing to link tests to
+        return snapshot.getId() != null
+                ? asyncApiClient.updateSession(testRunId, snapshot)
+                : CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Sends the session update in background. The update carries a snapshot of the session taken right before
+     * the request is sent, since the session itself keeps being modified by test threads and gets its Zebrunner id
+     * only once the session start is registered.
+     *
+     * @param testSession test session to be updated
+     */
+    private void submitUpdate(TestSessionDTO testSession) {
+        Long testRunId = RunContext.getZebrunnerRunId();
+        requestSequencer.submit(testSession.getSessionId(), () -> {
+            TestSessionDTO snapshot = snapshot(testSession);
+            return snapshot.getId() != null
+                    ? asyncApiClient.updateSession(testRunId, snapshot)
+                    : CompletableFuture.completedFuture(null);
+        });
+    }
+
+    private static TestSessionDTO snapshot(TestSessionDTO testSession) {
+        synchronized (testSession) {
+            return TestSessionDTO.builder()
+                                 .id(testSession.getId())
+                                 .sessionId(testSession.getSessionId())
+                                 .initiatedAt(testSession.getInitiatedAt())
+                                 .startedAt(testSession.getStartedAt())
+                                 .endedAt(testSession.getEndedAt())
+                                 .status(testSession.getStatus())
+                                 .desiredCapabilities(testSession.getDesiredCapabilities())
+                                 .capabilities(testSession.getCapabilities())
+                                 .testIds(new HashSet<>(testSession.getTestIds()))
+                                 .failureReason(testSession.getFailureReason())
+                                 .build();
+        }
+    }
+
+    private static final class LastLink {
+
+        private TestDescriptor test;
+        private String sessionId;
+
     }
 
 }
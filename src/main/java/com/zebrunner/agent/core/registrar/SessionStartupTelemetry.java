@@ -0,0 +1,185 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.metrics.AgentMetrics;
+import com.zebrunner.agent.core.metrics.Counter;
+import com.zebrunner.agent.core.metrics.Histogram;
+import com.zebrunner.agent.core.registrar.descriptor.SessionStartDescriptor;
+import com.zebrunner.agent.core.registrar.domain.TestSessionDTO;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Aggregates startup durations of WebDriver sessions of the run per browser, platform and device. The duration
+ * spans from the session request to its start or failure, so it includes the time the session waited in a grid
+ * queue. Startups getting slower or failing more often while the tests themselves do not slow down mean that
+ * the grid capacity, rather than the test code, limits the parallelism.
+ * <p>The durations and outcomes are exported as agent metrics, and their summary is attached to the test run
+ * on its finish.
+ */
+final class SessionStartupTelemetry {
+
+    private static final SessionStartupTelemetry INSTANCE = new SessionStartupTelemetry();
+
+    private static final String SUMMARY_ARTIFACT_NAME = "session-startup.txt";
+    // protects the metrics from unbounded number of labels, e.g. if every session requests a unique device
+    private static final int MAX_COMBINATIONS = 64;
+    private static final Combination OTHER_COMBINATION = new Combination("other", "other", "other");
+    private static final String NOT_SPECIFIED = "none";
+
+    static SessionStartupTelemetry getInstance() {
+        return INSTANCE;
+    }
+
+    private final AsyncZebrunnerApiClient asyncApiClient = ClientRegistrar.getAsyncClient();
+    private final RequestSequencer requestSequencer = RequestSequencer.getInstance();
+
+    private final Map<Combination, Startups> combinationToStartups = new ConcurrentHashMap<>();
+
+    private SessionStartupTelemetry() {
+    }
+
+    /**
+     * Records startup of the session. Sessions are grouped by their desired capabilities, since only those
+     * are known for both started and failed sessions.
+     *
+     * @param startDescriptor descriptor of the started or failed session
+     */
+    void record(SessionStartDescriptor startDescriptor) {
+        // a failed session is registered right after the failure, so the moment of its registration is close enough
+        Instant finishedAt = startDescriptor.getStartedAt() != null ? startDescriptor.getStartedAt() : Instant.now();
+        long durationNanos = Math.max(0, Duration.between(startDescriptor.getInitiatedAt(), finishedAt).toNanos());
+        boolean started = startDescriptor.getStatus() == TestSessionDTO.Status.RUNNING && startDescriptor.getSessionId() != null;
+
+        Combination combination = Combination.of(startDescriptor.getDesiredCapabilities());
+        Startups startups = combinationToStartups.get(combination);
+        if (startups == null) {
+            if (combinationToStartups.size() >= MAX_COMBINATIONS) {
+                combination = OTHER_COMBINATION;
+            }
+            startups = combinationToStartups.computeIfAbsent(combination, Startups::new);
+        }
+        startups.record(durationNanos, started);
+    }
+
+    /**
+     * Uploads summary of the session startups as an artifact of the test run. Nothing is uploaded
+     * if no session has been started by the run.
+     */
+    void attachSummary() {
+        if (combinationToStartups.isEmpty()) {
+            return;
+        }
+
+        byte[] summary = this.formatSummary().getBytes(StandardCharsets.UTF_8);
+        Long testRunId = RunContext.getZebrunnerRunId();
+        requestSequencer.submit(this, () -> testRunId != null
+                ? asyncApiClient.uploadTestRunArtifact(new ByteArrayInputStream(summary), SUMMARY_ARTIFACT_NAME, testRunId)
+                : CompletableFuture.completedFuture(null));
+    }
+
+    private String formatSummary() {
+        List<Startups> startupsList = new ArrayList<>(combinationToStartups.values());
+        startupsList.sort((first, second) -> Long.compare(second.getCount(), first.getCount()));
+
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format(
+                Locale.ROOT, "%-16s %-12s %-24s %8s %8s %8s %10s %10s %10s%n",
+                "browser", "platform", "device", "sessions", "failed", "failed %", "p50", "p95", "max"
+        ));
+        for (Startups startups : startupsList) {
+            long count = startups.getCount();
+            long failed = startups.failed.get();
+            summary.append(String.format(
+                    Locale.ROOT, "%-16s %-12s %-24s %8d %8d %7.1f%% %10s %10s %10s%n",
+                    startups.combination.browser, startups.combination.platform, startups.combination.device,
+                    count, failed, count > 0 ? 100.0 * failed / count : 0,
+                    formatQuantile(startups.duration.getQuantileSeconds(0.5)),
+                    formatQuantile(startups.duration.getQuantileSeconds(0.95)),
+                    String.format(Locale.ROOT, "%.1f s", startups.maxNanos.get() / 1e9)
+            ));
+        }
+        summary.append(String.format("%nDuration is measured from the session request to its start or failure, "
+                + "including time spent in a grid queue. Quantiles are upper bounds of histogram buckets.%n"));
+        return summary.toString();
+    }
+
+    private static String formatQuantile(double seconds) {
+        return Double.isInfinite(seconds)
+                ? "> 300 s"
+                : "<= " + seconds + " s";
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class Combination {
+
+        private final String browser;
+        private final String platform;
+        private final String device;
+
+        private static Combination of(Map<String, Object> capabilities) {
+            if (capabilities == null) {
+                return new Combination(NOT_SPECIFIED, NOT_SPECIFIED, NOT_SPECIFIED);
+            }
+            return new Combination(
+                    getValue(capabilities, "browserName", null).toLowerCase(Locale.ROOT),
+                    getValue(capabilities, "platformName", "platform").toLowerCase(Locale.ROOT),
+                    getValue(capabilities, "appium:deviceName", "deviceName")
+            );
+        }
+
+        private static String getValue(Map<String, Object> capabilities, String key, String fallbackKey) {
+            Object value = capabilities.get(key);
+            if (value == null && fallbackKey != null) {
+                value = capabilities.get(fallbackKey);
+            }
+            String stringValue = value != null ? value.toString().trim() : "";
+            return stringValue.isEmpty() ? NOT_SPECIFIED : stringValue;
+        }
+
+    }
+
+    private static final class Startups {
+
+        private final Combination combination;
+        private final Histogram duration;
+        private final Counter started;
+        private final Counter failed;
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        private Startups(Combination combination) {
+            this.combination = combination;
+            this.duration = AgentMetrics.sessionStartupDuration(combination.browser, combination.platform, combination.device);
+            this.started = AgentMetrics.sessionStartups(combination.browser, combination.platform, combination.device, "started");
+            this.failed = AgentMetrics.sessionStartups(combination.browser, combination.platform, combination.device, "failed");
+        }
+
+        private void record(long durationNanos, boolean isStarted) {
+            duration.record(durationNanos);
+            maxNanos.accumulate(durationNanos);
+            if (isStarted) {
+                started.increment();
+            } else {
+                failed.increment();
+            }
+        }
+
+        private long getCount() {
+            return started.get() + failed.get();
+        }
+
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.logging.Log;
+import com.zebrunner.agent.core.registrar.domain.ArtifactReferenceDTO;
+import com.zebrunner.agent.core.registrar.domain.LabelDTO;
+import com.zebrunner.agent.core.registrar.domain.TestCaseResult;
+import com.zebrunner.agent.core.registrar.domain.TestDTO;
+import com.zebrunner.agent.core.registrar.domain.TestRunDTO;
+import com.zebrunner.agent.core.registrar.domain.TestSessionDTO;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Operation of {@link ZebrunnerApiClient} recorded by {@link SpoolingZebrunnerApiClient}
+ * or {@link ArchivingZebrunnerApiClient}. Only the arguments of the recorded method are set.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+class SpooledOperation {
+
+    enum Type {
+
+        REGISTER_TEST_RUN_START,
+        PATCH_TEST_RUN_BUILD,
+        SET_TEST_RUN_PLATFORM,
+        REGISTER_TEST_RUN_FINISH,
+        REGISTER_TEST_START,
+        REGISTER_TEST_RERUN_START,
+        REGISTER_HEADLESS_TEST_UPDATE,
+        REVERT_TEST_REGISTRATION,
+        REGISTER_TEST_FINISH,
+        SEND_LOGS,
+        UPSERT_TEST_CASE_RESULTS,
+        UPLOAD_SCREENSHOT,
+        UPLOAD_TEST_RUN_ARTIFACT,
+        UPLOAD_TEST_ARTIFACT,
+        ATTACH_ARTIFACT_REFERENCE_TO_TEST_RUN,
+        ATTACH_ARTIFACT_REFERENCE_TO_TEST,
+        ATTACH_LABELS_TO_TEST_RUN,
+        ATTACH_LABELS_TO_TEST,
+        START_SESSION,
+        UPDATE_SESSION
+
+    }
+
+    private Type type;
+    private Long testRunId;
+    private Long testId;
+    private String testRunBuild;
+    private String platformName;
+    private String platformVersion;
+    private TestRunDTO testRun;
+    private TestDTO test;
+    private Boolean headless;
+    private List<Log> logs;
+    private List<TestCaseResult> testCaseResults;
+    private Long capturedAt;
+    private String artifactName;
+    /**
+     * Name of the file with binary content of the operation, which is stored next to the recorded operations.
+     */
+    private String attachmentFile;
+    private ArtifactReferenceDTO artifactReference;
+    private List<LabelDTO> labels;
+    private TestSessionDTO testSession;
+
+}
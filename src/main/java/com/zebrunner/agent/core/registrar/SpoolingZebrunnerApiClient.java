@@ -0,0 +1,472 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.config.ConfigurationHolder;
+import com.zebrunner.agent.core.logging.Log;
+import com.zebrunner.agent.core.registrar.SpooledOperation.Type;
+import com.zebrunner.agent.core.registrar.domain.ArtifactReferenceDTO;
+import com.zebrunner.agent.core.registrar.domain.ExchangeRunContextResponse;
+import com.zebrunner.agent.core.registrar.domain.LabelDTO;
+import com.zebrunner.agent.core.registrar.domain.ObjectMapperImpl;
+import com.zebrunner.agent.core.registrar.domain.TestCaseResult;
+import com.zebrunner.agent.core.registrar.domain.TestDTO;
+import com.zebrunner.agent.core.registrar.domain.TestRunDTO;
+import com.zebrunner.agent.core.registrar.domain.TestSessionDTO;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ZebrunnerApiClient} which records operations into a {@link WriteAheadJournal} before they are sent
+ * to Zebrunner, so the operations are not lost if the server is unavailable for a while or the JVM is terminated.
+ * Background replayer sends the recorded operations concurrently, up to the per-route connection limit, so
+ * the requests are scheduled by priority as any other requests. Operations concerning the same test or session
+ * are sent in the order they were recorded, while the finish of the test run is sent only after all the operations
+ * recorded before it. An operation is retried until it is delivered or rejected by Zebrunner, even while the circuit
+ * breaker is open, and the operations left unsent are sent when the agent is started in the same workspace next time.
+ * <p>Only the operations which do not return anything to the caller are recorded. The rest of the operations,
+ * as well as uploads of artifact streams, are sent right away by the delegate client.
+ */
+@Slf4j
+final class SpoolingZebrunnerApiClient implements ZebrunnerApiClient {
+
+    private static final int MAX_JOURNAL_SLOTS = 16;
+    private static final int MAX_REPLAY_BACKOFF_EXPONENT = 5;
+    private static final long MAX_REPLAY_BACKOFF_MILLIS = 30_000;
+    private static final long DRAIN_TIMEOUT_SECONDS = 60;
+
+    private static ZebrunnerApiClient INSTANCE;
+
+    private final UnirestZebrunnerApiClient delegate;
+    private final WriteAheadJournal journal;
+    private final ObjectMapperImpl objectMapper = ObjectMapperImpl.getInstance();
+    private final ExecutorService[] lanes;
+    // bounds number of the operations taken from the journal, but not sent yet
+    private final Semaphore replayPermits;
+    private final int maxReplayPermits;
+
+    private SpoolingZebrunnerApiClient(UnirestZebrunnerApiClient delegate, WriteAheadJournal journal) {
+        this.delegate = delegate;
+        this.journal = journal;
+        this.lanes = new ExecutorService[Math.max(1, ConfigurationHolder.getServerMaxConnectionsPerRoute())];
+        for (int i = 0; i < lanes.length; i++) {
+            String threadName = "zebrunner-spool-replayer-" + (i + 1);
+            lanes[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        this.maxReplayPermits = lanes.length * 2;
+        this.replayPermits = new Semaphore(maxReplayPermits);
+
+        Thread dispatcher = new Thread(this::replay, "zebrunner-spool-dispatcher");
+        // the journal is drained on test run finish, operations left unsent are replayed on the next start
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    static synchronized ZebrunnerApiClient getInstance() {
+        if (INSTANCE == null) {
+            UnirestZebrunnerApiClient delegate = UnirestZebrunnerApiClient.getInstance();
+            WriteAheadJournal journal = openJournal();
+            INSTANCE = journal != null
+                    ? new SpoolingZebrunnerApiClient(delegate, journal)
+                    : delegate;
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Opens journal in the first slot of the spool directory which is not used by another process,
+     * so parallel JVMs started in the same workspace do not share a journal.
+     *
+     * @return opened journal or null if no journal can be opened
+     */
+    private static WriteAheadJournal openJournal() {
+        Path spoolDirectory = Paths.get(ConfigurationHolder.getClientSpoolDirectory());
+        int segmentSize = ConfigurationHolder.getClientSpoolSegmentSize();
+        for (int slot = 0; slot < MAX_JOURNAL_SLOTS; slot++) {
+            try {
+                return WriteAheadJournal.open(spoolDirectory.resolve("slot-" + slot), segmentSize);
+            } catch (IOException e) {
+                log.debug("Could not open reporting spool in slot {}: {}", slot, e.getMessage());
+            }
+        }
+        log.warn("Could not open reporting spool in {}. Operations will be sent without spooling.", spoolDirectory);
+        return null;
+    }
+
+    private void record(SpooledOperation operation) {
+        this.record(operation, null);
+    }
+
+    /**
+     * Records the operation as an entry consisting of length of the operation json, the json itself
+     * and the optional binary attachment.
+     */
+    private void record(SpooledOperation operation, byte[] attachment) {
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        objectMapper.writeValue(operation, json);
+
+        int attachmentSize = attachment != null ? attachment.length : 0;
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(Integer.BYTES + json.size() + attachmentSize);
+        try (DataOutputStream output = new DataOutputStream(payload)) {
+            output.writeInt(json.size());
+            json.writeTo(output);
+            if (attachment != null) {
+                output.write(attachment);
+            }
+        } catch (IOException e) {
+            // never happens since the data is written to memory
+            throw new UncheckedIOException(e);
+        }
+        journal.append(payload.toByteArray());
+    }
+
+    private void replay() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WriteAheadJournal.Entry entry = journal.next(1, TimeUnit.SECONDS);
+                if (entry != null) {
+                    this.dispatch(entry);
+                }
+            }
+        } catch (InterruptedException e) {
+            // the taken operations are not acknowledged, so they are replayed on the next start
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void dispatch(WriteAheadJournal.Entry entry) throws InterruptedException {
+        SpooledOperation operation;
+        byte[] attachment;
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(entry.getPayload()))) {
+            byte[] json = new byte[input.readInt()];
+            input.readFully(json);
+            operation = objectMapper.readValue(new ByteArrayInputStream(json), SpooledOperation.class);
+            attachment = new byte[entry.getPayload().length - Integer.BYTES - json.length];
+            input.readFully(attachment);
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not read spooled reporting operation. The operation is dropped.", e);
+            journal.acknowledge(entry);
+            return;
+        }
+
+        if (operation.getType() == Type.REGISTER_TEST_RUN_FINISH) {
+            // the finish of the test run is sent once all the operations recorded before it are sent
+            replayPermits.acquire(maxReplayPermits);
+            try {
+                this.replay(entry, operation, attachment);
+            } finally {
+                replayPermits.release(maxReplayPermits);
+            }
+        } else {
+            replayPermits.acquire();
+            lanes[Math.floorMod(getLaneKey(entry, operation), lanes.length)].execute(() -> {
+                try {
+                    this.replay(entry, operation, attachment);
+                } finally {
+                    replayPermits.release();
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns key of the lane sending the operation, so operations concerning the same test or session are sent
+     * one after another in the order they were recorded.
+     */
+    private static int getLaneKey(WriteAheadJournal.Entry entry, SpooledOperation operation) {
+        switch (operation.getType()) {
+            case REGISTER_TEST_FINISH:
+                return Objects.hashCode(operation.getTest().getId());
+            case REVERT_TEST_REGISTRATION:
+            case UPSERT_TEST_CASE_RESULTS:
+            case UPLOAD_SCREENSHOT:
+            case ATTACH_ARTIFACT_REFERENCE_TO_TEST:
+            case ATTACH_LABELS_TO_TEST:
+                return Objects.hashCode(operation.getTestId());
+            case UPDATE_SESSION:
+                return Objects.hashCode(operation.getTestSession().getId());
+            case SEND_LOGS:
+                // batches of logs do not depend on each other, so they are spread over all the lanes
+                return entry.hashCode();
+            default:
+                return Objects.hashCode(operation.getTestRunId());
+        }
+    }
+
+    private void replay(WriteAheadJournal.Entry entry, SpooledOperation operation, byte[] attachment) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                delegate.deliver(() -> this.send(operation, attachment));
+                break;
+            } catch (RejectedOperationException e) {
+                log.error("Spooled reporting operation {} was rejected by Zebrunner. The operation is dropped.", operation.getType(), e);
+                break;
+            } catch (RuntimeException e) {
+                long backoffMillis = Math.min(MAX_REPLAY_BACKOFF_MILLIS, 1000L << Math.min(attempt, MAX_REPLAY_BACKOFF_EXPONENT));
+                log.debug("Could not send spooled reporting operation {}. Retrying in {} ms: {}", operation.getType(), backoffMillis, e.getMessage());
+                try {
+                    TimeUnit.MILLISECONDS.sleep(backoffMillis);
+                } catch (InterruptedException interruptedException) {
+                    // the operation is not acknowledged, so it is replayed on the next start
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        journal.acknowledge(entry);
+    }
+
+    private void send(SpooledOperation operation, byte[] attachment) {
+        switch (operation.getType()) {
+            case PATCH_TEST_RUN_BUILD:
+                delegate.patchTestRunBuild(operation.getTestRunId(), operation.getTestRunBuild());
+                break;
+            case SET_TEST_RUN_PLATFORM:
+                delegate.setTestRunPlatform(operation.getTestRunId(), operation.getPlatformName(), operation.getPlatformVersion());
+                break;
+            case REGISTER_TEST_RUN_FINISH:
+                delegate.registerTestRunFinish(operation.getTestRun());
+                break;
+            case REVERT_TEST_REGISTRATION:
+                delegate.revertTestRegistration(operation.getTestRunId(), operation.getTestId());
+                break;
+            case REGISTER_TEST_FINISH:
+                delegate.registerTestFinish(operation.getTestRunId(), operation.getTest());
+                break;
+            case SEND_LOGS:
+                delegate.sendLogs(operation.getLogs(), operation.getTestRunId());
+                break;
+            case UPSERT_TEST_CASE_RESULTS:
+                delegate.upsertTestCaseResults(operation.getTestRunId(), operation.getTestId(), operation.getTestCaseResults());
+                break;
+            case UPLOAD_SCREENSHOT:
+                delegate.uploadScreenshot(attachment, operation.getTestRunId(), operation.getTestId(), operation.getCapturedAt());
+                break;
+            case ATTACH_ARTIFACT_REFERENCE_TO_TEST_RUN:
+                delegate.attachArtifactReferenceToTestRun(operation.getTestRunId(), operation.getArtifactReference());
+                break;
+            case ATTACH_ARTIFACT_REFERENCE_TO_TEST:
+                delegate.attachArtifactReferenceToTest(operation.getTestRunId(), operation.getTestId(), operation.getArtifactReference());
+                break;
+            case ATTACH_LABELS_TO_TEST_RUN:
+                delegate.attachLabelsToTestRun(operation.getTestRunId(), operation.getLabels());
+                break;
+            case ATTACH_LABELS_TO_TEST:
+                delegate.attachLabelsToTest(operation.getTestRunId(), operation.getTestId(), operation.getLabels());
+                break;
+            case UPDATE_SESSION:
+                delegate.updateSession(operation.getTestRunId(), operation.getTestSession());
+                break;
+            default:
+                log.warn("Unknown spooled reporting operation {}.", operation.getType());
+        }
+    }
+
+    @Override
+    public TestRunDTO registerTestRunStart(TestRunDTO testRun) {
+        return delegate.registerTestRunStart(testRun);
+    }
+
+    @Override
+    public void patchTestRunBuild(Long testRunId, String build) {
+        this.record(SpooledOperation.builder()
+                                    .type(Type.PATCH_TEST_RUN_BUILD)
+                                    .testRunId(testRunId)
+                                    .testRunBuild(build)
+                                    .build());
+    }
+
+    @Override
+    public void setTestRunPlatform(Long testRunId, String platformName, String platformVersion) {
+        this.record(SpooledOperation.builder()
+                                    .type(Type.SET_TEST_RUN_PLATFORM)
+                                    .testRunId(testRunId)
+                                    .platformName(platformName)
+                                    .platformVersion(platformVersion)
+                                    .build());
+    }
+
+    /**
+     * Records finish of the test run and waits until all the recorded operations are sent.
+     */
+    @Override
+    public void registerTestRunFinish(TestRunDTO testRun) {
+        this.record(SpooledOperation.builder()
+                                    .type(Type.REGISTER_TEST_RUN_FINISH)
+                                    .testRun(testRun)
+                                    .build());
+        try {
+            if (!journal.awaitDrained(DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Not all the reporting operations were sent within {} seconds. "
+                         + "They will be sent on the next start of the agent in the current workspace.", DRAIN_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public TestDTO registerTestStart(Long testRunId, TestDTO test, boolean headless) {
+        return delegate.registerTestStart(testRunId, test, headless);
+    }
+
+    /**
+     * Sends start of the test rerun once the recorded operations are sent, so a recorded finish of the previous
+     * attempt of the test cannot override the rerun.
+     */
+    @Override
+    public TestDTO registerTestRerunStart(Long testRunId, Long testId, TestDTO test, boolean headless) {
+        try {
+            journal.awaitDrained(ConfigurationHolder.getServerRequestDeadlineMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return delegate.registerTestRerunStart(testRunId, testId, test, headless);
+    }
+
+    @Override
+    public TestDTO registerHeadlessTestUpdate(Long testRunId, TestDTO test) {
+        return delegate.registerHeadlessTestUpdate(testRunId, test);
+    }
+
+    @Override
+    public void revertTestRegistration(Long testRunId, Long testId) {
+        this.record(SpooledOperation.builder()
+                                    .type(Type.REVERT_TEST_REGISTRATION)
+                                    .testRunId(testRunId)
+                                    .testId(testId)
+                                    .build());
+    }
+
+    @Override
+    public void registerTestFinish(Long testRunId, TestDTO test) {
+        this.record(SpooledOperation.builder()
+                                    .type(Type.REGISTER_TEST_FINISH)
+                                    .testRunId(testRunId)
+                                    .test(test)
+                                    .build());
+    }
+
+    @Override
+    public void sendLogs(Collection<Log> logs, Long testRunId) {
+        this.record(SpooledOperation.builder()
+                                    .type(Type.SEND_LOGS)
+                                    .testRunId(testRunId)
+                                    .logs(new ArrayList<>(logs))
+                                    .build());
+    }
+
+    @Override
+    public void upsertTestCaseResults(Long testRunId, Long testId, Collection<TestCaseResult> testCaseResults) {
+        this.record(SpooledOperation.builder()
+                                    .type(Type.UPSERT_TEST_CASE_RESULTS)
+                                    .testRunId(testRunId)
+                                    .testId(testId)
+                                    .testCaseResults(new ArrayList<>(testCaseResults))
+                                    .build());
+    }
+
+    @Override
+    public void uploadScreenshot(byte[] screenshot, Long testRunId, Long testId, Long capturedAt) {
+        this.record(
+                SpooledOperation.builder()
+                                .type(Type.UPLOAD_SCREENSHOT)
+                                .testRunId(testRunId)
+                                .testId(testId)
+                                .capturedAt(capturedAt)
+                                .build(),
+                screenshot
+        );
+    }
+
+    @Override
+    public void uploadTestRunArtifact(InputStream artifact, String name, Long testRunId) {
+        delegate.uploadTestRunArtifact(artifact, name, testRunId);
+    }
+
+    @Override
+    public void uploadTestArtifact(InputStream artifact, String name, Long testRunId, Long testId) {
+        delegate.uploadTestArtifact(artifact, name, testRunId, testId);
+    }
+
+    @Override
+    public void attachArtifactReferenceToTestRun(Long testRunId, ArtifactReferenceDTO artifactReference) {
+        this.record(SpooledOperation.builder()
+                                    .type(Type.ATTACH_ARTIFACT_REFERENCE_TO_TEST_RUN)
+                                    .testRunId(testRunId)
+                                    .artifactReference(artifactReference)
+                                    .build());
+    }
+
+    @Override
+    public void attachArtifactReferenceToTest(Long testRunId, Long testId, ArtifactReferenceDTO artifactReference) {
+        this.record(SpooledOperation.builder()
+                                    .type(Type.ATTACH_ARTIFACT_REFERENCE_TO_TEST)
+                                    .testRunId(testRunId)
+                                    .testId(testId)
+                                    .artifactReference(artifactReference)
+                                    .build());
+    }
+
+    @Override
+    public void attachLabelsToTestRun(Long testRunId, Collection<LabelDTO> labels) {
+        this.record(SpooledOperation.builder()
+                                    .type(Type.ATTACH_LABELS_TO_TEST_RUN)
+                                    .testRunId(testRunId)
+                                    .labels(new ArrayList<>(labels))
+                                    .build());
+    }
+
+    @Override
+    public void attachLabelsToTest(Long testRunId, Long testId, Collection<LabelDTO> labels) {
+        this.record(SpooledOperation.builder()
+                                    .type(Type.ATTACH_LABELS_TO_TEST)
+                                    .testRunId(testRunId)
+                                    .testId(testId)
+                                    .labels(new ArrayList<>(labels))
+                                    .build());
+    }
+
+    @Override
+    public ExchangeRunContextResponse exchangeRerunCondition(String rerunCondition) {
+        return delegate.exchangeRerunCondition(rerunCondition);
+    }
+
+    @Override
+    public TestSessionDTO startSession(Long testRunId, TestSessionDTO testSession) {
+        return delegate.startSession(testRunId, testSession);
+    }
+
+    @Override
+    public void updateSession(Long testRunId, TestSessionDTO testSession) {
+        this.record(SpooledOperation.builder()
+                                    .type(Type.UPDATE_SESSION)
+                                    .testRunId(testRunId)
+                                    .testSession(testSession)
+                                    .build());
+    }
+
+    @Override
+    public boolean isKnownIssueAttachedToTest(Long testRunId, Long testId, String failureStacktrace) {
+        return delegate.isKnownIssueAttachedToTest(testRunId, testId, failureStacktrace);
+    }
+
+}
@@ -0,0 +1,356 @@
+package com.zebrunner.agent.core.registrar;
+
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bounded buffer which is split into a number of lock-free ring buffers (stripes). Producer threads are spread across
+ * the stripes by thread id, so threads rarely compete for the same stripe, while the consumer drains all the stripes.
+ * <p>The buffer is bounded both by number of elements and by their total estimated size in bytes. The bounds are
+ * split evenly between the stripes. When a stripe is full, the configured {@link OverflowPolicy} is applied
+ * and all the dropped elements are counted.
+ * <p>The buffer notifies its drain listener when it overflows or when the number or the size of buffered elements
+ * reaches the configured drain threshold, so the consumer does not have to poll the buffer. The thresholds apply
+ * to the buffer as a whole. To keep producers from summing up all the stripes on every insert, a stripe checks them
+ * on every {@value #DRAIN_CHECK_INTERVAL}-th element only, so the buffer may exceed a threshold by a few elements
+ * per stripe before asking to be drained.
+ *
+ * @param <E> the type of elements held in the buffer
+ */
+@Slf4j
+final class StripedRingBuffer<E> {
+
+    private static final int MAX_STRIPES = 64;
+    private static final int MIN_STRIPE_CAPACITY = 16;
+    // must be a power of two
+    private static final int DRAIN_CHECK_INTERVAL = 8;
+    private static final long MIN_BLOCK_PARK_NANOS = 10_000;
+    private static final long MAX_BLOCK_PARK_NANOS = 10_000_000;
+
+    enum OverflowPolicy {
+
+        /**
+         * Producer waits until there is enough space in the buffer.
+         */
+        BLOCK,
+        /**
+         * The oldest elements are evicted from the buffer to make space for the new one.
+         */
+        DROP_OLDEST,
+        /**
+         * The new element is dropped.
+         */
+        DROP_NEWEST,
+        /**
+         * Only every n-th overflowing element is accepted by evicting the oldest elements, the rest are dropped.
+         */
+        SAMPLE;
+
+        static OverflowPolicy parse(String value, OverflowPolicy defaultPolicy) {
+            if (value == null || value.trim().isEmpty()) {
+                return defaultPolicy;
+            }
+            try {
+                return OverflowPolicy.valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                log.warn("Unknown buffer overflow policy '{}'. Falling back to {}.", value, defaultPolicy);
+                return defaultPolicy;
+            }
+        }
+
+    }
+
+    private final Stripe<E>[] stripes;
+    private final int stripeMask;
+    private final long drainThreshold;
+    private final long drainThresholdBytes;
+    private final OverflowPolicy overflowPolicy;
+    private final int sampleRate;
+    private final ToIntFunction<E> sizeEstimator;
+    private final Runnable drainListener;
+
+    private final AtomicLong overflowCounter = new AtomicLong();
+    private final LongAdder droppedOldest = new LongAdder();
+    private final LongAdder droppedNewest = new LongAdder();
+
+    /**
+     * @param capacity             maximum number of elements held in the buffer
+     * @param capacityBytes        maximum total estimated size of elements held in the buffer
+     * @param drainThreshold       number of buffered elements at which the buffer asks to be drained
+     * @param drainThresholdBytes  total estimated size of buffered elements at which the buffer asks to be drained
+     * @param overflowPolicy       policy applied when there is no space for a new element
+     * @param sampleRate           rate of accepted elements for {@link OverflowPolicy#SAMPLE} policy
+     * @param sizeEstimator        function estimating size of an element in bytes
+     * @param drainListener        action invoked when the buffer overflows or reaches a drain threshold
+     */
+    @Builder
+    @SuppressWarnings("unchecked")
+    private StripedRingBuffer(int capacity,
+                              long capacityBytes,
+                              int drainThreshold,
+                              long drainThresholdBytes,
+                              OverflowPolicy overflowPolicy,
+                              int sampleRate,
+                              ToIntFunction<E> sizeEstimator,
+                              Runnable drainListener) {
+        int stripesCount = ceilingPowerOfTwo(Math.min(Runtime.getRuntime().availableProcessors(), MAX_STRIPES));
+        int stripeCapacity = ceilingPowerOfTwo(Math.max(MIN_STRIPE_CAPACITY, capacity / stripesCount));
+        long stripeCapacityBytes = Math.max(1, capacityBytes / stripesCount);
+
+        this.stripes = (Stripe<E>[]) new Stripe<?>[stripesCount];
+        for (int i = 0; i < stripesCount; i++) {
+            this.stripes[i] = new Stripe<>(stripeCapacity, stripeCapacityBytes);
+        }
+        this.stripeMask = stripesCount - 1;
+        this.drainThreshold = drainThreshold > 0 ? drainThreshold : Long.MAX_VALUE;
+        this.drainThresholdBytes = drainThresholdBytes > 0 ? drainThresholdBytes : Long.MAX_VALUE;
+        this.overflowPolicy = overflowPolicy != null ? overflowPolicy : OverflowPolicy.DROP_OLDEST;
+        this.sampleRate = Math.max(1, sampleRate);
+        this.sizeEstimator = sizeEstimator;
+        this.drainListener = drainListener != null ? drainListener : () -> {
+        };
+    }
+
+    private static int ceilingPowerOfTwo(int value) {
+        int result = 1;
+        while (result < value) {
+            result <<= 1;
+        }
+        return result;
+    }
+
+    /**
+     * Inserts the element into the buffer applying the overflow policy if there is no space for the element.
+     *
+     * @param element element to be inserted
+     * @return true if the element has been inserted, false if it has been dropped
+     */
+    boolean offer(E element) {
+        int size = sizeEstimator.applyAsInt(element);
+        Stripe<E> stripe = this.currentThreadStripe();
+        long position = stripe.offer(element, size);
+        if (position >= 0) {
+            if ((position & (DRAIN_CHECK_INTERVAL - 1)) == 0 && this.isDrainThresholdReached()) {
+                drainListener.run();
+            }
+            return true;
+        }
+
+        drainListener.run();
+        switch (overflowPolicy) {
+            case BLOCK:
+                return this.offerBlocking(stripe, element, size);
+            case DROP_OLDEST:
+                return this.offerEvictingOldest(stripe, element, size);
+            case SAMPLE:
+                if (overflowCounter.incrementAndGet() % sampleRate == 0) {
+                    return this.offerEvictingOldest(stripe, element, size);
+                }
+                droppedNewest.increment();
+                return false;
+            case DROP_NEWEST:
+            default:
+                droppedNewest.increment();
+                return false;
+        }
+    }
+
+    private boolean isDrainThresholdReached() {
+        long size = 0;
+        long bytes = 0;
+        for (Stripe<E> stripe : stripes) {
+            size += stripe.size();
+            bytes += stripe.bufferedBytes.get();
+        }
+        return size >= drainThreshold || bytes >= drainThresholdBytes;
+    }
+
+    private Stripe<E> currentThreadStripe() {
+        return stripes[Long.hashCode(Thread.currentThread().getId()) & stripeMask];
+    }
+
+    private boolean offerBlocking(Stripe<E> stripe, E element, int size) {
+        long parkNanos = MIN_BLOCK_PARK_NANOS;
+        while (stripe.offer(element, size) < 0) {
+            if (Thread.currentThread().isInterrupted()) {
+                droppedNewest.increment();
+                return false;
+            }
+            LockSupport.parkNanos(this, parkNanos);
+            parkNanos = Math.min(parkNanos * 2, MAX_BLOCK_PARK_NANOS);
+        }
+        return true;
+    }
+
+    private boolean offerEvictingOldest(Stripe<E> stripe, E element, int size) {
+        E evicted;
+        do {
+            evicted = stripe.poll();
+            if (evicted != null) {
+                stripe.release(sizeEstimator.applyAsInt(evicted));
+                droppedOldest.increment();
+            }
+            if (stripe.offer(element, size) >= 0) {
+                return true;
+            }
+        } while (evicted != null);
+
+        droppedNewest.increment();
+        return false;
+    }
+
+    /**
+     * Removes all the elements available in the buffer and passes them to the given consumer.
+     *
+     * @param consumer consumer of drained elements
+     * @return number of drained elements
+     */
+    int drain(Consumer<E> consumer) {
+        int drained = 0;
+        for (Stripe<E> stripe : stripes) {
+            E element;
+            while ((element = stripe.poll()) != null) {
+                stripe.release(sizeEstimator.applyAsInt(element));
+                consumer.accept(element);
+                drained++;
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Returns total number of elements dropped due to buffer overflow.
+     *
+     * @return number of dropped elements
+     */
+    long getDroppedCount() {
+        return droppedOldest.sum() + droppedNewest.sum();
+    }
+
+    /**
+     * Returns approximate number of buffered elements, since the stripes may be updated while being counted.
+     *
+     * @return number of buffered elements
+     */
+    long size() {
+        long size = 0;
+        for (Stripe<E> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * Bounded multi-producer multi-consumer ring buffer based on the algorithm by Dmitry Vyukov. Each slot has
+     * a sequence number telling producers and consumers whether the slot is ready to be written or read,
+     * so the only contended operations are CASes of the enqueue and dequeue positions.
+     */
+    private static final class Stripe<E> {
+
+        private final int mask;
+        private final long capacityBytes;
+        private final AtomicReferenceArray<E> elements;
+        private final AtomicLongArray sequences;
+        private final AtomicLong enqueuePosition = new AtomicLong();
+        private final AtomicLong dequeuePosition = new AtomicLong();
+        private final AtomicLong bufferedBytes = new AtomicLong();
+
+        private Stripe(int capacity, long capacityBytes) {
+            this.mask = capacity - 1;
+            this.capacityBytes = capacityBytes;
+            this.elements = new AtomicReferenceArray<>(capacity);
+            this.sequences = new AtomicLongArray(capacity);
+            for (int i = 0; i < capacity; i++) {
+                sequences.set(i, i);
+            }
+        }
+
+        /**
+         * @return position the element has been enqueued at or -1 if there is no space for the element
+         */
+        private long offer(E element, int size) {
+            if (!this.reserve(size)) {
+                return -1;
+            }
+
+            long position = enqueuePosition.get();
+            int index;
+            while (true) {
+                index = (int) position & mask;
+                long difference = sequences.get(index) - position;
+                if (difference == 0) {
+                    if (enqueuePosition.compareAndSet(position, position + 1)) {
+                        break;
+                    }
+                    position = enqueuePosition.get();
+                } else if (difference < 0) {
+                    // the slot has not been consumed yet, so the ring is full
+                    this.release(size);
+                    return -1;
+                } else {
+                    position = enqueuePosition.get();
+                }
+            }
+
+            elements.lazySet(index, element);
+            sequences.set(index, position + 1);
+            return position;
+        }
+
+        private E poll() {
+            long position = dequeuePosition.get();
+            int index;
+            while (true) {
+                index = (int) position & mask;
+                long difference = sequences.get(index) - (position + 1);
+                if (difference == 0) {
+                    if (dequeuePosition.compareAndSet(position, position + 1)) {
+                        break;
+                    }
+                    position = dequeuePosition.get();
+                } else if (difference < 0) {
+                    return null;
+                } else {
+                    position = dequeuePosition.get();
+                }
+            }
+
+            E element = elements.get(index);
+            elements.lazySet(index, null);
+            sequences.set(index, position + mask + 1);
+            return element;
+        }
+
+        private long size() {
+            // the dequeue position is read last, so it may have moved past the enqueue position read before
+            return Math.max(0, enqueuePosition.get() - dequeuePosition.get());
+        }
+
+        private boolean reserve(int size) {
+            long current;
+            do {
+                current = bufferedBytes.get();
+                // a single element exceeding the limit is still accepted by an empty stripe
+                if (current > 0 && current + size > capacityBytes) {
+                    return false;
+                }
+            } while (!bufferedBytes.compareAndSet(current, current + size));
+            return true;
+        }
+
+        private void release(int size) {
+            bufferedBytes.addAndGet(-size);
+        }
+
+    }
+
+}
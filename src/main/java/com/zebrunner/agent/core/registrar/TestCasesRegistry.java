@@ -45,14 +45,14 @@ class TestCasesRegistry {
         TCM_TYPE_TO_LABEL_KEY.put(TcmType.ZEBRUNNER, "com.zebrunner.app/tcm.zebrunner.test-case-key");
     }
 
-    private final ZebrunnerApiClient zebrunnerApiClient = ClientRegistrar.getClient();
-    private final Map<Long, Map<TcmType, Map<String, String>>> testIdToTcmTypeToTestCaseIdToStatus = new ConcurrentHashMap<>();
+    private final AsyncZebrunnerApiClient zebrunnerApiClient = ClientRegistrar.getAsyncClient();
+    private final RequestSequencer requestSequencer = RequestSequencer.getInstance();
+    private final Map<TestDescriptor, Map<TcmType, Map<String, String>>> testToTcmTypeToTestCaseIdToStatus = new ConcurrentHashMap<>();
 
     void addTestCasesToCurrentTest(TcmType tcmType, Collection<String> testCaseIds) {
         RunContext.getCurrentTest()
-                  .map(TestDescriptor::getZebrunnerId)
-                  .ifPresent(testId -> {
-                      Map<String, String> testCaseIdToStatus = this.getTestCaseIdToStatus(testId, tcmType);
+                  .ifPresent(test -> {
+                      Map<String, String> testCaseIdToStatus = this.getTestCaseIdToStatus(test, tcmType);
                       testCaseIds.stream()
                                  .filter(testCaseId -> !testCaseIdToStatus.containsKey(testCaseId))
                                  .forEach(testCaseId -> {
@@ -64,73 +64,74 @@ class TestCasesRegistry {
 
     void setCurrentTestTestCaseStatus(TcmType tcmType, String testCaseId, String status) {
         RunContext.getCurrentTest()
-                  .map(TestDescriptor::getZebrunnerId)
-                  .ifPresent(testId -> {
-                      this.getTestCaseIdToStatus(testId, tcmType)
+                  .ifPresent(test -> {
+                      this.getTestCaseIdToStatus(test, tcmType)
                           .put(testCaseId, status);
 
                       Set<TestCaseResult> results = Collections.singleton(new TestCaseResult(tcmType, testCaseId, status));
-                      zebrunnerApiClient.upsertTestCaseResults(RunContext.getZebrunnerRunId(), testId, results);
+                      this.upsertTestCaseResults(test, results);
                   });
     }
 
-    private Map<String, String> getTestCaseIdToStatus(Long testId, TcmType tcmType) {
-        return testIdToTcmTypeToTestCaseIdToStatus.computeIfAbsent(testId, $ -> new ConcurrentHashMap<>())
-                                                  .computeIfAbsent(tcmType, $ -> new ConcurrentHashMap<>());
+    private Map<String, String> getTestCaseIdToStatus(TestDescriptor test, TcmType tcmType) {
+        return testToTcmTypeToTestCaseIdToStatus.computeIfAbsent(test, $ -> new ConcurrentHashMap<>())
+                                                .computeIfAbsent(tcmType, $ -> new ConcurrentHashMap<>());
     }
 
     void setExplicitStatusesOnCurrentTestPass() {
         RunContext.getCurrentTest()
                   .ifPresent(test -> {
-                      Long testId = test.getZebrunnerId();
                       String passStatus = this.getOnPassStatus(test);
                       if (passStatus != null && !passStatus.isEmpty()) {
-                          this.setCaseStatusesIfThereIsNoExplicit(testId, passStatus);
+                          this.setCaseStatusesIfThereIsNoExplicit(test, passStatus);
                       }
-                      testIdToTcmTypeToTestCaseIdToStatus.remove(testId);
+                      testToTcmTypeToTestCaseIdToStatus.remove(test);
                   });
     }
 
     void setExplicitStatusesOnCurrentTestFail() {
         RunContext.getCurrentTest()
                   .ifPresent(test -> {
-                      Long testId = test.getZebrunnerId();
                       String failStatus = this.getOnFailStatus(test);
                       if (failStatus != null && !failStatus.isEmpty()) {
-                          this.setCaseStatusesIfThereIsNoExplicit(testId, failStatus);
+                          this.setCaseStatusesIfThereIsNoExplicit(test, failStatus);
                       }
-                      testIdToTcmTypeToTestCaseIdToStatus.remove(testId);
+                      testToTcmTypeToTestCaseIdToStatus.remove(test);
                   });
     }
 
     void setExplicitStatusesOnCurrentTestSkip() {
         RunContext.getCurrentTest()
                   .ifPresent(test -> {
-                      Long testId = test.getZebrunnerId();
                       String skipStatus = this.getOnSkipStatus(test);
                       if (skipStatus != null && !skipStatus.isEmpty()) {
-                          this.setCaseStatusesIfThereIsNoExplicit(testId, skipStatus);
+                          this.setCaseStatusesIfThereIsNoExplicit(test, skipStatus);
                       }
-                      testIdToTcmTypeToTestCaseIdToStatus.remove(testId);
+                      testToTcmTypeToTestCaseIdToStatus.remove(test);
                   });
     }
 
-    private void setCaseStatusesIfThereIsNoExplicit(Long testId, String status) {
+    private void setCaseStatusesIfThereIsNoExplicit(TestDescriptor test, String status) {
         List<TestCaseResult> results = new ArrayList<>();
-        testIdToTcmTypeToTestCaseIdToStatus.computeIfAbsent(testId, $ -> new ConcurrentHashMap<>())
-                                           .forEach((tcmType, testCaseIdToStatus) ->
-                                                   testCaseIdToStatus.forEach((testCaseId, explicitStatus) -> {
-                                                       if (explicitStatus.isEmpty()) {
-                                                           results.add(new TestCaseResult(tcmType, testCaseId, status));
-                                                       }
-                                                   })
-                                           );
+        testToTcmTypeToTestCaseIdToStatus.computeIfAbsent(test, $ -> new ConcurrentHashMap<>())
+                                         .forEach((tcmType, testCaseIdToStatus) ->
+                                                 testCaseIdToStatus.forEach((testCaseId, explicitStatus) -> {
+                                                     if (explicitStatus.isEmpty()) {
+                                                         results.add(new TestCaseResult(tcmType, testCaseId, status));
+                                                     }
+                                                 })
+                                         );
 
         if (!results.isEmpty()) {
-            zebrunnerApiClient.upsertTestCaseResults(RunContext.getZebrunnerRunId(), testId, results);
+            this.upsertTestCaseResults(test, results);
         }
     }
 
+    private void upsertTestCaseResults(TestDescriptor test, Collection<TestCaseResult> results) {
+        Long testRunId = RunContext.getZebrunnerRunId();
+        requestSequencer.submitForTest(test, testId -> zebrunnerApiClient.upsertTestCaseResults(testRunId, testId, results));
+    }
+
     private String getOnPassStatus(TestDescriptor testDescriptor) {
         return this.getStatus(testDescriptor, TestCaseStatusOnPass.class, TestCaseStatusOnPass::value, ConfigurationHolder::getTestCaseStatusOnPass);
     }
@@ -3,6 +3,7 @@ package com.zebrunner.agent.core.registrar;
 import com.zebrunner.agent.core.config.ConfigurationHolder;
 import com.zebrunner.agent.core.registrar.descriptor.SessionCloseDescriptor;
 import com.zebrunner.agent.core.registrar.descriptor.SessionStartDescriptor;
+import com.zebrunner.agent.core.registrar.descriptor.TestDescriptor;
 
 public interface TestSessionRegistrar {
 
@@ -18,6 +19,8 @@ public interface TestSessionRegistrar {
 
     void linkAllCurrentToTest(Long zebrunnerTestId);
 
+    void linkAllCurrentToTest(TestDescriptor test);
+
     void linkToCurrentTest(String sessionId);
 
 }
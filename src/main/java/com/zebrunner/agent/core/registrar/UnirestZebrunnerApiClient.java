@@ -3,6 +3,9 @@ package com.zebrunner.agent.core.registrar;
 import com.zebrunner.agent.core.config.ConfigurationHolder;
 import com.zebrunner.agent.core.exception.ServerException;
 import com.zebrunner.agent.core.logging.Log;
+import com.zebrunner.agent.core.metrics.AgentMetrics;
+import com.zebrunner.agent.core.metrics.MetricsRegistry;
+import com.zebrunner.agent.core.registrar.RequestScheduler.Priority;
 import com.zebrunner.agent.core.registrar.domain.ArtifactReferenceDTO;
 import com.zebrunner.agent.core.registrar.domain.AutenticationData;
 import com.zebrunner.agent.core.registrar.domain.ExchangeRunContextResponse;
@@ -17,38 +20,78 @@ import com.zebrunner.agent.core.registrar.domain.TestSessionDTO;
 import kong.unirest.Config;
 import kong.unirest.ContentType;
 import kong.unirest.HeaderNames;
+import kong.unirest.HttpRequest;
+import kong.unirest.HttpRequestSummary;
+import kong.unirest.HttpRequestWithBody;
 import kong.unirest.HttpResponse;
+import kong.unirest.Interceptor;
 import kong.unirest.MimeTypes;
-import kong.unirest.Unirest;
+import kong.unirest.RawResponse;
+import kong.unirest.RequestBodyEntity;
+import kong.unirest.UnirestException;
 import kong.unirest.UnirestInstance;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.regex.Pattern;
 
 @Slf4j
 class UnirestZebrunnerApiClient implements ZebrunnerApiClient {
 
+    private static final String CONTENT_ENCODING = "Content-Encoding";
+    private static final String GZIP = "gzip";
+
+    private static final Pattern NUMERIC_PATH_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+    private static final ThreadLocal<Long> REQUEST_START_NANOS = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> GUARANTEED_DELIVERY = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
     private static UnirestZebrunnerApiClient INSTANCE;
 
     private String apiHost;
     private String authToken;
     private volatile UnirestInstance client;
+    // multipart uploads cannot share the json default headers of the main client,
+    // otherwise the default content type overrides the multipart boundary
+    private UnirestInstance uploadClient;
+    private final ObjectMapperImpl objectMapper = ObjectMapperImpl.getInstance();
+    private final boolean gzipRequests = ConfigurationHolder.isServerGzipRequestsEnabled();
+    private final long gzipThresholdBytes = ConfigurationHolder.getServerGzipThresholdBytes();
+    private final long retryBackoffMillis = ConfigurationHolder.getServerRetryBackoffMillis();
+    private final long requestDeadlineMillis = ConfigurationHolder.getServerRequestDeadlineMillis();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(
+            "Zebrunner API",
+            ConfigurationHolder.getServerCircuitBreakerFailureThreshold(),
+            ConfigurationHolder.getServerCircuitBreakerOpenDurationMillis()
+    );
+    private final RequestScheduler requestScheduler = new RequestScheduler(
+            ConfigurationHolder.getServerMaxConnectionsPerRoute() / 4,
+            ConfigurationHolder.getServerMaxConnectionsPerRoute()
+    );
 
     private UnirestZebrunnerApiClient() {
         if (ConfigurationHolder.isReportingEnabled()) {
             this.apiHost = ConfigurationHolder.getHost();
+            this.registerMetrics();
             this.client = this.initClient();
+            this.uploadClient = new UnirestInstance(this.initPooledConfig());
 
             this.authToken = this.authenticateClient();
 
-            Config config = client.config();
-            config.addDefaultHeader(HeaderNames.AUTHORIZATION, authToken);
+            client.config().addDefaultHeader(HeaderNames.AUTHORIZATION, authToken);
+            uploadClient.config().addDefaultHeader(HeaderNames.AUTHORIZATION, authToken);
         }
     }
 
@@ -60,14 +103,128 @@ class UnirestZebrunnerApiClient implements ZebrunnerApiClient {
     }
 
     private UnirestInstance initClient() {
-        Config config = new Config();
-        config.addDefaultHeader(HeaderNames.CONNECTION, "close");
+        Config config = this.initPooledConfig();
         config.addDefaultHeader(HeaderNames.CONTENT_TYPE, MimeTypes.JSON);
         config.addDefaultHeader(HeaderNames.ACCEPT, MimeTypes.JSON);
-        config.setObjectMapper(new ObjectMapperImpl());
+        config.setObjectMapper(objectMapper);
         return new UnirestInstance(config);
     }
 
+    /**
+     * Creates configuration of a client backed by a keep-alive connection pool. Connections are reused across
+     * all reporting threads, expired and idle connections are evicted by the Unirest connection monitor
+     * and no connection outlives the configured time to live. Outcomes of all the requests are reported
+     * to the circuit breaker and to the agent metrics.
+     *
+     * @return pooled client configuration
+     */
+    private Config initPooledConfig() {
+        return new Config().concurrency(ConfigurationHolder.getServerMaxConnections(), ConfigurationHolder.getServerMaxConnectionsPerRoute())
+                           .connectTimeout(ConfigurationHolder.getServerConnectTimeoutMillis())
+                           .socketTimeout(ConfigurationHolder.getServerSocketTimeoutMillis())
+                           .connectionTTL(ConfigurationHolder.getServerConnectionTtlMillis(), TimeUnit.MILLISECONDS)
+                           .interceptor(this.monitoringInterceptor());
+    }
+
+    private Interceptor monitoringInterceptor() {
+        return new Interceptor() {
+
+            @Override
+            public void onRequest(HttpRequest<?> request, Config config) {
+                REQUEST_START_NANOS.set(System.nanoTime());
+            }
+
+            @Override
+            public void onResponse(HttpResponse<?> response, HttpRequestSummary request, Config config) {
+                if (response.getStatus() >= 500 || response.getStatus() == 429) {
+                    circuitBreaker.onFailure();
+                    requestScheduler.signalOverload();
+                } else {
+                    circuitBreaker.onSuccess();
+                }
+                recordRequest(request, (response.getStatus() / 100) + "xx");
+            }
+
+            @Override
+            public HttpResponse<?> onFail(Exception e, HttpRequestSummary request, Config config) {
+                circuitBreaker.onFailure();
+                if (isTimeout(e)) {
+                    requestScheduler.signalOverload();
+                }
+                recordRequest(request, "error");
+                return Interceptor.super.onFail(e, request, config);
+            }
+
+        };
+    }
+
+    private static boolean isTimeout(Throwable e) {
+        // both connect and socket timeouts are interrupted io exceptions
+        for (Throwable cause = e; cause != null; cause = cause.getCause() != cause ? cause.getCause() : null) {
+            if (cause instanceof InterruptedIOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void recordRequest(HttpRequestSummary request, String statusClass) {
+        Long startNanos = REQUEST_START_NANOS.get();
+        REQUEST_START_NANOS.remove();
+
+        String endpoint = normalizeEndpoint(request.getRawPath());
+        String method = request.getHttpMethod().name();
+        if (startNanos != null) {
+            AgentMetrics.apiRequestDuration(endpoint, method).recordSince(startNanos);
+        }
+        AgentMetrics.apiResponses(endpoint, method, statusClass).increment();
+    }
+
+    /**
+     * Turns url of a request into a low-cardinality metric label: the host and query are dropped
+     * and numeric path segments are replaced with {@code {id}}.
+     *
+     * @param url url or path of the request
+     * @return normalized endpoint path, e.g. {@code /v1/test-runs/{id}/tests}
+     */
+    private static String normalizeEndpoint(String url) {
+        String path = url;
+        int queryStart = path.indexOf('?');
+        if (queryStart >= 0) {
+            path = path.substring(0, queryStart);
+        }
+        int apiStart = path.indexOf("/api/");
+        if (apiStart >= 0) {
+            path = path.substring(apiStart + "/api".length());
+            if (path.startsWith("/reporting/")) {
+                path = path.substring("/reporting".length());
+            }
+        }
+        return NUMERIC_PATH_SEGMENT.matcher(path).replaceAll("/{id}");
+    }
+
+    private void registerMetrics() {
+        MetricsRegistry registry = AgentMetrics.getRegistry();
+        registry.gauge(
+                "zebrunner_agent_api_circuit_breaker_state", "State of the Zebrunner API circuit breaker: 0 - closed, 1 - half-open, 2 - open.",
+                () -> circuitBreaker.getState() == CircuitBreaker.State.CLOSED ? 0 : circuitBreaker.getState() == CircuitBreaker.State.HALF_OPEN ? 1 : 2
+        );
+        registry.counter(
+                "zebrunner_agent_api_circuit_breaker_rejected_total", "Calls rejected by the open Zebrunner API circuit breaker.",
+                circuitBreaker::getRejectedCallsCount
+        );
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            registry.counter(
+                    "zebrunner_agent_api_circuit_breaker_transitions_total", "Transitions of the Zebrunner API circuit breaker to a state.",
+                    () -> circuitBreaker.getTransitionsCount(state), "state", state.name().toLowerCase(Locale.ROOT)
+            );
+        }
+        registry.gauge(
+                "zebrunner_agent_api_concurrency_limit", "Current adaptive limit of concurrent calls to Zebrunner API.",
+                requestScheduler::getLimit
+        );
+    }
+
     private String authenticateClient() {
         String refreshToken = ConfigurationHolder.getToken();
         HttpResponse<String> response = client.post(apiHost + "/api/iam/v1/auth/refresh")
@@ -83,6 +240,49 @@ class UnirestZebrunnerApiClient implements ZebrunnerApiClient {
         return response.getBody();
     }
 
+    /**
+     * Sets json representation of the given object as the request body. The object is serialized straight to bytes
+     * without building an intermediate string. If compression of requests is enabled and the body is not smaller
+     * than the configured threshold, the body is compressed with gzip while being serialized.
+     *
+     * @param request request to set the body to
+     * @param body    object to be serialized to json
+     * @return request with the body
+     */
+    private RequestBodyEntity jsonBody(HttpRequestWithBody request, Object body) {
+        GzipThresholdOutputStream bodyStream = new GzipThresholdOutputStream(gzipRequests ? gzipThresholdBytes : -1);
+        try (GzipThresholdOutputStream outputStream = bodyStream) {
+            objectMapper.writeValue(body, outputStream);
+        } catch (IOException e) {
+            // never happens since the data is written to memory
+            throw new UncheckedIOException(e);
+        }
+
+        AgentMetrics.API_SENT_BYTES.add(bodyStream.getWrittenCount());
+        if (bodyStream.isCompressed()) {
+            request.header(CONTENT_ENCODING, GZIP);
+        }
+        return request.body(bodyStream.toByteArray());
+    }
+
+    /**
+     * Creates response mapper which parses json of successful responses straight from the response stream.
+     * Unsuccessful responses are left unread: the mapper fails on them, so Unirest keeps their raw body
+     * as the parsing error and the caller handles the failure via {@link HttpResponse#ifFailure(Consumer)}.
+     *
+     * @param valueType type of the response body
+     * @param <T>       type of the response body
+     * @return response mapper
+     */
+    private <T> Function<RawResponse, T> jsonResponse(Class<T> valueType) {
+        return rawResponse -> {
+            if (rawResponse.getStatus() < 200 || rawResponse.getStatus() >= 300) {
+                throw new UnirestException("Unsuccessful response is not parsed. Response status code: " + rawResponse.getStatus());
+            }
+            return objectMapper.readValue(rawResponse.getContent(), valueType);
+        };
+    }
+
     private String reportingAPI(String endpointPath) {
         return String.format("%s/api/reporting%s", apiHost, endpointPath);
     }
@@ -95,30 +295,93 @@ class UnirestZebrunnerApiClient implements ZebrunnerApiClient {
     }
 
     private void throwServerException(String message, HttpResponse<?> response) {
+        if (GUARANTEED_DELIVERY.get() && isRejection(response.getStatus())) {
+            throw new RejectedOperationException(this.formatError(message, response));
+        }
         throw new ServerException(this.formatError(message, response));
     }
 
-    private <T> T sendRequest(Function<UnirestInstance, HttpResponse<T>> requestExecutor) {
+    /**
+     * Handles unsuccessful response to a request whose loss does not break the reporting. Such failures are only
+     * logged, unless the request is sent with guaranteed delivery.
+     */
+    private void handleNonCriticalFailure(String message, HttpResponse<?> response) {
+        if (GUARANTEED_DELIVERY.get()) {
+            this.throwServerException(message, response);
+        }
+        log.error(this.formatError(message, response));
+    }
+
+    // client errors mean the request itself is wrong, so it is rejected on every retry. 408 and 429 are transient
+    private static boolean isRejection(int status) {
+        return status >= 400 && status < 500 && status != 408 && status != 429;
+    }
+
+    /**
+     * Performs the operation, which calls methods of this client on the current thread, with guaranteed delivery:
+     * requests are not dropped while the circuit breaker is open, and every unsuccessful response is thrown
+     * as an exception instead of being logged. So the caller, e.g. replayer of spooled operations, may retry
+     * the operation until it is actually delivered.
+     *
+     * @param operation operation calling methods of this client
+     * @throws RejectedOperationException if Zebrunner rejected the request, so retrying it is pointless
+     * @throws RuntimeException           if the request failed for any other reason and may be retried
+     */
+    void deliver(Runnable operation) {
+        GUARANTEED_DELIVERY.set(Boolean.TRUE);
+        try {
+            operation.run();
+        } finally {
+            GUARANTEED_DELIVERY.remove();
+        }
+    }
+
+    private <T> T sendRequest(Priority priority, Function<UnirestInstance, HttpResponse<T>> requestExecutor) {
         if (client != null) {
             return RetryUtils.tryInvoke(
-                    () -> requestExecutor.apply(client).getBody(),
+                    () -> requestScheduler.execute(priority, requestDeadlineMillis, () -> requestExecutor.apply(client).getBody()),
                     this::isVolatileRecoverableException,
-                    3
+                    3,
+                    retryBackoffMillis,
+                    requestDeadlineMillis
             );
         }
         return null;
     }
 
-    private void sendVoidRequest(Consumer<UnirestInstance> requestExecutor) {
+    private void sendVoidRequest(Priority priority, Consumer<UnirestInstance> requestExecutor) {
         if (client != null) {
             RetryUtils.tryInvoke(
-                    () -> requestExecutor.accept(client),
+                    () -> requestScheduler.execute(priority, requestDeadlineMillis, () -> {
+                        requestExecutor.accept(client);
+                        return null;
+                    }),
                     this::isVolatileRecoverableException,
-                    3
+                    3,
+                    retryBackoffMillis,
+                    requestDeadlineMillis
             );
         }
     }
 
+    /**
+     * Sends request whose loss does not break the reporting, such as logs, labels or screenshots. While Zebrunner API
+     * is unavailable, such requests are dropped right away instead of blocking the calling thread.
+     *
+     * @param priority        priority of the request
+     * @param description     description of the request to be logged if the request is dropped
+     * @param requestExecutor request to be sent
+     */
+    private void sendNonCriticalRequest(Priority priority, String description, Consumer<UnirestInstance> requestExecutor) {
+        if (client != null) {
+            if (!GUARANTEED_DELIVERY.get() && !circuitBreaker.tryAcquirePermission()) {
+                log.debug("Zebrunner API is unavailable. Dropping request: {}.", description);
+                return;
+            }
+            this.sendVoidRequest(priority, requestExecutor);
+        }
+    }
+
     private boolean isVolatileRecoverableException(Throwable e) {
         do {
             String message = e.getMessage();
@@ -136,22 +399,21 @@ class UnirestZebrunnerApiClient implements ZebrunnerApiClient {
 
     @Override
     public TestRunDTO registerTestRunStart(TestRunDTO testRun) {
-        return this.sendRequest(client ->
-                client.post(reportingAPI("/v1/test-runs"))
-                      .body(testRun)
-                      .queryString("projectKey", ConfigurationHolder.getProjectKey())
-                      .asObject(TestRunDTO.class)
-                      .ifFailure(response -> {
-                          // null out the api client since we cannot use it anymore
-                          this.client = null;
-                          this.throwServerException("Could not register start of the test run.", response);
-                      })
+        return this.sendRequest(Priority.LIFECYCLE, client ->
+                this.jsonBody(client.post(reportingAPI("/v1/test-runs")), testRun)
+                    .queryString("projectKey", ConfigurationHolder.getProjectKey())
+                    .asObject(TestRunDTO.class)
+                    .ifFailure(response -> {
+                        // null out the api client since we cannot use it anymore
+                        this.client = null;
+                        this.throwServerException("Could not register start of the test run.", response);
+                    })
         );
     }
 
     @Override
     public void patchTestRunBuild(Long testRunId, String build) {
-        this.sendVoidRequest(client ->
+        this.sendVoidRequest(Priority.LIFECYCLE, client ->
                 client.jsonPatch(reportingAPI("/v1/test-runs/{testRunId}"))
                       .routeParam("testRunId", testRunId.toString())
                       .replace("/config/build", build)
@@ -162,67 +424,62 @@ class UnirestZebrunnerApiClient implements ZebrunnerApiClient {
 
     @Override
     public void setTestRunPlatform(Long testRunId, String platformName, String platformVersion) {
-        this.sendVoidRequest(client ->
-                client.put(reportingAPI("/v1/test-runs/{testRunId}/platform"))
-                      .routeParam("testRunId", testRunId.toString())
-                      .body(new TestRunPlatform(platformName, platformVersion))
-                      .asString()
-                      .ifFailure(response -> this.throwServerException("Could not set platform of the test run.", response))
+        this.sendVoidRequest(Priority.LIFECYCLE, client ->
+                this.jsonBody(client.put(reportingAPI("/v1/test-runs/{testRunId}/platform")), new TestRunPlatform(platformName, platformVersion))
+                    .routeParam("testRunId", testRunId.toString())
+                    .asString()
+                    .ifFailure(response -> this.throwServerException("Could not set platform of the test run.", response))
         );
     }
 
     @Override
     public void registerTestRunFinish(TestRunDTO testRun) {
-        this.sendVoidRequest(client ->
-                client.put(reportingAPI("/v1/test-runs/{testRunId}"))
-                      .body(testRun)
-                      .routeParam("testRunId", testRun.getId().toString())
-                      .asString()
-                      .ifFailure(response -> this.throwServerException("Could not register finish of the test run.", response))
+        this.sendVoidRequest(Priority.LIFECYCLE, client ->
+                this.jsonBody(client.put(reportingAPI("/v1/test-runs/{testRunId}")), testRun)
+                    .routeParam("testRunId", testRun.getId().toString())
+                    .asString()
+                    .ifFailure(response -> this.throwServerException("Could not register finish of the test run.", response))
         );
     }
 
     @Override
     public TestDTO registerTestStart(Long testRunId, TestDTO test, boolean headless) {
-        return this.sendRequest(client ->
-                client.post(reportingAPI("/v1/test-runs/{testRunId}/tests"))
-                      .body(test)
-                      .routeParam("testRunId", testRunId.toString())
-                      .queryString("headless", headless)
-                      .asObject(TestDTO.class)
-                      .ifFailure(response -> this.throwServerException("Could not register start of the test.", response))
+        return this.sendRequest(Priority.LIFECYCLE, client ->
+                this.jsonBody(client.post(reportingAPI("/v1/test-runs/{testRunId}/tests")), test)
+                    .routeParam("testRunId", testRunId.toString())
+                    .queryString("headless", headless)
+                    .asObject(TestDTO.class)
+                    .ifFailure(response -> this.throwServerException("Could not register start of the test.", response))
         );
     }
 
     @Override
     public TestDTO registerTestRerunStart(Long testRunId, Long testId, TestDTO test, boolean headless) {
-        return this.sendRequest(client ->
-                client.post(reportingAPI("/v1/test-runs/{testRunId}/tests/{testId}"))
-                      .body(test)
-                      .routeParam("testRunId", testRunId.toString())
-                      .routeParam("testId", testId.toString())
-                      .queryString("headless", headless)
-                      .asObject(TestDTO.class)
-                      .ifFailure(response -> this.throwServerException("Could not register start of rerun of the test.", response))
+        return this.sendRequest(Priority.LIFECYCLE, client ->
+                this.jsonBody(client.post(reportingAPI("/v1/test-runs/{testRunId}/tests/{testId}")), test)
+                    .routeParam("testRunId", testRunId.toString())
+                    .routeParam("testId", testId.toString())
+                    .queryString("headless", headless)
+                    .asObject(TestDTO.class)
+                    .ifFailure(response -> this.throwServerException("Could not register start of rerun of the test.", response))
         );
     }
 
     @Override
     public TestDTO registerHeadlessTestUpdate(Long testRunId, TestDTO test) {
-        return this.sendRequest(client ->
-                client.put(reportingAPI("/v1/test-runs/{testRunId}/tests/{testId}"))
-                      .routeParam("testRunId", testRunId.toString())
-                      .routeParam("testId", test.getId().toString())
-                      .queryString("headless", true)
-                      .body(test)
-                      .asObject(TestDTO.class)
-                      .ifFailure(response -> this.throwServerException("Could not register start of the test.", response))
+        return this.sendRequest(Priority.LIFECYCLE, client ->
+                this.jsonBody(client.put(reportingAPI("/v1/test-runs/{testRunId}/tests/{testId}")), test)
+                    .routeParam("testRunId", testRunId.toString())
+                    .routeParam("testId", test.getId().toString())
+                    .queryString("headless", true)
+                    .asObject(TestDTO.class)
+                    .ifFailure(response -> this.throwServerException("Could not register start of the test.", response))
         );
     }
 
     @Override
     public void revertTestRegistration(Long testRunId, Long testId) {
-        this.sendVoidRequest(client ->
+        this.sendVoidRequest(Priority.LIFECYCLE, client ->
                 client.delete(reportingAPI("/v1/test-runs/{testRunId}/tests/{testId}"))
                       .routeParam("testRunId", testRunId.toString())
                       .routeParam("testId", testId.toString())
@@ -233,49 +490,51 @@ class UnirestZebrunnerApiClient implements ZebrunnerApiClient {
 
     @Override
     public void registerTestFinish(Long testRunId, TestDTO test) {
-        this.sendVoidRequest(client ->
-                client.put(reportingAPI("/v1/test-runs/{testRunId}/tests/{testId}"))
-                      .routeParam("testRunId", testRunId.toString())
-                      .routeParam("testId", test.getId().toString())
-                      .queryString("headless", false)
-                      .body(test)
-                      .asString()
-                      .ifFailure(response -> this.throwServerException("Could not register finish of the test.", response))
+        this.sendVoidRequest(Priority.LIFECYCLE, client ->
+                this.jsonBody(client.put(reportingAPI("/v1/test-runs/{testRunId}/tests/{testId}")), test)
+                    .routeParam("testRunId", testRunId.toString())
+                    .routeParam("testId", test.getId().toString())
+                    .queryString("headless", false)
+                    .asString()
+                    .ifFailure(response -> this.throwServerException("Could not register finish of the test.", response))
         );
     }
 
     @Override
     public void sendLogs(Collection<Log> logs, Long testRunId) {
-        this.sendVoidRequest(client ->
-                client.post(reportingAPI("/v1/test-runs/{testRunId}/logs"))
-                      .routeParam("testRunId", testRunId.toString())
-                      .body(logs)
-                      .asString()
-                      .ifFailure(response -> log.error(this.formatError("Could not send a batch of test logs.", response)))
+        // logs of the same test are placed next to each other, so repeated test ids and messages
+        // are found within the compression window and the batch compresses better
+        List<Log> groupedLogs = new ArrayList<>(logs);
+        groupedLogs.sort(Comparator.comparing(Log::getTestId, Comparator.nullsFirst(Comparator.naturalOrder())));
+        this.sendNonCriticalRequest(Priority.LOGS, "batch of " + groupedLogs.size() + " test logs", client ->
+                this.jsonBody(client.post(reportingAPI("/v1/test-runs/{testRunId}/logs")), groupedLogs)
+                    .routeParam("testRunId", testRunId.toString())
+                    .asString()
+                    .ifFailure(response -> this.handleNonCriticalFailure("Could not send a batch of test logs.", response))
         );
     }
 
     @Override
     public void upsertTestCaseResults(Long testRunId, Long testId, Collection<TestCaseResult> testCaseResults) {
-        this.sendVoidRequest(client ->
-                client.post(reportingAPI("/v1/test-runs/{testRunId}/tests/{testId}/test-cases:upsert"))
-                      .routeParam("testRunId", testRunId.toString())
-                      .routeParam("testId", testId.toString())
-                      .body(Collections.singletonMap("testCases", testCaseResults))
-                      .asString()
-                      .ifFailure(response -> {
-                          if (response.getStatus() == 404) {
-                              log.warn("This functionality is not available for your Zebrunner distribution");
-                          } else {
-                              log.error(this.formatError("Could not send test case results.", response));
-                          }
-                      })
+        this.sendVoidRequest(Priority.METADATA, client ->
+                this.jsonBody(client.post(reportingAPI("/v1/test-runs/{testRunId}/tests/{testId}/test-cases:upsert")), Collections.singletonMap("testCases", testCaseResults))
+                    .routeParam("testRunId", testRunId.toString())
+                    .routeParam("testId", testId.toString())
+                    .asString()
+                    .ifFailure(response -> {
+                        if (response.getStatus() == 404) {
+                            log.warn("This functionality is not available for your Zebrunner distribution");
+                        } else {
+                            this.handleNonCriticalFailure("Could not send test case results.", response);
+                        }
+                    })
         );
     }
 
     @Override
     public void uploadScreenshot(byte[] screenshot, Long testRunId, Long testId, Long capturedAt) {
-        this.sendVoidRequest(client ->
+        AgentMetrics.API_SENT_BYTES.add(screenshot.length);
+        this.sendNonCriticalRequest(Priority.ARTIFACTS, "screenshot upload", client ->
                 client.post(reportingAPI("/v1/test-runs/{testRunId}/tests/{testId}/screenshots"))
                       .headerReplace("Content-Type", ContentType.IMAGE_PNG.getMimeType())
                       .routeParam("testRunId", testRunId.toString())
@@ -283,32 +542,30 @@ class UnirestZebrunnerApiClient implements ZebrunnerApiClient {
                       .header("x-zbr-screenshot-captured-at", capturedAt.toString())
                       .body(screenshot)
                       .asString()
-                      .ifFailure(response -> log.error(this.formatError("Could not upload a screenshot.", response)))
+                      .ifFailure(response -> this.handleNonCriticalFailure("Could not upload a screenshot.", response))
         );
     }
 
     @Override
     public void uploadTestRunArtifact(InputStream artifact, String name, Long testRunId) {
-        this.sendVoidRequest(client ->
-                Unirest.post(reportingAPI("/v1/test-runs/{testRunId}/artifacts"))
-                       .header(HeaderNames.AUTHORIZATION, authToken)
-                       .routeParam("testRunId", testRunId.toString())
-                       .field("file", artifact, name)
-                       .asString()
-                       .ifFailure(response -> log.error(this.formatError("Could not attach test run artifact with name " + name, response)))
+        this.sendNonCriticalRequest(Priority.ARTIFACTS, "test run artifact upload", client ->
+                uploadClient.post(reportingAPI("/v1/test-runs/{testRunId}/artifacts"))
+                            .routeParam("testRunId", testRunId.toString())
+                            .field("file", artifact, name)
+                            .asString()
+                            .ifFailure(response -> this.handleNonCriticalFailure("Could not attach test run artifact with name " + name, response))
         );
     }
 
     @Override
     public void uploadTestArtifact(InputStream artifact, String name, Long testRunId, Long testId) {
-        this.sendVoidRequest(client ->
-                Unirest.post(reportingAPI("/v1/test-runs/{testRunId}/tests/{testId}/artifacts"))
-                       .header(HeaderNames.AUTHORIZATION, authToken)
-                       .routeParam("testRunId", testRunId.toString())
-                       .routeParam("testId", testId.toString())
-                       .field("file", artifact, name)
-                       .asString()
-                       .ifFailure(response -> log.error(this.formatError("Could not attach test artifact with name " + name, response)))
+        this.sendNonCriticalRequest(Priority.ARTIFACTS, "test artifact upload", client ->
+                uploadClient.post(reportingAPI("/v1/test-runs/{testRunId}/tests/{testId}/artifacts"))
+                            .routeParam("testRunId", testRunId.toString())
+                            .routeParam("testId", testId.toString())
+                            .field("file", artifact, name)
+                            .asString()
+                            .ifFailure(response -> this.handleNonCriticalFailure("Could not attach test artifact with name " + name, response))
         );
     }
 
@@ -317,98 +574,91 @@ class UnirestZebrunnerApiClient implements ZebrunnerApiClient {
         Map<String, List<ArtifactReferenceDTO>> requestBody = Collections.singletonMap(
                 "items", Collections.singletonList(artifactReference)
         );
-        this.sendVoidRequest(client ->
-                client.put(reportingAPI("/v1/test-runs/{testRunId}/artifact-references"))
-                      .routeParam("testRunId", testRunId.toString())
-                      .body(requestBody)
-                      .asString()
-                      .ifFailure(response -> log.error(this.formatError(
-                              "Could not attach the following test run artifact reference: " + artifactReference,
-                              response
-                      )))
+        this.sendNonCriticalRequest(Priority.METADATA, "test run artifact reference attachment", client ->
+                this.jsonBody(client.put(reportingAPI("/v1/test-runs/{testRunId}/artifact-references")), requestBody)
+                    .routeParam("testRunId", testRunId.toString())
+                    .asString()
+                    .ifFailure(response -> this.handleNonCriticalFailure(
+                            "Could not attach the following test run artifact reference: " + artifactReference,
+                            response
+                    ))
         );
     }
 
     @Override
     public void attachArtifactReferenceToTest(Long testRunId, Long testId, ArtifactReferenceDTO artifactReference) {
-        this.sendVoidRequest(client ->
-                client.put(reportingAPI("/v1/test-runs/{testRunId}/tests/{testId}/artifact-references"))
-                      .routeParam("testRunId", testRunId.toString())
-                      .routeParam("testId", testId.toString())
-                      .body(Collections.singletonMap("items", Collections.singletonList(artifactReference)))
-                      .asString()
-                      .ifFailure(response -> log.error(this.formatError(
-                              "Could not attach the following test artifact reference: " + artifactReference,
-                              response
-                      )))
+        this.sendNonCriticalRequest(Priority.METADATA, "test artifact reference attachment", client ->
+                this.jsonBody(client.put(reportingAPI("/v1/test-runs/{testRunId}/tests/{testId}/artifact-references")), Collections.singletonMap("items", Collections.singletonList(artifactReference)))
+                    .routeParam("testRunId", testRunId.toString())
+                    .routeParam("testId", testId.toString())
+                    .asString()
+                    .ifFailure(response -> this.handleNonCriticalFailure(
+                            "Could not attach the following test artifact reference: " + artifactReference,
+                            response
+                    ))
         );
     }
 
     @Override
     public void attachLabelsToTestRun(Long testRunId, Collection<LabelDTO> labels) {
-        this.sendVoidRequest(client ->
-                client.put(reportingAPI("/v1/test-runs/{testRunId}/labels"))
-                      .routeParam("testRunId", testRunId.toString())
-                      .body(Collections.singletonMap("items", labels))
-                      .asString()
-                      .ifFailure(response -> log.error(this.formatError("Could not attach the following labels to test run: " + labels, response)))
+        this.sendNonCriticalRequest(Priority.METADATA, "test run labels attachment", client ->
+                this.jsonBody(client.put(reportingAPI("/v1/test-runs/{testRunId}/labels")), Collections.singletonMap("items", labels))
+                    .routeParam("testRunId", testRunId.toString())
+                    .asString()
+                    .ifFailure(response -> this.handleNonCriticalFailure("Could not attach the following labels to test run: " + labels, response))
         );
     }
 
     @Override
     public void attachLabelsToTest(Long testRunId, Long testId, Collection<LabelDTO> labels) {
-        this.sendVoidRequest(client ->
-                client.put(reportingAPI("/v1/test-runs/{testRunId}/tests/{testId}/labels"))
-                      .routeParam("testRunId", testRunId.toString())
-                      .routeParam("testId", testId.toString())
-                      .body(Collections.singletonMap("items", labels))
-                      .asString()
-                      .ifFailure(response -> log.error(this.formatError("Could not attach the following labels to test: " + labels, response)))
+        this.sendNonCriticalRequest(Priority.METADATA, "test labels attachment", client ->
+                this.jsonBody(client.put(reportingAPI("/v1/test-runs/{testRunId}/tests/{testId}/labels")), Collections.singletonMap("items", labels))
+                    .routeParam("testRunId", testRunId.toString())
+                    .routeParam("testId", testId.toString())
+                    .asString()
+                    .ifFailure(response -> this.handleNonCriticalFailure("Could not attach the following labels to test: " + labels, response))
         );
     }
 
     @Override
     public ExchangeRunContextResponse exchangeRerunCondition(String rerunCondition) {
-        return this.sendRequest(client ->
+        return this.sendRequest(Priority.LIFECYCLE, client ->
                 client.post(reportingAPI("/v1/run-context-exchanges"))
                       .body(rerunCondition)
-                      .asObject(ExchangeRunContextResponse.class)
+                      .asObject(this.jsonResponse(ExchangeRunContextResponse.class))
                       .ifFailure(response -> this.throwServerException("Could not get tests by ci run id.", response))
         );
     }
 
     @Override
     public TestSessionDTO startSession(Long testRunId, TestSessionDTO testSession) {
-        return this.sendRequest(client ->
-                client.post(reportingAPI("/v1/test-runs/{testRunId}/test-sessions"))
-                      .routeParam("testRunId", testRunId.toString())
-                      .body(testSession)
-                      .asObject(TestSessionDTO.class)
-                      .ifFailure(response -> this.throwServerException("Could not register start of the test session.", response))
+        return this.sendRequest(Priority.SESSIONS, client ->
+                this.jsonBody(client.post(reportingAPI("/v1/test-runs/{testRunId}/test-sessions")), testSession)
+                    .routeParam("testRunId", testRunId.toString())
+                    .asObject(TestSessionDTO.class)
+                    .ifFailure(response -> this.throwServerException("Could not register start of the test session.", response))
         );
     }
 
     @Override
     public void updateSession(Long testRunId, TestSessionDTO testSession) {
-        this.sendVoidRequest(client ->
-                client.put(reportingAPI("/v1/test-runs/{testRunId}/test-sessions/{testSessionId}"))
-                      .routeParam("testRunId", testRunId.toString())
-                      .routeParam("testSessionId", testSession.getId().toString())
-                      .body(testSession)
-                      .asString()
-                      .ifFailure(response -> this.throwServerException("Could not update test session.", response))
+        this.sendVoidRequest(Priority.SESSIONS, client ->
+                this.jsonBody(client.put(reportingAPI("/v1/test-runs/{testRunId}/test-sessions/{testSessionId}")), testSession)
+                    .routeParam("testRunId", testRunId.toString())
+                    .routeParam("testSessionId", testSession.getId().toString())
+                    .asString()
+                    .ifFailure(response -> this.throwServerException("Could not update test session.", response))
         );
     }
 
     @Override
     public boolean isKnownIssueAttachedToTest(Long testRunId, Long testId, String failureStacktrace) {
-        KnownIssueConfirmation confirmation = this.sendRequest(client ->
-                client.post(reportingAPI("/v1/test-runs/{testRunId}/tests/{testId}/known-issue-confirmations"))
-                      .routeParam("testRunId", testRunId.toString())
-                      .routeParam("testId", testId.toString())
-                      .body(Collections.singletonMap("failureReason", failureStacktrace))
-                      .asObject(KnownIssueConfirmation.class)
-                      .ifFailure(response -> this.throwServerException("Could not retrieve status of attached known issues.", response))
+        KnownIssueConfirmation confirmation = this.sendRequest(Priority.LIFECYCLE, client ->
+                this.jsonBody(client.post(reportingAPI("/v1/test-runs/{testRunId}/tests/{testId}/known-issue-confirmations")), Collections.singletonMap("failureReason", failureStacktrace))
+                    .routeParam("testRunId", testRunId.toString())
+                    .routeParam("testId", testId.toString())
+                    .asObject(KnownIssueConfirmation.class)
+                    .ifFailure(response -> this.throwServerException("Could not retrieve status of attached known issues.", response))
         );
         return confirmation != null && confirmation.isKnownIssue();
     }
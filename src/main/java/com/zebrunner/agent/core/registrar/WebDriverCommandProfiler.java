@@ -0,0 +1,231 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.config.ConfigurationHolder;
+import com.zebrunner.agent.core.registrar.descriptor.TestDescriptor;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records durations of WebDriver commands per test and command name, and attaches a summary of them
+ * to the test on its finish. The summary tells how much of the test time was spent waiting for the grid
+ * and which commands were the slowest.
+ * <p>Durations are kept in fixed log-scale buckets (four per power of two, so quantiles are accurate within 25%),
+ * so recording a command of an already seen kind does not allocate.
+ * <p>Profiling is enabled by {@code reporting.client.webdriver-profiling} property.
+ */
+public final class WebDriverCommandProfiler {
+
+    private static final boolean ENABLED = ConfigurationHolder.isReportingEnabled()
+            && ConfigurationHolder.isClientWebDriverProfilingEnabled();
+    private static final String SUMMARY_ARTIFACT_NAME = "webdriver-commands.txt";
+    private static final int SLOWEST_COMMANDS_COUNT = 5;
+
+    private static final class InstanceHolder {
+
+        private static final WebDriverCommandProfiler INSTANCE = new WebDriverCommandProfiler();
+
+    }
+
+    static WebDriverCommandProfiler getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    private final Map<TestDescriptor, TestProfile> testProfiles = new ConcurrentHashMap<>();
+    private final ThreadLocal<TestProfile> threadLastProfile = new ThreadLocal<>();
+    private final AsyncZebrunnerApiClient asyncApiClient = ClientRegistrar.getAsyncClient();
+    private final RequestSequencer requestSequencer = RequestSequencer.getInstance();
+
+    /**
+     * Records duration of the WebDriver command executed by the current test. Commands executed outside of tests
+     * are not recorded.
+     *
+     * @param command    name of the command, e.g. {@code findElement}
+     * @param startNanos value of {@link System#nanoTime()} at the command start
+     */
+    public static void record(String command, long startNanos) {
+        if (ENABLED) {
+            getInstance().recordForCurrentTest(command, System.nanoTime() - startNanos);
+        }
+    }
+
+    private void recordForCurrentTest(String command, long durationNanos) {
+        TestDescriptor currentTest = RunContext.peekCurrentTest();
+        if (currentTest == null) {
+            return;
+        }
+
+        TestProfile profile = threadLastProfile.get();
+        if (profile == null || profile.test != currentTest) {
+            // after methods run with the finished test restored as current one, while its summary is already attached
+            if (currentTest.getFinishDescriptor() != null) {
+                return;
+            }
+            profile = testProfiles.computeIfAbsent(currentTest, TestProfile::new);
+            threadLastProfile.set(profile);
+        }
+        profile.record(command, durationNanos);
+    }
+
+    /**
+     * Attaches summary of the WebDriver commands executed by the test as an artifact of the test.
+     * Must be invoked after the test is completed, so no more commands are recorded for it.
+     *
+     * @param test completed test
+     */
+    void attachSummary(TestDescriptor test) {
+        if (!ENABLED) {
+            return;
+        }
+        TestProfile profile = testProfiles.remove(test);
+        if (profile == null) {
+            return;
+        }
+        if (threadLastProfile.get() == profile) {
+            threadLastProfile.remove();
+        }
+
+        byte[] summary = profile.formatSummary().getBytes(StandardCharsets.UTF_8);
+        Long testRunId = RunContext.getZebrunnerRunId();
+        requestSequencer.submitForTest(test, testId -> asyncApiClient.uploadTestArtifact(
+                new ByteArrayInputStream(summary), SUMMARY_ARTIFACT_NAME, testRunId, testId
+        ));
+    }
+
+    private static final class TestProfile {
+
+        private final TestDescriptor test;
+        private final Map<String, CommandStats> commandStats = new ConcurrentHashMap<>();
+        // the slowest commands sorted from the slowest one, guarded by the profile lock
+        private final String[] slowestCommands = new String[SLOWEST_COMMANDS_COUNT];
+        private final long[] slowestDurations = new long[SLOWEST_COMMANDS_COUNT];
+
+        private TestProfile(TestDescriptor test) {
+            this.test = test;
+        }
+
+        private void record(String command, long durationNanos) {
+            CommandStats stats = commandStats.get(command);
+            if (stats == null) {
+                stats = commandStats.computeIfAbsent(command, $ -> new CommandStats());
+            }
+            stats.record(durationNanos);
+
+            synchronized (this) {
+                int position = SLOWEST_COMMANDS_COUNT;
+                while (position > 0 && durationNanos > slowestDurations[position - 1]) {
+                    position--;
+                }
+                if (position < SLOWEST_COMMANDS_COUNT) {
+                    System.arraycopy(slowestCommands, position, slowestCommands, position + 1, SLOWEST_COMMANDS_COUNT - position - 1);
+                    System.arraycopy(slowestDurations, position, slowestDurations, position + 1, SLOWEST_COMMANDS_COUNT - position - 1);
+                    slowestCommands[position] = command;
+                    slowestDurations[position] = durationNanos;
+                }
+            }
+        }
+
+        private String formatSummary() {
+            List<Map.Entry<String, CommandStats>> entries = new ArrayList<>(commandStats.entrySet());
+            entries.sort((first, second) -> Long.compare(second.getValue().totalNanos, first.getValue().totalNanos));
+
+            long totalCount = 0;
+            long totalNanos = 0;
+            StringBuilder table = new StringBuilder();
+            for (Map.Entry<String, CommandStats> entry : entries) {
+                CommandStats stats = entry.getValue();
+                synchronized (stats) {
+                    totalCount += stats.count;
+                    totalNanos += stats.totalNanos;
+                    table.append(String.format(
+                            Locale.ROOT, "%-32s %8d %10s %10s %10s %10s%n",
+                            entry.getKey(), stats.count, formatDuration(stats.totalNanos),
+                            formatDuration(stats.getQuantileNanos(0.5)), formatDuration(stats.getQuantileNanos(0.95)),
+                            formatDuration(stats.maxNanos)
+                    ));
+                }
+            }
+
+            StringBuilder summary = new StringBuilder();
+            summary.append(String.format(Locale.ROOT, "WebDriver commands: %d, total time: %s%n%n", totalCount, formatDuration(totalNanos)));
+            summary.append(String.format(Locale.ROOT, "%-32s %8s %10s %10s %10s %10s%n", "command", "count", "total", "p50", "p95", "max"));
+            summary.append(table);
+            summary.append(String.format("%nSlowest commands:%n"));
+            synchronized (this) {
+                for (int i = 0; i < SLOWEST_COMMANDS_COUNT && slowestCommands[i] != null; i++) {
+                    summary.append(String.format(Locale.ROOT, "%-32s %10s%n", slowestCommands[i], formatDuration(slowestDurations[i])));
+                }
+            }
+            return summary.toString();
+        }
+
+        private static String formatDuration(long nanos) {
+            return nanos >= TimeUnit.SECONDS.toNanos(1)
+                    ? String.format(Locale.ROOT, "%.2f s", nanos / 1e9)
+                    : String.format(Locale.ROOT, "%.1f ms", nanos / 1e6);
+        }
+
+    }
+
+    /**
+     * Durations of a single command kind. Durations are counted in microseconds in buckets of log-linear scale:
+     * the first four buckets hold a single value each, then every power of two is split into four buckets.
+     */
+    private static final class CommandStats {
+
+        private static final int SUB_BUCKETS_BITS = 2;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKETS_BITS;
+        private static final int BUCKETS_COUNT = SUB_BUCKETS * 64;
+
+        private final long[] buckets = new long[BUCKETS_COUNT];
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+
+        private synchronized void record(long durationNanos) {
+            buckets[bucketIndex(TimeUnit.NANOSECONDS.toMicros(durationNanos))]++;
+            count++;
+            totalNanos += durationNanos;
+            maxNanos = Math.max(maxNanos, durationNanos);
+        }
+
+        // must be called while holding the lock of the stats
+        private long getQuantileNanos(double quantile) {
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long cumulativeCount = 0;
+            for (int i = 0; i < BUCKETS_COUNT; i++) {
+                cumulativeCount += buckets[i];
+                if (cumulativeCount >= rank) {
+                    return Math.min(TimeUnit.MICROSECONDS.toNanos(bucketUpperBound(i)), maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+
+        private static int bucketIndex(long micros) {
+            if (micros < SUB_BUCKETS) {
+                return (int) Math.max(micros, 0);
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(micros);
+            int subBucket = (int) (micros >>> (exponent - SUB_BUCKETS_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BUCKETS_BITS + 1) * SUB_BUCKETS + subBucket;
+        }
+
+        private static long bucketUpperBound(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int shift = index / SUB_BUCKETS - 1;
+            long lowerBound = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+            return lowerBound + (1L << shift) - 1;
+        }
+
+    }
+
+}
@@ -0,0 +1,379 @@
+package com.zebrunner.agent.core.registrar;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of entries stored in memory-mapped segment files. Since the segments are mapped, an appended
+ * entry survives termination of the JVM as soon as {@link #append(byte[])} returns.
+ * <p>Entries are {@link #next(long, TimeUnit) taken} in the order they were appended and {@link #acknowledge(Entry)
+ * acknowledged} once they are processed. Several entries may be processed at once and acknowledged in any order.
+ * Position of the oldest unacknowledged entry is stored in a separate mapped file, so entries left unacknowledged,
+ * whether taken or not, are taken again when the journal is reopened. Segments are rotated once they are full
+ * and deleted once all their entries are acknowledged.
+ * <p>Every entry consists of its length, CRC32 checksum and payload. The length is written last, so a torn write
+ * is detected on recovery and the journal is truncated at the first incomplete or corrupted entry.
+ * <p>Only one journal may be opened in a directory at a time, which is guarded by a file lock.
+ */
+@Slf4j
+final class WriteAheadJournal implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final String ACK_FILE_NAME = "ack";
+    private static final String LOCK_FILE_NAME = "lock";
+    private static final int ENTRY_HEADER_SIZE = 8;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FileChannel lockChannel;
+    private final FileLock fileLock;
+    private final MappedByteBuffer ackBuffer;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Condition acknowledged = lock.newCondition();
+    private final NavigableMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+    private long writeSegment;
+    private int writeOffset;
+    private long ackSegment;
+    private int ackOffset;
+    private long readSegment;
+    private int readOffset;
+    // positions of the entries which have been taken, but not acknowledged yet
+    private final NavigableSet<Long> takenPositions = new TreeSet<>();
+
+    private WriteAheadJournal(Path directory, int segmentSize, FileChannel lockChannel, FileLock fileLock) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.lockChannel = lockChannel;
+        this.fileLock = fileLock;
+        this.ackBuffer = map(directory.resolve(ACK_FILE_NAME), Long.BYTES);
+
+        long ackPosition = ackBuffer.getLong(0);
+        this.ackSegment = ackPosition >>> 32;
+        this.ackOffset = (int) ackPosition;
+        this.recover();
+    }
+
+    /**
+     * Opens journal in the given directory recovering entries left unacknowledged by the previous journal.
+     *
+     * @param directory   directory of the journal
+     * @param segmentSize size of segment files in bytes
+     * @return opened journal
+     * @throws IOException if the journal cannot be opened or is already opened by another process
+     */
+    static WriteAheadJournal open(Path directory, int segmentSize) throws IOException {
+        Files.createDirectories(directory);
+        FileChannel lockChannel = FileChannel.open(
+                directory.resolve(LOCK_FILE_NAME), StandardOpenOption.CREATE, StandardOpenOption.WRITE
+        );
+        FileLock fileLock;
+        try {
+            fileLock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            fileLock = null;
+        }
+        if (fileLock == null) {
+            lockChannel.close();
+            throw new IOException("Journal in " + directory + " is used by another process.");
+        }
+
+        try {
+            return new WriteAheadJournal(directory, segmentSize, lockChannel, fileLock);
+        } catch (IOException | RuntimeException e) {
+            fileLock.release();
+            lockChannel.close();
+            throw e;
+        }
+    }
+
+    private void recover() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                long segment = parseSegmentNumber(file);
+                if (segment < ackSegment) {
+                    Files.deleteIfExists(file);
+                } else {
+                    segments.put(segment, map(file, (int) Files.size(file)));
+                }
+            }
+        }
+
+        if (segments.isEmpty()) {
+            segments.put(ackSegment, map(segmentFile(ackSegment), segmentSize));
+            this.persistAckPosition(ackSegment, 0);
+        } else if (segments.firstKey() != ackSegment) {
+            this.persistAckPosition(segments.firstKey(), 0);
+        }
+
+        readSegment = ackSegment;
+        readOffset = ackOffset;
+        writeSegment = segments.lastKey();
+        MappedByteBuffer lastSegment = segments.lastEntry().getValue();
+        writeOffset = 0;
+        byte[] payload;
+        while (hasEntryAt(lastSegment, writeOffset) && (payload = readEntry(lastSegment, writeOffset)) != null) {
+            writeOffset += ENTRY_HEADER_SIZE + payload.length;
+        }
+        // a torn or corrupted entry and anything after it is wiped out, so it is not mistaken for valid entries later
+        for (int i = writeOffset; i < lastSegment.capacity(); i++) {
+            lastSegment.put(i, (byte) 0);
+        }
+
+        if (ackSegment != writeSegment || ackOffset != writeOffset) {
+            log.info("Recovered unsent reporting operations from {}.", directory);
+        }
+    }
+
+    /**
+     * Appends the entry to the journal.
+     *
+     * @param payload payload of the entry
+     */
+    void append(byte[] payload) {
+        int entrySize = ENTRY_HEADER_SIZE + payload.length;
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+
+        lock.lock();
+        try {
+            MappedByteBuffer segment = segments.get(writeSegment);
+            if (writeOffset + entrySize > segment.capacity()) {
+                segment = this.rotate(entrySize);
+            }
+
+            ByteBuffer entry = segment.duplicate();
+            entry.position(writeOffset + ENTRY_HEADER_SIZE);
+            entry.put(payload);
+            segment.putInt(writeOffset + Integer.BYTES, (int) crc.getValue());
+            // the length commits the entry, so it is written last
+            segment.putInt(writeOffset, payload.length);
+
+            writeOffset += entrySize;
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private MappedByteBuffer rotate(int entrySize) {
+        try {
+            long nextSegment = writeSegment + 1;
+            // an entry bigger than the regular segment gets a dedicated segment
+            MappedByteBuffer segment = map(segmentFile(nextSegment), Math.max(segmentSize, entrySize));
+            segments.put(nextSegment, segment);
+            writeSegment = nextSegment;
+            writeOffset = 0;
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Takes the oldest entry which has not been taken yet, waiting for it if necessary.
+     *
+     * @param timeout maximum time to wait
+     * @param unit    unit of the timeout
+     * @return the oldest entry which has not been taken yet or null if no entry has been appended within the timeout
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    Entry next(long timeout, TimeUnit unit) throws InterruptedException {
+        long remainingNanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (true) {
+                while (readSegment < writeSegment && !hasEntryAt(segments.get(readSegment), readOffset)) {
+                    readSegment = segments.higherKey(readSegment);
+                    readOffset = 0;
+                }
+                if (readSegment == writeSegment && readOffset >= writeOffset) {
+                    if (remainingNanos <= 0) {
+                        return null;
+                    }
+                    remainingNanos = appended.awaitNanos(remainingNanos);
+                    continue;
+                }
+
+                MappedByteBuffer segment = segments.get(readSegment);
+                byte[] payload = readEntry(segment, readOffset);
+                if (payload == null) {
+                    // only segments written by a previous journal, but not the last one, can be corrupted here
+                    log.warn("Skipping corrupted tail of journal segment {} in {}.", readSegment, directory);
+                    readOffset = segment.capacity();
+                    continue;
+                }
+
+                Entry entry = new Entry(readSegment, readOffset, payload);
+                takenPositions.add(position(readSegment, readOffset));
+                readOffset += ENTRY_HEADER_SIZE + payload.length;
+                return entry;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Acknowledges the entry, so it is not taken again when the journal is reopened. The stored position moves
+     * past the entry once all the entries taken before it are acknowledged too.
+     *
+     * @param entry entry returned by {@link #next(long, TimeUnit)}
+     */
+    void acknowledge(Entry entry) {
+        lock.lock();
+        try {
+            if (takenPositions.remove(position(entry.segment, entry.offset))) {
+                long ackPosition = takenPositions.isEmpty() ? position(readSegment, readOffset) : takenPositions.first();
+                this.persistAckPosition(ackPosition >>> 32, (int) ackPosition);
+                this.deleteAcknowledgedSegments();
+                acknowledged.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until all the appended entries are acknowledged.
+     *
+     * @param timeout maximum time to wait
+     * @param unit    unit of the timeout
+     * @return true if all the entries have been acknowledged
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    boolean awaitDrained(long timeout, TimeUnit unit) throws InterruptedException {
+        long remainingNanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (!this.isDrained()) {
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                remainingNanos = acknowledged.awaitNanos(remainingNanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isDrained() {
+        return takenPositions.isEmpty() && readSegment == writeSegment && readOffset >= writeOffset;
+    }
+
+    /**
+     * Deletes the segments preceding the segment of the oldest unacknowledged entry.
+     */
+    private void deleteAcknowledgedSegments() {
+        while (segments.firstKey() < ackSegment) {
+            long acknowledgedSegment = segments.pollFirstEntry().getKey();
+            try {
+                Files.deleteIfExists(segmentFile(acknowledgedSegment));
+            } catch (IOException e) {
+                // the segment is deleted on the next start
+                log.debug("Could not delete journal segment {}: {}", acknowledgedSegment, e.getMessage());
+            }
+        }
+    }
+
+    private static long position(long segment, int offset) {
+        return segment << 32 | offset;
+    }
+
+    private void persistAckPosition(long segment, int offset) {
+        ackSegment = segment;
+        ackOffset = offset;
+        // both parts of the position are written by a single write, so the position cannot be torn
+        ackBuffer.putLong(0, position(segment, offset));
+    }
+
+    private static boolean hasEntryAt(MappedByteBuffer segment, int offset) {
+        return offset + ENTRY_HEADER_SIZE <= segment.capacity() && segment.getInt(offset) != 0;
+    }
+
+    /**
+     * Reads payload of the entry at the given offset validating its checksum.
+     *
+     * @return payload of the entry or null if the entry is incomplete or corrupted
+     */
+    private static byte[] readEntry(MappedByteBuffer segment, int offset) {
+        int length = segment.getInt(offset);
+        if (length < 0 || offset + ENTRY_HEADER_SIZE + length > segment.capacity()) {
+            return null;
+        }
+
+        byte[] payload = new byte[length];
+        ByteBuffer entry = segment.duplicate();
+        entry.position(offset + ENTRY_HEADER_SIZE);
+        entry.get(payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, length);
+        return (int) crc.getValue() == segment.getInt(offset + Integer.BYTES) ? payload : null;
+    }
+
+    private Path segmentFile(long segment) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    private static long parseSegmentNumber(Path file) {
+        String fileName = file.getFileName().toString();
+        return Long.parseLong(fileName.substring(SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static MappedByteBuffer map(Path file, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // the mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size()));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            segments.values().forEach(MappedByteBuffer::force);
+            ackBuffer.force();
+        } finally {
+            lock.unlock();
+            fileLock.release();
+            lockChannel.close();
+        }
+    }
+
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    static final class Entry {
+
+        private final long segment;
+        private final int offset;
+        @Getter
+        private final byte[] payload;
+
+    }
+
+}
@@ -5,17 +5,86 @@ import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
 import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 @Getter
 @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
 public class TestDescriptor {
 
-    private final Long zebrunnerId;
+    private static final AtomicLong PROVISIONAL_ID_SEQUENCE = new AtomicLong();
+
+    /**
+     * Local id assigned to the test right away. Unlike Zebrunner id, it is available even if test registration
+     * on Zebrunner side has not been completed yet.
+     */
+    private final long provisionalId = PROVISIONAL_ID_SEQUENCE.incrementAndGet();
+
+    private final CompletableFuture<Long> registration;
     private final TestStartDescriptor startDescriptor;
     private TestFinishDescriptor finishDescriptor;
 
     public static TestDescriptor create(Long zebrunnerId, TestStartDescriptor startDescriptor) {
-        return new TestDescriptor(zebrunnerId, startDescriptor);
+        return new TestDescriptor(CompletableFuture.completedFuture(zebrunnerId), startDescriptor);
+    }
+
+    /**
+     * Creates descriptor of a test which registration on Zebrunner side may still be in progress.
+     *
+     * @param registration    future completed with Zebrunner id of the test once it is registered
+     * @param startDescriptor test start descriptor
+     * @return test descriptor
+     */
+    public static TestDescriptor create(CompletableFuture<Long> registration, TestStartDescriptor startDescriptor) {
+        return new TestDescriptor(registration, startDescriptor);
+    }
+
+    /**
+     * Returns Zebrunner id of the test without waiting for test registration.
+     *
+     * @return Zebrunner id of the test or null if the test is not registered yet or could not be registered
+     * @see #awaitZebrunnerId()
+     */
+    public Long getZebrunnerId() {
+        return this.isRegistered() ? registration.getNow(null) : null;
+    }
+
+    /**
+     * Returns Zebrunner id of the test. If test registration is still in progress, blocks until it completes.
+     *
+     * @return Zebrunner id of the test or null if the test could not be registered
+     */
+    public Long awaitZebrunnerId() {
+        try {
+            return registration.join();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether test registration has been successfully completed, so Zebrunner id can be obtained without waiting.
+     *
+     * @return true if Zebrunner id of the test is known
+     */
+    public boolean isRegistered() {
+        return registration.isDone() && !registration.isCompletedExceptionally();
+    }
+
+    /**
+     * Performs given action with Zebrunner id of the test as soon as the test is registered. If the test is
+     * already registered, the action is performed right away on the calling thread.
+     * The action is not performed if the test could not be registered.
+     *
+     * @param action action to be performed with Zebrunner id of the test
+     */
+    public void whenRegistered(Consumer<Long> action) {
+        registration.thenAccept(zebrunnerId -> {
+            if (zebrunnerId != null) {
+                action.accept(zebrunnerId);
+            }
+        });
     }
 
     public Class<?> getTestClass() {
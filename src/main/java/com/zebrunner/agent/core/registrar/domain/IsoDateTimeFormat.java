@@ -0,0 +1,110 @@
+package com.zebrunner.agent.core.registrar.domain;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+/**
+ * Formats date-times in ISO-8601 format by writing digits straight to a character array, which is considerably cheaper
+ * than {@code toString} of {@code java.time} classes going through several intermediate builders.
+ * <p>Seconds are always written, while the fraction of second is written with 3, 6 or 9 digits, or omitted if zero.
+ * Years outside of the {@code 0000-9999} range fall back to {@code toString}.
+ */
+final class IsoDateTimeFormat {
+
+    private static final int SECONDS_PER_DAY = 86_400;
+    // yyyy-MM-ddTHH:mm:ss.SSSSSSSSS+HH:mm:ss
+    private static final int MAX_LENGTH = 38;
+
+    private IsoDateTimeFormat() {
+    }
+
+    static String format(Instant instant) {
+        long epochDay = Math.floorDiv(instant.getEpochSecond(), SECONDS_PER_DAY);
+        int secondOfDay = Math.floorMod(instant.getEpochSecond(), SECONDS_PER_DAY);
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        if (!isFormattableYear(date.getYear())) {
+            return instant.toString();
+        }
+
+        char[] buffer = new char[MAX_LENGTH];
+        int position = writeDateTime(
+                buffer, date.getYear(), date.getMonthValue(), date.getDayOfMonth(),
+                secondOfDay / 3600, secondOfDay / 60 % 60, secondOfDay % 60, instant.getNano()
+        );
+        buffer[position++] = 'Z';
+        return new String(buffer, 0, position);
+    }
+
+    static String format(OffsetDateTime dateTime) {
+        if (!isFormattableYear(dateTime.getYear())) {
+            return dateTime.toString();
+        }
+
+        char[] buffer = new char[MAX_LENGTH];
+        int position = writeDateTime(
+                buffer, dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth(),
+                dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond(), dateTime.getNano()
+        );
+        position = writeOffset(buffer, position, dateTime.getOffset().getTotalSeconds());
+        return new String(buffer, 0, position);
+    }
+
+    private static boolean isFormattableYear(int year) {
+        return year >= 0 && year <= 9999;
+    }
+
+    private static int writeDateTime(char[] buffer, int year, int month, int day,
+                                     int hour, int minute, int second, int nano) {
+        int position = writeDigits(buffer, 0, year, 4);
+        buffer[position++] = '-';
+        position = writeDigits(buffer, position, month, 2);
+        buffer[position++] = '-';
+        position = writeDigits(buffer, position, day, 2);
+        buffer[position++] = 'T';
+        position = writeDigits(buffer, position, hour, 2);
+        buffer[position++] = ':';
+        position = writeDigits(buffer, position, minute, 2);
+        buffer[position++] = ':';
+        position = writeDigits(buffer, position, second, 2);
+
+        if (nano > 0) {
+            buffer[position++] = '.';
+            if (nano % 1_000_000 == 0) {
+                position = writeDigits(buffer, position, nano / 1_000_000, 3);
+            } else if (nano % 1_000 == 0) {
+                position = writeDigits(buffer, position, nano / 1_000, 6);
+            } else {
+                position = writeDigits(buffer, position, nano, 9);
+            }
+        }
+        return position;
+    }
+
+    private static int writeOffset(char[] buffer, int position, int totalSeconds) {
+        if (totalSeconds == 0) {
+            buffer[position++] = 'Z';
+            return position;
+        }
+
+        int absoluteSeconds = Math.abs(totalSeconds);
+        buffer[position++] = totalSeconds < 0 ? '-' : '+';
+        position = writeDigits(buffer, position, absoluteSeconds / 3600, 2);
+        buffer[position++] = ':';
+        position = writeDigits(buffer, position, absoluteSeconds / 60 % 60, 2);
+        if (absoluteSeconds % 60 != 0) {
+            buffer[position++] = ':';
+            position = writeDigits(buffer, position, absoluteSeconds % 60, 2);
+        }
+        return position;
+    }
+
+    private static int writeDigits(char[] buffer, int position, int value, int digits) {
+        for (int i = position + digits - 1; i >= position; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return position + digits;
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.zebrunner.agent.core.registrar.domain;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.zebrunner.agent.core.logging.Log;
+
+import java.io.IOException;
+
+/**
+ * Hand-written adapter of {@link Log}, which is the most frequently serialized object, so it is not worth
+ * going through reflection. Like reflective adapters, it omits null fields unless nulls serialization is enabled.
+ */
+final class LogTypeAdapter extends TypeAdapter<Log> {
+
+    @Override
+    public void write(JsonWriter out, Log log) throws IOException {
+        if (log == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        out.name("testId").value(log.getTestId());
+        out.name("message").value(log.getMessage());
+        out.name("level").value(log.getLevel());
+        out.name("timestamp").value(log.getTimestamp());
+        out.endObject();
+    }
+
+    @Override
+    public Log read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        Log log = new Log();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "testId":
+                    log.setTestId(in.nextString());
+                    break;
+                case "message":
+                    log.setMessage(in.nextString());
+                    break;
+                case "level":
+                    log.setLevel(in.nextString());
+                    break;
+                case "timestamp":
+                    log.setTimestamp(in.nextLong());
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return log;
+    }
+
+}
@@ -2,41 +2,54 @@ package com.zebrunner.agent.core.registrar.domain;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonSerializer;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.zebrunner.agent.core.logging.Log;
 import kong.unirest.GenericType;
 import kong.unirest.ObjectMapper;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 
+/**
+ * Json mapper shared by all the components of the agent. Hot objects, such as logs and tests, as well as date-times
+ * are handled by hand-written adapters, the rest of the objects are handled by reflective adapters of Gson.
+ */
 public final class ObjectMapperImpl implements ObjectMapper {
 
-    private final Gson gson;
+    private static final class InstanceHolder {
 
-    public ObjectMapperImpl() {
-        gson = new GsonBuilder()
-                .registerTypeAdapter(Instant.class, instantSerializer())
-                .registerTypeAdapter(Instant.class, instantDeserializer())
-                .registerTypeAdapter(OffsetDateTime.class, offsetDateTimeSerializer())
-                .registerTypeAdapter(OffsetDateTime.class, offsetDateTimeDeserializer())
-                .create();
-    }
+        private static final ObjectMapperImpl INSTANCE = new ObjectMapperImpl();
 
-    private JsonSerializer<Instant> instantSerializer() {
-        return (src, typeOfSrc, context) -> context.serialize(src.toString());
     }
 
-    private JsonDeserializer<Instant> instantDeserializer() {
-        return (json, typeOfT, context) -> Instant.parse(json.getAsString());
+    public static ObjectMapperImpl getInstance() {
+        return InstanceHolder.INSTANCE;
     }
 
-    private JsonSerializer<OffsetDateTime> offsetDateTimeSerializer() {
-        return (src, typeOfSrc, context) -> context.serialize(src.toString());
-    }
+    private final Gson gson;
 
-    private JsonDeserializer<OffsetDateTime> offsetDateTimeDeserializer() {
-        return (json, typeOfT, context) -> OffsetDateTime.parse(json.getAsString());
+    /**
+     * Creates a separate mapper with its own type adapters.
+     *
+     * @deprecated the mapper is thread-safe, use the shared {@link #getInstance()} instead
+     */
+    @Deprecated
+    public ObjectMapperImpl() {
+        gson = new GsonBuilder()
+                .registerTypeAdapter(Instant.class, new InstantTypeAdapter())
+                .registerTypeAdapter(OffsetDateTime.class, new OffsetDateTimeTypeAdapter())
+                .registerTypeAdapter(Log.class, new LogTypeAdapter())
+                .registerTypeAdapterFactory(TestDTOTypeAdapter.FACTORY)
+                .create();
     }
 
     @Override
@@ -54,4 +67,40 @@ public final class ObjectMapperImpl implements ObjectMapper {
         return gson.toJson(value);
     }
 
+    /**
+     * Writes json representation of the given object straight to the output stream without building
+     * an intermediate string. The stream is flushed but not closed.
+     *
+     * @param value        object to be serialized
+     * @param outputStream stream to write json to
+     */
+    public void writeValue(Object value, OutputStream outputStream) {
+        try {
+            JsonWriter jsonWriter = gson.newJsonWriter(
+                    new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8))
+            );
+            if (value == null) {
+                jsonWriter.nullValue();
+            } else {
+                gson.toJson(value, value.getClass(), jsonWriter);
+            }
+            jsonWriter.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Parses json read straight from the input stream without building an intermediate string.
+     *
+     * @param inputStream stream to read json from
+     * @param valueType   type of the object to be parsed
+     * @param <T>         type of the object to be parsed
+     * @return parsed object
+     */
+    public <T> T readValue(InputStream inputStream, Class<T> valueType) {
+        JsonReader jsonReader = gson.newJsonReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        return gson.fromJson(jsonReader, valueType);
+    }
+
 }
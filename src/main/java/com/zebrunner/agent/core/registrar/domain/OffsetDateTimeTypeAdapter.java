@@ -0,0 +1,31 @@
+package com.zebrunner.agent.core.registrar.domain;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+
+final class OffsetDateTimeTypeAdapter extends TypeAdapter<OffsetDateTime> {
+
+    @Override
+    public void write(JsonWriter out, OffsetDateTime value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+        } else {
+            out.value(IsoDateTimeFormat.format(value));
+        }
+    }
+
+    @Override
+    public OffsetDateTime read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return OffsetDateTime.parse(in.nextString());
+    }
+
+}
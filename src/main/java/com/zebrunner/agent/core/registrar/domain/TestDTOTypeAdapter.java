@@ -0,0 +1,140 @@
+package com.zebrunner.agent.core.registrar.domain;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Hand-written adapter of {@link TestDTO}, which is sent on every test start and finish. Nested objects are written
+ * by adapters obtained from the owning {@link Gson}. Like reflective adapters, it omits null fields
+ * unless nulls serialization is enabled.
+ */
+final class TestDTOTypeAdapter extends TypeAdapter<TestDTO> {
+
+    static final TypeAdapterFactory FACTORY = new TypeAdapterFactory() {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            return type.getRawType() == TestDTO.class
+                    ? (TypeAdapter<T>) new TestDTOTypeAdapter(gson)
+                    : null;
+        }
+
+    };
+
+    private final TypeAdapter<OffsetDateTime> dateTimeAdapter;
+    private final TypeAdapter<List<LabelDTO>> labelsAdapter;
+    private final TypeAdapter<List<ArtifactReferenceDTO>> artifactReferencesAdapter;
+    private final TypeAdapter<List<String>> testGroupsAdapter;
+
+    private TestDTOTypeAdapter(Gson gson) {
+        this.dateTimeAdapter = gson.getAdapter(OffsetDateTime.class);
+        this.labelsAdapter = gson.getAdapter(new TypeToken<List<LabelDTO>>() {
+        });
+        this.artifactReferencesAdapter = gson.getAdapter(new TypeToken<List<ArtifactReferenceDTO>>() {
+        });
+        this.testGroupsAdapter = gson.getAdapter(new TypeToken<List<String>>() {
+        });
+    }
+
+    @Override
+    public void write(JsonWriter out, TestDTO test) throws IOException {
+        if (test == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        out.name("id").value(test.getId());
+        out.name("name").value(test.getName());
+        out.name("correlationData").value(test.getCorrelationData());
+        out.name("className").value(test.getClassName());
+        out.name("methodName").value(test.getMethodName());
+        out.name("argumentsIndex").value(test.getArgumentsIndex());
+        dateTimeAdapter.write(out.name("startedAt"), test.getStartedAt());
+        dateTimeAdapter.write(out.name("endedAt"), test.getEndedAt());
+        out.name("maintainer").value(test.getMaintainer());
+        labelsAdapter.write(out.name("labels"), test.getLabels());
+        artifactReferencesAdapter.write(out.name("artifactReferences"), test.getArtifactReferences());
+        testGroupsAdapter.write(out.name("testGroups"), test.getTestGroups());
+        out.name("result").value(test.getResult());
+        out.name("reason").value(test.getReason());
+        out.endObject();
+    }
+
+    @Override
+    public TestDTO read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        TestDTO test = new TestDTO();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "id":
+                    test.setId(in.nextLong());
+                    break;
+                case "name":
+                    test.setName(in.nextString());
+                    break;
+                case "correlationData":
+                    test.setCorrelationData(in.nextString());
+                    break;
+                case "className":
+                    test.setClassName(in.nextString());
+                    break;
+                case "methodName":
+                    test.setMethodName(in.nextString());
+                    break;
+                case "argumentsIndex":
+                    test.setArgumentsIndex(in.nextInt());
+                    break;
+                case "startedAt":
+                    test.setStartedAt(dateTimeAdapter.read(in));
+                    break;
+                case "endedAt":
+                    test.setEndedAt(dateTimeAdapter.read(in));
+                    break;
+                case "maintainer":
+                    test.setMaintainer(in.nextString());
+                    break;
+                case "labels":
+                    test.setLabels(labelsAdapter.read(in));
+                    break;
+                case "artifactReferences":
+                    test.setArtifactReferences(artifactReferencesAdapter.read(in));
+                    break;
+                case "testGroups":
+                    test.setTestGroups(testGroupsAdapter.read(in));
+                    break;
+                case "result":
+                    test.setResult(in.nextString());
+                    break;
+                case "reason":
+                    test.setReason(in.nextString());
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return test;
+    }
+
+}
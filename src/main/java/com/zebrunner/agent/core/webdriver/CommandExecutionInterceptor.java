@@ -0,0 +1,25 @@
+package com.zebrunner.agent.core.webdriver;
+
+import com.zebrunner.agent.core.registrar.WebDriverCommandProfiler;
+import net.bytebuddy.asm.Advice;
+import org.openqa.selenium.remote.CommandPayload;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+/**
+ * Advice inlined into {@code execute(CommandPayload)} method of {@link RemoteWebDriver}. Every command sent
+ * to the grid goes through the method, including the commands of web elements, so its duration is the time
+ * the test waited for the command.
+ */
+public class CommandExecutionInterceptor {
+
+    @Advice.OnMethodEnter
+    public static long onCommandStart() {
+        return System.nanoTime();
+    }
+
+    @Advice.OnMethodExit(onThrowable = Throwable.class, suppress = Throwable.class)
+    public static void onCommandEnd(@Advice.Argument(0) CommandPayload payload, @Advice.Enter long startNanos) {
+        WebDriverCommandProfiler.record(payload.getName(), startNanos);
+    }
+
+}
@@ -2,8 +2,10 @@ package com.zebrunner.agent.core.webdriver;
 
 import lombok.extern.slf4j.Slf4j;
 import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.asm.Advice;
 import net.bytebuddy.description.method.MethodDescription;
 import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.ClassFileLocator;
 import net.bytebuddy.dynamic.DynamicType;
 import net.bytebuddy.matcher.ElementMatcher;
 import net.bytebuddy.matcher.NameMatcher;
@@ -14,11 +16,13 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
-import static net.bytebuddy.implementation.MethodDelegation.to;
+import static net.bytebuddy.matcher.ElementMatchers.isMethod;
 import static net.bytebuddy.matcher.ElementMatchers.isPublic;
 import static net.bytebuddy.matcher.ElementMatchers.isStatic;
 import static net.bytebuddy.matcher.ElementMatchers.named;
 import static net.bytebuddy.matcher.ElementMatchers.not;
+import static net.bytebuddy.matcher.ElementMatchers.takesArgument;
+import static net.bytebuddy.matcher.ElementMatchers.takesArguments;
 
 @Slf4j
 public class DriverSessionsAgent {
@@ -28,6 +32,8 @@ public class DriverSessionsAgent {
 
     private static final String START_SESSION_METHOD_MAME = "startSession";
     private static final String QUIT_METHOD_MAME = "quit";
+    private static final String EXECUTE_METHOD_MAME = "execute";
+    private static final String COMMAND_PAYLOAD_CLASS_MAME = "org.openqa.selenium.remote.CommandPayload";
 
     // getSessionId and getCapabilities are used by the agent interceptors
     private static final Set<String> PUBLIC_METHODS_TO_NOT_INTERCEPT = new HashSet<>(Arrays.asList(
@@ -52,8 +58,7 @@ public class DriverSessionsAgent {
                     // if ** <- AppiumDriver is created, then the startSession method in RemoteWebDriver is not called
                     .type(named(APPIUM_WEB_DRIVER_CLASS_MAME))
                     .transform((builder, type, classloader, module, protectionDomain) ->
-                            builder.method(named(START_SESSION_METHOD_MAME))
-                                    .intercept(to(startSessionInterceptor())))
+                            builder.visit(advice(StartSessionInterceptor.class).on(named(START_SESSION_METHOD_MAME))))
                     .installOn(instrumentation);
         } catch (Exception e) {
             log.error("Could not add interceptors for RemoteWebDriver", e);
@@ -61,36 +66,36 @@ public class DriverSessionsAgent {
     }
 
     public static ElementMatcher<? super MethodDescription> isPublicMethodToIntercept() {
-        return isPublic()
+        return isMethod()
+                .and(isPublic())
                 .and(not(isStatic()))
                 .and(not(new NameMatcher<>(PUBLIC_METHODS_TO_NOT_INTERCEPT::contains)));
     }
 
-    private static DynamicType.Builder<?> addInterceptors(DynamicType.Builder<?> builder) {
-        return builder.method(isPublicMethodToIntercept())
-                      .intercept(to(publicMethodsInterceptor()))
-                      .method(named(START_SESSION_METHOD_MAME))
-                      .intercept(to(startSessionInterceptor()))
-                      .method(named(QUIT_METHOD_MAME))
-                      .intercept(to(quitSessionInterceptor()));
-    }
-
-    private static TypeDescription publicMethodsInterceptor() {
-        return TypePool.Default.ofSystemLoader()
-                               .describe(PublicMethodInvocationInterceptor.class.getName())
-                               .resolve();
+    // all the overloads of execute method delegate to this one
+    private static ElementMatcher<? super MethodDescription> isCommandExecution() {
+        return named(EXECUTE_METHOD_MAME)
+                .and(takesArguments(1))
+                .and(takesArgument(0, named(COMMAND_PAYLOAD_CLASS_MAME)));
     }
 
-    private static TypeDescription startSessionInterceptor() {
-        return TypePool.Default.ofSystemLoader()
-                               .describe(StartSessionInterceptor.class.getName())
-                               .resolve();
+    /**
+     * Inlines the interceptors into the driver methods as {@link Advice}, so an intercepted call neither allocates
+     * invocation proxies nor gets extra frames on the stack.
+     */
+    private static DynamicType.Builder<?> addInterceptors(DynamicType.Builder<?> builder) {
+        return builder.visit(advice(PublicMethodInvocationInterceptor.class).on(isPublicMethodToIntercept()))
+                      .visit(advice(StartSessionInterceptor.class).on(named(START_SESSION_METHOD_MAME)))
+                      .visit(advice(QuitSessionInterceptor.class).on(named(QUIT_METHOD_MAME)))
+                      .visit(advice(CommandExecutionInterceptor.class).on(isCommandExecution()));
     }
 
-    private static TypeDescription quitSessionInterceptor() {
-        return TypePool.Default.ofSystemLoader()
-                               .describe(QuitSessionInterceptor.class.getName())
-                               .resolve();
+    // advice classes are described from class files, so they are not loaded before the driver classes are transformed
+    private static Advice advice(Class<?> adviceClass) {
+        TypeDescription adviceType = TypePool.Default.ofSystemLoader()
+                                                     .describe(adviceClass.getName())
+                                                     .resolve();
+        return Advice.to(adviceType, ClassFileLocator.ForClassLoader.ofSystemLoader());
     }
 
 }
@@ -0,0 +1,124 @@
+package com.zebrunner.agent.core.webdriver;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads and writes a non-public field of WebDriver classes through method handles. Fields are looked up
+ * in the class hierarchy once per class and field name, so sessions started later reuse the resolved handles
+ * instead of scanning declared fields and toggling their accessibility again.
+ */
+final class FieldAccessor {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final ClassValue<Map<String, FieldAccessor>> CLASS_ACCESSORS = new ClassValue<Map<String, FieldAccessor>>() {
+
+        @Override
+        protected Map<String, FieldAccessor> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+
+    };
+
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+
+    private FieldAccessor(Field field) throws IllegalAccessException {
+        // final fields can be written through a handle only if the field itself is made accessible
+        field.setAccessible(true);
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        this.getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+        this.setter = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+    }
+
+    /**
+     * Returns accessor of the field with the given name declared by the class or by one of its superclasses.
+     *
+     * @param type      class to look the field up in
+     * @param fieldName name of the field
+     * @return accessor of the field
+     * @throws NoSuchFieldException   if neither the class nor its superclasses declare the field
+     * @throws IllegalAccessException if the field cannot be made accessible
+     */
+    static FieldAccessor of(Class<?> type, String fieldName) throws NoSuchFieldException, IllegalAccessException {
+        Map<String, FieldAccessor> accessors = CLASS_ACCESSORS.get(type);
+        FieldAccessor accessor = accessors.get(fieldName);
+        if (accessor == null) {
+            accessor = new FieldAccessor(findField(type, fieldName));
+            accessors.put(fieldName, accessor);
+        }
+        return accessor;
+    }
+
+    /**
+     * Returns accessor of the first field of the given type declared by the class itself.
+     *
+     * @param type      class declaring the field
+     * @param fieldType exact type of the field
+     * @return accessor of the field
+     * @throws NoSuchFieldException   if the class declares no field of the given type
+     * @throws IllegalAccessException if the field cannot be made accessible
+     */
+    static FieldAccessor ofType(Class<?> type, Class<?> fieldType) throws NoSuchFieldException, IllegalAccessException {
+        // the key cannot clash with field names, since it is not a valid java identifier
+        String key = "<" + fieldType.getName() + ">";
+        Map<String, FieldAccessor> accessors = CLASS_ACCESSORS.get(type);
+        FieldAccessor accessor = accessors.get(key);
+        if (accessor == null) {
+            Field field = null;
+            for (Field declaredField : type.getDeclaredFields()) {
+                if (fieldType.equals(declaredField.getType())) {
+                    field = declaredField;
+                    break;
+                }
+            }
+            if (field == null) {
+                throw new NoSuchFieldException("Cannot find " + type.getSimpleName() + " field of type " + fieldType.getSimpleName());
+            }
+            accessor = new FieldAccessor(field);
+            accessors.put(key, accessor);
+        }
+        return accessor;
+    }
+
+    private static Field findField(Class<?> targetClass, String fieldName) throws NoSuchFieldException {
+        try {
+            return targetClass.getDeclaredField(fieldName);
+        } catch (NoSuchFieldException e) {
+            Class<?> superclass = targetClass.getSuperclass();
+            if (superclass != null && superclass != Object.class) {
+                return findField(superclass, fieldName);
+            }
+            throw e;
+        }
+    }
+
+    Object get(Object target) {
+        try {
+            return (Object) getter.invokeExact(target);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            // field getters do not throw checked exceptions
+            throw new IllegalStateException(e);
+        }
+    }
+
+    void set(Object target, Object value) {
+        try {
+            setter.invokeExact(target, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            // field setters do not throw checked exceptions
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
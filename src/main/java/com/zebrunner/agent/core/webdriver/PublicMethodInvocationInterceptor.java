@@ -1,29 +1,64 @@
 package com.zebrunner.agent.core.webdriver;
 
+import com.zebrunner.agent.core.metrics.AgentMetrics;
 import com.zebrunner.agent.core.registrar.TestSessionRegistrar;
-import net.bytebuddy.implementation.bind.annotation.RuntimeType;
-import net.bytebuddy.implementation.bind.annotation.SuperCall;
-import net.bytebuddy.implementation.bind.annotation.This;
+import net.bytebuddy.asm.Advice;
 import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.SessionId;
 
-import java.util.concurrent.Callable;
-
+/**
+ * Advice inlined into public methods of {@link RemoteWebDriver} which links the session of the driver
+ * to the current test once a method returns normally. The advice runs on every WebDriver command, so the normalized
+ * session id of the last used driver is cached per thread and the common case (the same driver used by the same test)
+ * does not allocate.
+ */
 public class PublicMethodInvocationInterceptor {
 
     private static final TestSessionRegistrar REGISTRAR = TestSessionRegistrar.getInstance();
+    private static final ThreadLocal<LastSession> THREAD_LAST_SESSION = ThreadLocal.withInitial(LastSession::new);
+
+    @Advice.OnMethodExit(suppress = Throwable.class)
+    public static void onPublicMethodInvocation(@Advice.This RemoteWebDriver driver) {
+        afterPublicMethodInvocation(driver);
+    }
 
-    @RuntimeType
-    public static Object onPublicMethodInvocation(@This final RemoteWebDriver driver,
-                                                  @SuperCall final Callable<Object> proxy) throws Exception {
-        Object returnValue = proxy.call();
+    public static void afterPublicMethodInvocation(RemoteWebDriver driver) {
+        long startNanos = System.nanoTime();
+        AgentMetrics.WEBDRIVER_COMMANDS.increment();
 
-        String sessionId = driver.getSessionId().toString();
-        if (sessionId.length() >= 64) {
-            sessionId = sessionId.substring(32);
+        SessionId driverSessionId = driver.getSessionId();
+        if (driverSessionId != null) {
+            REGISTRAR.linkToCurrentTest(normalizeSessionId(driverSessionId));
         }
-        REGISTRAR.linkToCurrentTest(sessionId);
+        AgentMetrics.WEBDRIVER_INTERCEPTOR_DURATION.recordSince(startNanos);
+    }
+
+    /**
+     * Returns the session id as it is registered in Zebrunner. The same {@link SessionId} instance is kept
+     * by a driver during the whole session, so the id is normalized only when the thread switches to another driver
+     * and the same string instance is returned otherwise.
+     *
+     * @param driverSessionId session id of the driver
+     * @return normalized session id
+     */
+    private static String normalizeSessionId(SessionId driverSessionId) {
+        LastSession lastSession = THREAD_LAST_SESSION.get();
+        if (lastSession.driverSessionId != driverSessionId) {
+            String sessionId = driverSessionId.toString();
+            if (sessionId.length() >= 64) {
+                sessionId = sessionId.substring(32);
+            }
+            lastSession.driverSessionId = driverSessionId;
+            lastSession.sessionId = sessionId;
+        }
+        return lastSession.sessionId;
+    }
+
+    private static final class LastSession {
+
+        private SessionId driverSessionId;
+        private String sessionId;
 
-        return returnValue;
     }
 
 }
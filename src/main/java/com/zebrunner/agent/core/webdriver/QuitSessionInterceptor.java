@@ -1,17 +1,20 @@
 package com.zebrunner.agent.core.webdriver;
 
+import com.zebrunner.agent.core.metrics.AgentMetrics;
 import com.zebrunner.agent.core.registrar.TestSessionRegistrar;
 import com.zebrunner.agent.core.registrar.descriptor.SessionCloseDescriptor;
 import lombok.extern.slf4j.Slf4j;
-import net.bytebuddy.implementation.bind.annotation.RuntimeType;
-import net.bytebuddy.implementation.bind.annotation.SuperCall;
-import net.bytebuddy.implementation.bind.annotation.This;
+import net.bytebuddy.asm.Advice;
 import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.SessionId;
 
 import java.util.Map;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Advice inlined into {@code quit} method of {@link RemoteWebDriver}. The session close is registered
+ * before the driver quits, while the session id is still known.
+ */
 @Slf4j
 public class QuitSessionInterceptor {
 
@@ -22,10 +25,19 @@ public class QuitSessionInterceptor {
     private static final Map<String, Object> CLOSED_SESSIONS = new ConcurrentHashMap<>();
     private static final Object MAP_VALUE = new Object();
 
-    @RuntimeType
-    public static void onSessionClose(@This final RemoteWebDriver driver,
-                                      @SuperCall final Callable<Boolean> proxy) throws Exception {
-        String sessionId = driver.getSessionId().toString();
+    @Advice.OnMethodEnter(suppress = Throwable.class)
+    public static void onSessionClose(@Advice.This RemoteWebDriver driver) {
+        beforeSessionClose(driver);
+    }
+
+    public static void beforeSessionClose(RemoteWebDriver driver) {
+        SessionId driverSessionId = driver.getSessionId();
+        if (driverSessionId == null) {
+            // the driver has already quit
+            return;
+        }
+
+        String sessionId = driverSessionId.toString();
         if (sessionId.length() >= 64) {
             sessionId = sessionId.substring(32);
         }
@@ -36,9 +48,8 @@ public class QuitSessionInterceptor {
             REGISTRAR.registerClose(closeDescriptor);
         } else {
             log.warn("Session with id {} is closed more than once.", sessionId);
+            AgentMetrics.SESSION_DUPLICATE_CLOSES.increment();
         }
-
-        proxy.call();
     }
 
 }
@@ -11,20 +11,32 @@ import org.openqa.selenium.remote.DesiredCapabilities;
 import org.openqa.selenium.remote.RemoteWebDriver;
 
 import java.net.URL;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class RemoteWebDriverFactory {
 
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapperImpl();
+    private static final ObjectMapper OBJECT_MAPPER = ObjectMapperImpl.getInstance();
     private static final GenericType<Map<String, String>> CAPABILITIES_TYPE = new GenericType<Map<String, String>>() {
     };
 
+    // environment of the process does not change, so the values provided by Zebrunner are parsed only once
+    private static volatile URL seleniumHubUrl;
+    private static volatile Map<String, String> capabilities;
+
     @SneakyThrows
     public static URL getSeleniumHubUrl() {
-        String hubUrl = System.getenv("ZEBRUNNER_HUB_URL");
-        return hubUrl != null ? new URL(hubUrl) : null;
+        URL hubUrl = seleniumHubUrl;
+        if (hubUrl == null) {
+            String rawHubUrl = System.getenv("ZEBRUNNER_HUB_URL");
+            if (rawHubUrl != null) {
+                hubUrl = new URL(rawHubUrl);
+                seleniumHubUrl = hubUrl;
+            }
+        }
+        return hubUrl;
     }
 
     private static URL getMandatorySeleniumHubUrl() {
@@ -33,15 +45,16 @@ public class RemoteWebDriverFactory {
     }
 
     public static Capabilities getCapabilities() {
-        String capabilities = System.getenv("ZEBRUNNER_CAPABILITIES");
-
-        Capabilities desiredCapabilities = new DesiredCapabilities();
-        if (capabilities != null) {
-            Map<String, String> capabilitiesMap = OBJECT_MAPPER.readValue(capabilities, CAPABILITIES_TYPE);
-            desiredCapabilities = new DesiredCapabilities(capabilitiesMap);
+        Map<String, String> zebrunnerCapabilities = capabilities;
+        if (zebrunnerCapabilities == null) {
+            String rawCapabilities = System.getenv("ZEBRUNNER_CAPABILITIES");
+            if (rawCapabilities == null) {
+                return new DesiredCapabilities();
+            }
+            zebrunnerCapabilities = Collections.unmodifiableMap(OBJECT_MAPPER.readValue(rawCapabilities, CAPABILITIES_TYPE));
+            capabilities = zebrunnerCapabilities;
         }
-
-        return desiredCapabilities;
+        return new DesiredCapabilities(zebrunnerCapabilities);
     }
 
     public static RemoteWebDriver getDriver() {
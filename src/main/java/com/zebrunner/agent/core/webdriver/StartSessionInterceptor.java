@@ -1,14 +1,14 @@
 package com.zebrunner.agent.core.webdriver;
 
 import com.zebrunner.agent.core.config.ConfigurationHolder;
+import com.zebrunner.agent.core.exception.TestAgentException;
+import com.zebrunner.agent.core.metrics.AgentMetrics;
 import com.zebrunner.agent.core.registrar.TestSessionRegistrar;
 import com.zebrunner.agent.core.registrar.descriptor.SessionStartDescriptor;
 import lombok.extern.slf4j.Slf4j;
-import net.bytebuddy.implementation.bind.annotation.Argument;
-import net.bytebuddy.implementation.bind.annotation.RuntimeType;
-import net.bytebuddy.implementation.bind.annotation.SuperCall;
-import net.bytebuddy.implementation.bind.annotation.This;
+import net.bytebuddy.asm.Advice;
 import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.ImmutableCapabilities;
 import org.openqa.selenium.UsernameAndPassword;
 import org.openqa.selenium.remote.HttpCommandExecutor;
 import org.openqa.selenium.remote.RemoteWebDriver;
@@ -17,59 +17,91 @@ import org.openqa.selenium.remote.http.netty.NettyClient;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
-import java.lang.reflect.Field;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.util.Arrays;
 
+/**
+ * Advice inlined into {@code startSession} method of {@link RemoteWebDriver} and {@code AppiumDriver}.
+ * Before the session is started, the Selenium Hub url and the capabilities may be substituted with the ones
+ * provided by Zebrunner. Once the session is started (or failed to start), the session start is registered.
+ * <p>The advice code is copied into the driver classes, so it only delegates to public methods of this class.
+ */
 @Slf4j
 public class StartSessionInterceptor {
 
     private static final TestSessionRegistrar REGISTRAR = TestSessionRegistrar.getInstance();
     private static final CapabilitiesCustomizerChain CAPABILITIES_CUSTOMIZER_CHAIN = CapabilitiesCustomizerChain.getInstance();
 
-    @RuntimeType
-    public static void onSessionStart(@This RemoteWebDriver driver,
-                                      @SuperCall Runnable methodInvocationProxy,
-                                      @Argument(0) Capabilities capabilities) throws Exception {
+    @Advice.OnMethodEnter
+    public static SessionStartDescriptor onSessionStart(@Advice.This RemoteWebDriver driver,
+                                                        @Advice.Argument(value = 0, readOnly = false) Capabilities capabilities,
+                                                        @Advice.Local("startNanos") long startNanos) {
+        capabilities = beforeSessionStart(driver, capabilities);
+        startNanos = System.nanoTime();
+        return SessionStartDescriptor.initiatedWith(capabilities.asMap());
+    }
+
+    @Advice.OnMethodExit(onThrowable = Throwable.class)
+    public static void onSessionStarted(@Advice.This RemoteWebDriver driver,
+                                        @Advice.Enter SessionStartDescriptor startDescriptor,
+                                        @Advice.Thrown Throwable thrown,
+                                        @Advice.Local("startNanos") long startNanos) {
+        afterSessionStart(driver, startDescriptor, thrown, startNanos);
+    }
+
+    public static Capabilities beforeSessionStart(RemoteWebDriver driver, Capabilities capabilities) {
         if (ConfigurationHolder.shouldSubstituteRemoteWebDrivers()) {
-            substituteSeleniumHub(driver);
-            capabilities = customizeCapabilities(methodInvocationProxy, capabilities);
+            try {
+                substituteSeleniumHub(driver);
+            } catch (ReflectiveOperationException | URISyntaxException e) {
+                throw new TestAgentException("Could not substitute address of remote selenium hub", e);
+            }
+            capabilities = CAPABILITIES_CUSTOMIZER_CHAIN.customize(capabilities);
         }
+        return capabilities;
+    }
 
-        SessionStartDescriptor startDescriptor = SessionStartDescriptor.initiatedWith(capabilities.asMap());
+    public static void afterSessionStart(RemoteWebDriver driver,
+                                         SessionStartDescriptor startDescriptor,
+                                         Throwable thrown,
+                                         long startNanos) {
         try {
-            methodInvocationProxy.run();
-
-            String sessionId = driver.getSessionId().toString();
-            if (sessionId.length() >= 64) {
-                // use case with GoGridRouter so we have to cut first 32 symbols!
-                // have no idea what it actually means, but Vadim Delendik can provide more information
-                sessionId = sessionId.substring(32);
-            }
+            if (thrown == null) {
+                AgentMetrics.SESSION_START_DURATION.recordSince(startNanos);
+
+                String sessionId = driver.getSessionId().toString();
+                if (sessionId.length() >= 64) {
+                    // use case with GoGridRouter so we have to cut first 32 symbols!
+                    // have no idea what it actually means, but Vadim Delendik can provide more information
+                    sessionId = sessionId.substring(32);
+                }
 
-            Capabilities driverCapabilities = driver.getCapabilities();
-            // ChromeDriver, ChromiumDriver, FirefoxDriver has its own capabilities field, but at the current stage they are null,
-            // so we try to get capabilities from RemoteWebDriver forcibly
-            if (driverCapabilities == null) {
-                Field capabilitiesField = Arrays.stream(RemoteWebDriver.class.getDeclaredFields())
-                        .filter(field -> Capabilities.class.equals(field.getType()))
-                        .peek(field -> field.setAccessible(true))
-                        .findFirst()
-                        .orElseThrow(() -> new NoSuchFieldException("Cannot find RemoteWebDriver capabilities field"));
-
-                driverCapabilities = (Capabilities) capabilitiesField.get(driver);
+                startDescriptor.successfullyStartedWith(sessionId, getCapabilities(driver).asMap());
+            } else {
+                StringWriter errorMessageStringWriter = new StringWriter();
+                thrown.printStackTrace(new PrintWriter(errorMessageStringWriter));
+                startDescriptor.failedToStart(errorMessageStringWriter.toString());
             }
 
-            startDescriptor.successfullyStartedWith(sessionId, driverCapabilities.asMap());
-        } catch (Exception e) {
-            StringWriter errorMessageStringWriter = new StringWriter();
-            e.printStackTrace(new PrintWriter(errorMessageStringWriter));
-            startDescriptor.failedToStart(errorMessageStringWriter.toString());
-            throw e;
-        } finally {
             REGISTRAR.registerStart(startDescriptor);
+        } catch (RuntimeException e) {
+            // the session itself is started (or failed) regardless of the agent, so the outcome is not altered
+            log.error("Could not register start of the session: {}", e.getMessage(), e);
+        }
+    }
+
+    private static Capabilities getCapabilities(RemoteWebDriver driver) {
+        Capabilities driverCapabilities = driver.getCapabilities();
+        // ChromeDriver, ChromiumDriver, FirefoxDriver has its own capabilities field, but at the current stage they are null,
+        // so we try to get capabilities from RemoteWebDriver forcibly
+        if (driverCapabilities == null) {
+            try {
+                driverCapabilities = (Capabilities) FieldAccessor.ofType(RemoteWebDriver.class, Capabilities.class).get(driver);
+            } catch (ReflectiveOperationException e) {
+                log.debug("Could not get capabilities of the started session: {}", e.getMessage());
+            }
         }
+        return driverCapabilities != null ? driverCapabilities : new ImmutableCapabilities();
     }
 
     private static void substituteSeleniumHub(RemoteWebDriver driver) throws NoSuchFieldException, IllegalAccessException, URISyntaxException {
@@ -100,61 +132,11 @@ public class StartSessionInterceptor {
     }
 
     private static Object getFieldValue(Object targetObject, String fieldName) throws NoSuchFieldException, IllegalAccessException {
-        Field remoteServer = findField(targetObject.getClass(), fieldName);
-        remoteServer.setAccessible(true);
-        Object value = remoteServer.get(targetObject);
-        remoteServer.setAccessible(false);
-        return value;
+        return FieldAccessor.of(targetObject.getClass(), fieldName).get(targetObject);
     }
 
     private static void setFieldValue(Object targetObject, String fieldName, Object value) throws NoSuchFieldException, IllegalAccessException {
-        Field remoteServer = findField(targetObject.getClass(), fieldName);
-        remoteServer.setAccessible(true);
-        remoteServer.set(targetObject, value);
-        remoteServer.setAccessible(false);
-    }
-
-    private static Field findField(Class<?> targetClass, String fieldName) throws NoSuchFieldException {
-        try {
-            return targetClass.getDeclaredField(fieldName);
-        } catch (NoSuchFieldException e) {
-            Class<?> superclass = targetClass.getSuperclass();
-            if (superclass != Object.class) {
-                return findField(superclass, fieldName);
-            }
-            throw e;
-        }
-    }
-
-    private static Capabilities customizeCapabilities(Runnable methodInvocationProxy, Capabilities capabilities) {
-        Class<? extends Runnable> methodInvocationProxyClass = methodInvocationProxy.getClass();
-        log.debug("Class of the #startSession() invocation proxy is {}", methodInvocationProxyClass.getName());
-
-        try {
-            // this field should be the only argument of #startSession()
-            Field argument1Field = methodInvocationProxyClass.getDeclaredField("argument1");
-            argument1Field.setAccessible(true);
-
-            Object methodArgument = argument1Field.get(methodInvocationProxy);
-            if (methodArgument instanceof Capabilities) {
-                capabilities = (Capabilities) methodArgument;
-                capabilities = CAPABILITIES_CUSTOMIZER_CHAIN.customize(capabilities);
-
-                argument1Field.set(methodInvocationProxy, capabilities);
-                argument1Field.setAccessible(false);
-            } else {
-                log.debug("#startSession() argument has unexpected type, thus it will not be modified. " +
-                        "Capabilities from Zebrunner will not be taken into account.");
-            }
-        } catch (NoSuchFieldException e) {
-            log.debug("#startSession() invocation proxy class does not contain an expected field. " +
-                    "Capabilities from Zebrunner will not be taken into account.");
-        } catch (IllegalAccessException e) {
-            log.debug("Could not get access to the original argument of #startSession() method. " +
-                    "Capabilities from Zebrunner will not be taken into account.");
-        }
-
-        return capabilities;
+        FieldAccessor.of(targetObject.getClass(), fieldName).set(targetObject, value);
     }
 
 }
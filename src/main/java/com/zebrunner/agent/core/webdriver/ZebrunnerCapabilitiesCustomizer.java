@@ -1,72 +1,113 @@
 package com.zebrunner.agent.core.webdriver;
 
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonSyntaxException;
 import com.zebrunner.agent.core.registrar.domain.ObjectMapperImpl;
 import kong.unirest.GenericType;
 import kong.unirest.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.ImmutableCapabilities;
 import org.openqa.selenium.remote.DesiredCapabilities;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
+/**
+ * Merges capabilities provided by Zebrunner via {@code ZEBRUNNER_CAPABILITIES} environment variable into capabilities
+ * of every started session. Keys of the provided capabilities may be dot-separated paths of nested capabilities,
+ * e.g. {@code goog:chromeOptions.args}.
+ * <p>The environment variable does not change during the run, so it is parsed once into an immutable template
+ * which is then merged into capabilities of each session.
+ */
 @Slf4j
 public class ZebrunnerCapabilitiesCustomizer implements CapabilitiesCustomizer {
 
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapperImpl();
-    private static final GenericType<Map<String, ?>> CAPABILITIES_TYPE = new GenericType<>() {
+    private static final ObjectMapper OBJECT_MAPPER = ObjectMapperImpl.getInstance();
+    private static final GenericType<Map<String, Object>> CAPABILITIES_TYPE = new GenericType<>() {
     };
 
+    private static final class TemplateHolder {
+
+        private static final Capabilities TEMPLATE = parseTemplate();
+
+    }
+
     @Override
     public Capabilities customize(Capabilities originalCapabilities) {
+        Capabilities template = TemplateHolder.TEMPLATE;
+        if (template == null) {
+            return originalCapabilities;
+        }
+
+        log.debug("Capabilities will be modified with the values provided from Zebrunner.");
+        return originalCapabilities.merge(template);
+    }
+
+    private static Capabilities parseTemplate() {
         String serializedCapabilities = System.getenv("ZEBRUNNER_CAPABILITIES");
         if (serializedCapabilities == null) {
-            return originalCapabilities;
+            return null;
         }
 
-        JsonObject capabilities;
+        Map<String, Object> capabilities;
         try {
-            capabilities = OBJECT_MAPPER.readValue(serializedCapabilities, JsonObject.class);
-        } catch (JsonSyntaxException e) {
+            capabilities = OBJECT_MAPPER.readValue(serializedCapabilities, CAPABILITIES_TYPE);
+        } catch (RuntimeException e) {
             log.warn("'ZEBRUNNER_CAPABILITIES' must have json object format. Skipping customization...");
-            return originalCapabilities;
+            return null;
+        }
+        if (capabilities == null) {
+            return null;
         }
 
-        log.debug("Capabilities will be modified with the values provided from Zebrunner.");
-
-        Set<String> keys = new HashSet<>(capabilities.keySet());
-        for (String key : keys) {
+        Map<String, Object> nestedCapabilities = new LinkedHashMap<>();
+        capabilities.forEach((key, value) -> {
             if (!key.contains(".")) {
-                continue;
+                nestedCapabilities.put(key, value);
             }
-
-            String[] keyParts = key.split("\\.");
-
-            JsonObject capabilityNode = capabilities;
-            for (int i = 0; i < keyParts.length - 1; i++) {
-                String keyPart = keyParts[i];
-
-                if (!capabilityNode.has(keyPart)) {
-                    capabilityNode.add(keyPart, new JsonObject());
-                }
-
-                capabilityNode = capabilityNode.getAsJsonObject(keyPart);
+        });
+        capabilities.forEach((key, value) -> {
+            if (key.contains(".")) {
+                putNested(nestedCapabilities, key.split("\\."), value);
             }
+        });
 
-            JsonElement value = capabilities.remove(key);
-            String lastKeyPart = keyParts[keyParts.length - 1];
+        return new ImmutableCapabilities(new DesiredCapabilities(immutableCopy(nestedCapabilities)));
+    }
 
-            capabilityNode.add(lastKeyPart, value);
+    @SuppressWarnings("unchecked")
+    private static void putNested(Map<String, Object> capabilities, String[] keyParts, Object value) {
+        Map<String, Object> capabilityNode = capabilities;
+        for (int i = 0; i < keyParts.length - 1; i++) {
+            Object child = capabilityNode.get(keyParts[i]);
+            if (!(child instanceof Map)) {
+                child = new LinkedHashMap<String, Object>();
+                capabilityNode.put(keyParts[i], child);
+            }
+            capabilityNode = (Map<String, Object>) child;
         }
+        capabilityNode.put(keyParts[keyParts.length - 1], value);
+    }
 
-        serializedCapabilities = capabilities.toString();
-        Map<String, ?> capabilitiesMap = OBJECT_MAPPER.readValue(serializedCapabilities, CAPABILITIES_TYPE);
+    private static Map<String, Object> immutableCopy(Map<?, ?> map) {
+        Map<String, Object> copy = new LinkedHashMap<>();
+        map.forEach((key, value) -> copy.put(String.valueOf(key), immutableCopyOf(value)));
+        return Collections.unmodifiableMap(copy);
+    }
 
-        return originalCapabilities.merge(new DesiredCapabilities(capabilitiesMap));
+    private static Object immutableCopyOf(Object value) {
+        if (value instanceof Map) {
+            return immutableCopy((Map<?, ?>) value);
+        } else if (value instanceof List) {
+            List<Object> copy = new ArrayList<>();
+            for (Object element : (List<?>) value) {
+                copy.add(immutableCopyOf(element));
+            }
+            return Collections.unmodifiableList(copy);
+        }
+        return value;
     }
 
 }
@@ -0,0 +1,341 @@
+package com.zebrunner.agent.core.load;
+
+import com.zebrunner.agent.core.logging.Log;
+import com.zebrunner.agent.core.registrar.Artifact;
+import com.zebrunner.agent.core.registrar.Label;
+import com.zebrunner.agent.core.registrar.LogsBuffer;
+import com.zebrunner.agent.core.registrar.Screenshot;
+import com.zebrunner.agent.core.registrar.TestRunRegistrar;
+import com.zebrunner.agent.core.registrar.TestSessionRegistrar;
+import com.zebrunner.agent.core.registrar.descriptor.SessionCloseDescriptor;
+import com.zebrunner.agent.core.registrar.descriptor.SessionStartDescriptor;
+import com.zebrunner.agent.core.registrar.descriptor.Status;
+import com.zebrunner.agent.core.registrar.descriptor.TestFinishDescriptor;
+import com.zebrunner.agent.core.registrar.descriptor.TestRunFinishDescriptor;
+import com.zebrunner.agent.core.registrar.descriptor.TestRunStartDescriptor;
+import com.zebrunner.agent.core.registrar.descriptor.TestStartDescriptor;
+import com.zebrunner.agent.core.stub.StubZebrunnerServer;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.reflect.Method;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Synthetic load driving {@link TestRunRegistrar} the way a test framework adapter does, in order to measure
+ * how much time the agent adds to every test. Each of the threads runs its tests one after another: a test starts,
+ * opens a WebDriver session, produces logs, screenshots, artifacts and labels, closes the session and finishes.
+ * The agent reports to {@link StubZebrunnerServer} with the configured latency, so no network is involved.
+ * <p>The workload is generated from a fixed seed and the first tests of every thread are not measured, so results
+ * of two runs on the same machine can be compared to catch regressions.
+ * <p>The harness is configured with system properties, e.g. {@code ./gradlew loadTest -Dload.threads=16}:
+ * <ul>
+ *     <li>{@code load.threads} - number of threads running tests, 8 by default;</li>
+ *     <li>{@code load.tests-per-thread} - number of tests run by every thread, 200 by default;</li>
+ *     <li>{@code load.warmup-tests-per-thread} - number of tests run by every thread before measurement, 20 by default;</li>
+ *     <li>{@code load.logs-per-test} - number of log events produced by every test, 50 by default;</li>
+ *     <li>{@code load.screenshots-per-test} - number of screenshots uploaded by every test, 2 by default;</li>
+ *     <li>{@code load.artifacts-per-test} - number of artifacts attached to every test, 1 by default;</li>
+ *     <li>{@code load.labels-per-test} - number of labels attached to every test, 2 by default;</li>
+ *     <li>{@code load.sessions-per-test} - number of WebDriver sessions opened by every test, 1 by default;</li>
+ *     <li>{@code load.server-latency-millis} - latency of the stub responses, 20 by default;</li>
+ *     <li>{@code load.seed} - seed of the workload, 42 by default.</li>
+ * </ul>
+ */
+public final class AgentLoadHarness {
+
+    private static final String RUN_START = "run start";
+    private static final String TEST_START = "test start";
+    private static final String SESSION_START = "session start";
+    private static final String LOG = "log";
+    private static final String SCREENSHOT = "screenshot";
+    private static final String ARTIFACT = "artifact";
+    private static final String LABEL = "label";
+    private static final String SESSION_CLOSE = "session close";
+    private static final String TEST_FINISH = "test finish";
+    private static final String RUN_FINISH = "run finish";
+
+    private final int threads = Integer.getInteger("load.threads", 8);
+    private final int testsPerThread = Integer.getInteger("load.tests-per-thread", 200);
+    private final int warmupTestsPerThread = Integer.getInteger("load.warmup-tests-per-thread", 20);
+    private final int logsPerTest = Integer.getInteger("load.logs-per-test", 50);
+    private final int screenshotsPerTest = Integer.getInteger("load.screenshots-per-test", 2);
+    private final int artifactsPerTest = Integer.getInteger("load.artifacts-per-test", 1);
+    private final int labelsPerTest = Integer.getInteger("load.labels-per-test", 2);
+    private final int sessionsPerTest = Integer.getInteger("load.sessions-per-test", 1);
+    private final long serverLatencyMillis = Long.getLong("load.server-latency-millis", 20);
+    private final long seed = Long.getLong("load.seed", 42);
+
+    private TestRunRegistrar registrar;
+    private TestSessionRegistrar sessionRegistrar;
+    private LogsBuffer<String> logsBuffer;
+
+    public static void main(String[] args) throws Exception {
+        new AgentLoadHarness().run();
+        // the agent keeps non-daemon executors alive
+        System.exit(0);
+    }
+
+    private void run() throws IOException, InterruptedException {
+        try (StubZebrunnerServer server = StubZebrunnerServer.start(0)) {
+            server.setLatency(serverLatencyMillis, 0);
+
+            // the agent configuration is read once the agent classes are used for the first time
+            System.setProperty("reporting.enabled", "true");
+            System.setProperty("reporting.project-key", "LOAD");
+            System.setProperty("reporting.server.hostname", server.getBaseUrl());
+            System.setProperty("reporting.server.access-token", "load");
+
+            registrar = TestRunRegistrar.getInstance();
+            sessionRegistrar = TestSessionRegistrar.getInstance();
+            logsBuffer = LogsBuffer.create(message -> Log.builder()
+                                                         .message(message)
+                                                         .level("INFO")
+                                                         .timestamp(System.currentTimeMillis())
+                                                         .build());
+
+            LatencySamples runSamples = new LatencySamples();
+            runSamples.measure(RUN_START, () -> registrar.registerStart(
+                    new TestRunStartDescriptor("Load " + OffsetDateTime.now(), "load", OffsetDateTime.now(), null)
+            ));
+
+            this.runTests(threads, warmupTestsPerThread, new LatencySamples[threads]);
+            server.resetCounters();
+            this.resetPeakHeapUsage();
+            long gcMillisBefore = this.getGcMillis();
+
+            LatencySamples[] threadSamples = new LatencySamples[threads];
+            long startNanos = System.nanoTime();
+            this.runTests(threads, testsPerThread, threadSamples);
+            long testsNanos = System.nanoTime() - startNanos;
+
+            runSamples.measure(RUN_FINISH, () -> registrar.registerFinish(new TestRunFinishDescriptor(OffsetDateTime.now())));
+            long totalNanos = System.nanoTime() - startNanos;
+
+            LatencySamples samples = LatencySamples.merge(threadSamples);
+            samples.addAll(runSamples);
+            this.printReport(samples, testsNanos, totalNanos, this.getGcMillis() - gcMillisBefore, server);
+        }
+    }
+
+    private void runTests(int threads, int testsPerThread, LatencySamples[] threadSamples) throws InterruptedException {
+        CountDownLatch finished = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            int threadIndex = i;
+            threadSamples[threadIndex] = new LatencySamples();
+            Thread thread = new Thread(() -> {
+                try {
+                    Random random = new Random(seed + threadIndex);
+                    for (int test = 0; test < testsPerThread; test++) {
+                        this.runTest(threadIndex, test, random, threadSamples[threadIndex]);
+                    }
+                } finally {
+                    finished.countDown();
+                }
+            }, "load-" + threadIndex);
+            thread.start();
+        }
+        finished.await();
+    }
+
+    private void runTest(int threadIndex, int testIndex, Random random, LatencySamples samples) {
+        String id = UUID.randomUUID().toString();
+        Method method = SampleTest.TEST_METHOD;
+        TestStartDescriptor startDescriptor = new TestStartDescriptor(
+                "load-" + threadIndex + "-" + testIndex, SampleTest.class.getName() + ".test[" + testIndex + "]",
+                SampleTest.class, method, testIndex
+        );
+        samples.measure(TEST_START, () -> registrar.registerTestStart(id, startDescriptor));
+
+        List<String> sessionIds = new ArrayList<>(sessionsPerTest);
+        for (int i = 0; i < sessionsPerTest; i++) {
+            String sessionId = UUID.randomUUID().toString().replace("-", "");
+            SessionStartDescriptor sessionStart = SessionStartDescriptor.initiatedWith(Collections.singletonMap("browserName", "chrome"));
+            sessionStart.successfullyStartedWith(sessionId, Collections.singletonMap("browserName", "chrome"));
+            samples.measure(SESSION_START, () -> sessionRegistrar.registerStart(sessionStart));
+            sessionIds.add(sessionId);
+        }
+
+        for (int i = 0; i < logsPerTest; i++) {
+            String message = "Step " + i + " of test " + testIndex + ": " + random.nextLong();
+            samples.measure(LOG, () -> logsBuffer.put(message));
+        }
+        for (int i = 0; i < screenshotsPerTest; i++) {
+            byte[] screenshot = new byte[16 * 1024 + random.nextInt(16 * 1024)];
+            random.nextBytes(screenshot);
+            samples.measure(SCREENSHOT, () -> Screenshot.upload(screenshot, System.currentTimeMillis()));
+        }
+        for (int i = 0; i < artifactsPerTest; i++) {
+            byte[] artifact = new byte[4 * 1024 + random.nextInt(4 * 1024)];
+            random.nextBytes(artifact);
+            String name = "artifact-" + i + ".txt";
+            samples.measure(ARTIFACT, () -> Artifact.attachToTest(name, artifact));
+        }
+        for (int i = 0; i < labelsPerTest; i++) {
+            String name = "label-" + i;
+            String value = "value-" + random.nextInt(10);
+            samples.measure(LABEL, () -> Label.attachToTest(name, value));
+        }
+
+        for (String sessionId : sessionIds) {
+            samples.measure(SESSION_CLOSE, () -> sessionRegistrar.registerClose(SessionCloseDescriptor.of(sessionId)));
+        }
+
+        Status status = random.nextInt(10) == 0 ? Status.FAILED : Status.PASSED;
+        samples.measure(TEST_FINISH, () -> registrar.registerTestFinish(id, new TestFinishDescriptor(status)));
+    }
+
+    private void resetPeakHeapUsage() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private long getPeakHeapUsage() {
+        long peakUsage = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peakUsage += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peakUsage;
+    }
+
+    private long getGcMillis() {
+        long gcMillis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcMillis += Math.max(0, collector.getCollectionTime());
+        }
+        return gcMillis;
+    }
+
+    private void printReport(LatencySamples samples, long testsNanos, long totalNanos, long gcMillis, StubZebrunnerServer server) {
+        int tests = threads * testsPerThread;
+        System.out.printf("%nAgent load: %d threads x %d tests, %d logs, %d screenshots, %d artifacts, %d labels, "
+                          + "%d sessions per test, server latency %d ms, seed %d%n",
+                threads, testsPerThread, logsPerTest, screenshotsPerTest, artifactsPerTest, labelsPerTest,
+                sessionsPerTest, serverLatencyMillis, seed);
+        System.out.printf("Throughput: %.1f tests/s (%.1f tests/s including run finish)%n",
+                tests / (testsNanos / 1e9), tests / (totalNanos / 1e9));
+        System.out.printf("Agent overhead per test: %.3f ms%n", samples.sumMillis(RUN_START, RUN_FINISH) / tests);
+        System.out.printf("Heap peak: %.1f MiB, GC time: %d ms%n", this.getPeakHeapUsage() / 1024.0 / 1024.0, gcMillis);
+        System.out.printf("Requests: %d, received: %.1f KiB, sent: %.1f KiB%n%n",
+                server.getRequestCounts().values().stream().mapToLong(Long::longValue).sum(),
+                server.getReceivedBytes() / 1024.0, server.getSentBytes() / 1024.0);
+
+        System.out.printf("%-15s %10s %12s %12s %12s %12s%n", "call", "count", "mean, us", "p50, us", "p99, us", "max, us");
+        for (String call : Arrays.asList(RUN_START, TEST_START, SESSION_START, LOG, SCREENSHOT, ARTIFACT, LABEL,
+                SESSION_CLOSE, TEST_FINISH, RUN_FINISH)) {
+            long[] latencies = samples.sorted(call);
+            if (latencies.length > 0) {
+                System.out.printf("%-15s %10d %12.1f %12.1f %12.1f %12.1f%n", call, latencies.length,
+                        Arrays.stream(latencies).average().orElse(0) / 1000,
+                        percentile(latencies, 0.5) / 1000.0, percentile(latencies, 0.99) / 1000.0,
+                        latencies[latencies.length - 1] / 1000.0);
+            }
+        }
+    }
+
+    private static long percentile(long[] sortedLatencies, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, index)];
+    }
+
+    /**
+     * Latencies of agent calls in nanoseconds grouped by call. Every thread records into its own instance.
+     */
+    private static final class LatencySamples {
+
+        private final Map<String, long[]> callToLatencies = new LinkedHashMap<>();
+        private final Map<String, Integer> callToCount = new LinkedHashMap<>();
+
+        static LatencySamples merge(LatencySamples[] samples) {
+            LatencySamples merged = new LatencySamples();
+            for (LatencySamples threadSamples : samples) {
+                merged.addAll(threadSamples);
+            }
+            return merged;
+        }
+
+        void measure(String call, Runnable action) {
+            long startNanos = System.nanoTime();
+            action.run();
+            this.add(call, System.nanoTime() - startNanos);
+        }
+
+        void add(String call, long latencyNanos) {
+            int count = callToCount.getOrDefault(call, 0);
+            long[] latencies = callToLatencies.get(call);
+            if (latencies == null || latencies.length == count) {
+                latencies = Arrays.copyOf(latencies != null ? latencies : new long[0], Math.max(16, count * 2));
+                callToLatencies.put(call, latencies);
+            }
+            latencies[count] = latencyNanos;
+            callToCount.put(call, count + 1);
+        }
+
+        void addAll(LatencySamples samples) {
+            samples.callToCount.forEach((call, count) -> {
+                long[] latencies = samples.callToLatencies.get(call);
+                for (int i = 0; i < count; i++) {
+                    this.add(call, latencies[i]);
+                }
+            });
+        }
+
+        long[] sorted(String call) {
+            int count = callToCount.getOrDefault(call, 0);
+            long[] latencies = count > 0 ? Arrays.copyOf(callToLatencies.get(call), count) : new long[0];
+            Arrays.sort(latencies);
+            return latencies;
+        }
+
+        double sumMillis(String... excludedCalls) {
+            List<String> excluded = Arrays.asList(excludedCalls);
+            long sumNanos = 0;
+            for (Map.Entry<String, Integer> entry : callToCount.entrySet()) {
+                if (!excluded.contains(entry.getKey())) {
+                    long[] latencies = callToLatencies.get(entry.getKey());
+                    for (int i = 0; i < entry.getValue(); i++) {
+                        sumNanos += latencies[i];
+                    }
+                }
+            }
+            return sumNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+    }
+
+    public static class SampleTest {
+
+        static final Method TEST_METHOD;
+
+        static {
+            try {
+                TEST_METHOD = SampleTest.class.getMethod("test");
+            } catch (NoSuchMethodException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        public void test() {
+        }
+
+    }
+
+}
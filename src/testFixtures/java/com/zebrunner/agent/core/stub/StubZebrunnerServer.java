@@ -0,0 +1,326 @@
+package com.zebrunner.agent.core.stub;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Local stand-in for Zebrunner API which allows to run the agent offline. The server accepts all the requests issued
+ * by the agent, assigns ids to created entities and counts received requests per route, so the number of requests
+ * issued by the agent can be checked without access to a real Zebrunner instance.
+ * <p>In order to resemble a real server under load, the stub can delay responses, fail a share of reporting requests
+ * with {@code 503} and throttle reporting requests exceeding the given rate with {@code 429}. Besides request counts,
+ * the stub counts bytes received and sent over the wire, so the cost of reporting can be measured on a laptop.
+ * <p>To report to the stub, point {@code reporting.server.hostname} to {@link #getBaseUrl()}.
+ */
+public class StubZebrunnerServer implements AutoCloseable {
+
+    private static final Pattern NUMERIC_PATH_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+    private static final Pattern SESSION_ID = Pattern.compile("\"sessionId\"\\s*:\\s*\"([^\"]*)\"");
+    private static final Pattern RESULT = Pattern.compile("\"result\"\\s*:\\s*\"");
+    private static final String AUTH_REFRESH_PATH = "/api/iam/v1/auth/refresh";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicLong idSequence = new AtomicLong();
+    private final Map<String, LongAdder> routeToRequestCount = new ConcurrentHashMap<>();
+    private final LongAdder testsCreatedWithResult = new LongAdder();
+    private final LongAdder receivedBytes = new LongAdder();
+    private final LongAdder sentBytes = new LongAdder();
+    private final LongAdder failedRequests = new LongAdder();
+    private final LongAdder throttledRequests = new LongAdder();
+
+    private volatile long latencyMillis;
+    private volatile long latencyJitterMillis;
+    private volatile double errorRate;
+    private volatile int maxRequestsPerSecond;
+    private long throttlingWindowStartNanos;
+    private int throttlingWindowRequests;
+
+    private StubZebrunnerServer(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts the stub on the given port.
+     *
+     * @param port port to listen on or 0 to pick a free port
+     * @return started stub
+     * @throws IOException if the server cannot be bound to the port
+     */
+    public static StubZebrunnerServer start(int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+
+        StubZebrunnerServer stub = new StubZebrunnerServer(server, executor);
+        server.createContext("/", stub::handle);
+        server.start();
+        return stub;
+    }
+
+    /**
+     * Starts the stub from command line.
+     * <p>Arguments: {@code [port] [latency millis] [error rate] [max requests per second]}.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        StubZebrunnerServer stub = StubZebrunnerServer.start(port);
+        if (args.length > 1) {
+            stub.setLatency(Long.parseLong(args[1]), 0);
+        }
+        if (args.length > 2) {
+            stub.setErrorRate(Double.parseDouble(args[2]));
+        }
+        if (args.length > 3) {
+            stub.setMaxRequestsPerSecond(Integer.parseInt(args[3]));
+        }
+        System.out.println("Stub of Zebrunner API is listening on " + stub.getBaseUrl());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.println("Received requests: " + stub.getRequestCounts());
+            System.out.println("Received bytes: " + stub.getReceivedBytes() + ", sent bytes: " + stub.getSentBytes()
+                    + ", failed requests: " + stub.getFailedRequestCount()
+                    + ", throttled requests: " + stub.getThrottledRequestCount());
+            stub.close();
+        }));
+    }
+
+    /**
+     * Makes the stub delay every response.
+     *
+     * @param latencyMillis minimal delay of responses
+     * @param jitterMillis  maximal random addition to the minimal delay
+     */
+    public void setLatency(long latencyMillis, long jitterMillis) {
+        this.latencyMillis = latencyMillis;
+        this.latencyJitterMillis = jitterMillis;
+    }
+
+    /**
+     * Makes the stub respond with {@code 503} to the given share of reporting requests.
+     *
+     * @param errorRate share of failed requests from 0 to 1
+     */
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * Makes the stub respond with {@code 429} to reporting requests exceeding the given rate.
+     *
+     * @param maxRequestsPerSecond max number of accepted requests per second or 0 to accept all the requests
+     */
+    public void setMaxRequestsPerSecond(int maxRequestsPerSecond) {
+        this.maxRequestsPerSecond = maxRequestsPerSecond;
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Returns number of requests received for the given route. Numeric path segments of routes are replaced
+     * with {@code {id}}, e.g. {@code POST /api/reporting/v1/test-runs/{id}/tests}.
+     *
+     * @param route HTTP method and normalized path separated by space
+     * @return number of received requests
+     */
+    public long getRequestCount(String route) {
+        LongAdder count = routeToRequestCount.get(route);
+        return count != null ? count.sum() : 0;
+    }
+
+    public Map<String, Long> getRequestCounts() {
+        Map<String, Long> requestCounts = new ConcurrentHashMap<>();
+        routeToRequestCount.forEach((route, count) -> requestCounts.put(route, count.sum()));
+        return requestCounts;
+    }
+
+    /**
+     * Returns number of tests which were created along with their result, so no separate finish request was needed.
+     *
+     * @return number of tests created with result
+     */
+    public long getTestsCreatedWithResult() {
+        return testsCreatedWithResult.sum();
+    }
+
+    /**
+     * Returns number of bytes of request bodies as received over the wire, i.e. before decompression.
+     *
+     * @return number of received bytes
+     */
+    public long getReceivedBytes() {
+        return receivedBytes.sum();
+    }
+
+    public long getSentBytes() {
+        return sentBytes.sum();
+    }
+
+    public long getFailedRequestCount() {
+        return failedRequests.sum();
+    }
+
+    public long getThrottledRequestCount() {
+        return throttledRequests.sum();
+    }
+
+    /**
+     * Resets all the counters, e.g. between benchmark iterations. Ids of entities keep growing.
+     */
+    public void resetCounters() {
+        routeToRequestCount.clear();
+        testsCreatedWithResult.reset();
+        receivedBytes.reset();
+        sentBytes.reset();
+        failedRequests.reset();
+        throttledRequests.reset();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            String body = this.readBody(exchange);
+
+            String route = method + " " + NUMERIC_PATH_SEGMENT.matcher(path).replaceAll("/{id}");
+            routeToRequestCount.computeIfAbsent(route, $ -> new LongAdder()).increment();
+
+            this.delay();
+            if (!AUTH_REFRESH_PATH.equals(path)) {
+                if (this.isThrottled()) {
+                    throttledRequests.increment();
+                    exchange.getResponseHeaders().add("Retry-After", "1");
+                    this.respond(exchange, 429, "{\"message\":\"Too many requests\"}");
+                    return;
+                }
+                if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                    failedRequests.increment();
+                    this.respond(exchange, 503, "{\"message\":\"Service unavailable\"}");
+                    return;
+                }
+            }
+
+            this.respond(exchange, 200, this.resolveResponse(method, path, route, body));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void delay() {
+        long delayMillis = latencyMillis;
+        if (latencyJitterMillis > 0) {
+            delayMillis += ThreadLocalRandom.current().nextLong(latencyJitterMillis + 1);
+        }
+        if (delayMillis > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private synchronized boolean isThrottled() {
+        if (maxRequestsPerSecond <= 0) {
+            return false;
+        }
+        long now = System.nanoTime();
+        if (now - throttlingWindowStartNanos >= TimeUnit.SECONDS.toNanos(1)) {
+            throttlingWindowStartNanos = now;
+            throttlingWindowRequests = 0;
+        }
+        return ++throttlingWindowRequests > maxRequestsPerSecond;
+    }
+
+    private String resolveResponse(String method, String path, String route, String body) {
+        switch (route) {
+            case "POST " + AUTH_REFRESH_PATH:
+                return "{\"authTokenType\":\"Bearer\",\"authToken\":\"stub\",\"authTokenExpirationInSecs\":3600}";
+            case "POST /api/reporting/v1/test-runs":
+                return "{\"id\":" + idSequence.incrementAndGet() + "}";
+            case "POST /api/reporting/v1/test-runs/{id}/tests":
+                if (RESULT.matcher(body).find()) {
+                    testsCreatedWithResult.increment();
+                }
+                return "{\"id\":" + idSequence.incrementAndGet() + "}";
+            case "POST /api/reporting/v1/test-runs/{id}/tests/{id}":
+            case "PUT /api/reporting/v1/test-runs/{id}/tests/{id}":
+                if ("POST".equals(method) && RESULT.matcher(body).find()) {
+                    testsCreatedWithResult.increment();
+                }
+                return "{\"id\":" + path.substring(path.lastIndexOf('/') + 1) + "}";
+            case "POST /api/reporting/v1/test-runs/{id}/test-sessions":
+                Matcher sessionId = SESSION_ID.matcher(body);
+                return "{\"id\":" + idSequence.incrementAndGet()
+                        + (sessionId.find() ? ",\"sessionId\":\"" + sessionId.group(1) + "\"" : "")
+                        + ",\"status\":\"RUNNING\"}";
+            case "POST /api/reporting/v1/run-context-exchanges":
+                return "{\"id\":\"" + UUID.randomUUID() + "\",\"runExists\":false,\"rerunOnlyFailedTests\":false,\"tests\":[]}";
+            case "POST /api/reporting/v1/test-runs/{id}/tests/{id}/known-issue-confirmations":
+                return "{\"knownIssue\":false}";
+            default:
+                return "{}";
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(bytes);
+        }
+        sentBytes.add(bytes.length);
+    }
+
+    private String readBody(HttpExchange exchange) throws IOException {
+        byte[] body = readFully(exchange.getRequestBody());
+        receivedBytes.add(body.length);
+
+        if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            try (InputStream decompressed = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                body = readFully(decompressed);
+            }
+        }
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readFully(InputStream input) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            body.write(buffer, 0, read);
+        }
+        return body.toByteArray();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+}